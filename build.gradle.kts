@@ -10,6 +10,7 @@ plugins {
     alias(libs.plugins.changelog) // Gradle Changelog Plugin
     alias(libs.plugins.qodana) // Gradle Qodana Plugin
     alias(libs.plugins.kover) // Gradle Kover Plugin
+    alias(libs.plugins.jmh) // JMH Gradle Plugin
 }
 
 group = providers.gradleProperty("pluginGroup").get()
@@ -122,6 +123,20 @@ changelog {
     repositoryUrl = providers.gradleProperty("pluginRepositoryUrl")
 }
 
+// Configure JMH Gradle Plugin - read more: https://github.com/melix/jmh-gradle-plugin
+// Benchmarks are in src/jmh/java and run with ./gradlew jmh
+jmh {
+    jmhVersion = libs.versions.jmh.get()
+}
+
+// Benchmarks use the IntelliJ Platform and the test helpers, like the tests
+sourceSets {
+    named("jmh") {
+        compileClasspath += sourceSets.test.get().output + sourceSets.test.get().compileClasspath
+        runtimeClasspath += sourceSets.test.get().output + sourceSets.test.get().runtimeClasspath
+    }
+}
+
 // Configure Gradle Kover Plugin - read more: https://github.com/Kotlin/kotlinx-kover#configuration
 kover {
     reports {
@@ -0,0 +1,154 @@
+package mesfavoris.internal.markers;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.LightVirtualFile;
+import mesfavoris.bookmarktype.BookmarkMarker;
+import mesfavoris.model.BookmarkId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compare the contention of {@link BookmarksMarkersStore} with the previous implementation that used a single lock
+ * and copied the markers of a file on each read : several threads read the markers of files while another thread
+ * keeps replacing markers.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookmarksMarkersStoreBenchmark {
+    private static final int FILES_COUNT = 200;
+    private static final int MARKERS_PER_FILE = 20;
+
+    @Param({"BookmarksMarkersStore", "SingleLock"})
+    public String implementation;
+
+    private IBookmarksMarkersStore store;
+    private List<VirtualFile> files;
+
+    @Setup
+    public void setUp() {
+        files = new ArrayList<>();
+        for (int i = 0; i < FILES_COUNT; i++) {
+            files.add(new LightVirtualFile("file" + i + ".txt"));
+        }
+        store = "SingleLock".equals(implementation) ? new LockBasedBookmarksMarkersStore()
+                : new BookmarksMarkersStore();
+        for (int i = 0; i < FILES_COUNT * MARKERS_PER_FILE; i++) {
+            store.put(marker(i, 0));
+        }
+    }
+
+    @Benchmark
+    @Group("contention")
+    @GroupThreads(3)
+    public List<BookmarkMarker> getMarkersOfFile() {
+        return store.get(files.get(ThreadLocalRandom.current().nextInt(FILES_COUNT)));
+    }
+
+    @Benchmark
+    @Group("contention")
+    @GroupThreads(1)
+    public BookmarkMarker putMarker() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return store.put(marker(random.nextInt(FILES_COUNT * MARKERS_PER_FILE), random.nextInt(1000)));
+    }
+
+    private BookmarkMarker marker(int markerIndex, int lineNumber) {
+        return new BookmarkMarker(files.get(markerIndex % FILES_COUNT), new BookmarkId("bookmark" + markerIndex),
+                Map.of(BookmarkMarker.LINE_NUMBER, Integer.toString(lineNumber)));
+    }
+
+    private static class LockBasedBookmarksMarkersStore implements IBookmarksMarkersStore {
+        private final Map<BookmarkId, BookmarkMarker> bookmarkIdToMarkerMap = new HashMap<>();
+        private final Map<VirtualFile, Set<BookmarkMarker>> fileToMarkerMap = new HashMap<>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        @Override
+        public BookmarkMarker put(BookmarkMarker bookmarkMarker) {
+            lock.lock();
+            try {
+                BookmarkMarker previous = bookmarkIdToMarkerMap.put(bookmarkMarker.getBookmarkId(), bookmarkMarker);
+                if (previous != null) {
+                    removeFromFileToMarkerMap(previous);
+                }
+                fileToMarkerMap.computeIfAbsent(bookmarkMarker.getResource(), k -> new HashSet<>())
+                        .add(bookmarkMarker);
+                return previous;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public BookmarkMarker remove(BookmarkId bookmarkId) {
+            lock.lock();
+            try {
+                BookmarkMarker bookmarkMarker = bookmarkIdToMarkerMap.remove(bookmarkId);
+                if (bookmarkMarker != null) {
+                    removeFromFileToMarkerMap(bookmarkMarker);
+                }
+                return bookmarkMarker;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void removeFromFileToMarkerMap(BookmarkMarker bookmarkMarker) {
+            Set<BookmarkMarker> markers = fileToMarkerMap.get(bookmarkMarker.getResource());
+            if (markers != null) {
+                markers.remove(bookmarkMarker);
+                if (markers.isEmpty()) {
+                    fileToMarkerMap.remove(bookmarkMarker.getResource());
+                }
+            }
+        }
+
+        @Override
+        public BookmarkMarker get(BookmarkId bookmarkId) {
+            lock.lock();
+            try {
+                return bookmarkIdToMarkerMap.get(bookmarkId);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public List<BookmarkMarker> get(VirtualFile file) {
+            lock.lock();
+            try {
+                Set<BookmarkMarker> markers = fileToMarkerMap.get(file);
+                return markers != null ? new ArrayList<>(markers) : Collections.emptyList();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,80 @@
+package mesfavoris.internal.model;
+
+import mesfavoris.model.BookmarkId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure moves, inserts and deletes in a folder with many children. Each
+ * benchmark invocation does one operation per child of the folder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookmarkFolderChildrenListBenchmark {
+	private static final int CHILDREN_COUNT = 10000;
+
+	private List<BookmarkId> bookmarkIds;
+	private List<BookmarkId> newBookmarkIds;
+	private BookmarkFolderChildrenList bookmarkFolderChildrenList;
+
+	@Setup
+	public void setUp() {
+		bookmarkIds = new ArrayList<>();
+		newBookmarkIds = new ArrayList<>();
+		for (int i = 0; i < CHILDREN_COUNT; i++) {
+			bookmarkIds.add(new BookmarkId("bookmark" + i));
+			newBookmarkIds.add(new BookmarkId("newBookmark" + i));
+		}
+		bookmarkFolderChildrenList = new BookmarkFolderChildrenList(bookmarkIds);
+	}
+
+	@Benchmark
+	public BookmarkFolderChildrenList moveBeforeRandomBookmark() {
+		BookmarkFolderChildrenList children = bookmarkFolderChildrenList;
+		Random random = new Random(0);
+		for (BookmarkId bookmarkId : bookmarkIds) {
+			BookmarkId existingBookmark = bookmarkIds.get(random.nextInt(bookmarkIds.size()));
+			if (!existingBookmark.equals(bookmarkId)) {
+				children = children.remove(List.of(bookmarkId)).addBefore(List.of(bookmarkId), existingBookmark);
+			}
+		}
+		return children;
+	}
+
+	@Benchmark
+	public BookmarkFolderChildrenList addAfterSameBookmark() {
+		BookmarkFolderChildrenList children = bookmarkFolderChildrenList;
+		BookmarkId existingBookmark = bookmarkIds.get(CHILDREN_COUNT / 2);
+		for (BookmarkId bookmarkId : newBookmarkIds) {
+			children = children.addAfter(List.of(bookmarkId), existingBookmark);
+		}
+		return children;
+	}
+
+	@Benchmark
+	public BookmarkFolderChildrenList delete() {
+		BookmarkFolderChildrenList children = bookmarkFolderChildrenList;
+		for (BookmarkId bookmarkId : bookmarkIds) {
+			children = children.remove(List.of(bookmarkId));
+		}
+		return children;
+	}
+
+}
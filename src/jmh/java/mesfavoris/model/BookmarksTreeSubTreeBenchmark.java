@@ -0,0 +1,56 @@
+package mesfavoris.model;
+
+import mesfavoris.tests.commons.bookmarks.BookmarksTreeGenerator;
+import mesfavoris.tests.commons.bookmarks.IncrementalIDGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the extraction of a small sub tree from a large
+ * {@link BookmarksTree}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookmarksTreeSubTreeBenchmark {
+	private BookmarksTree bookmarksTree;
+	private BookmarkId bookmarkFolderId;
+
+	@Setup
+	public void setUp() {
+		bookmarksTree = new BookmarksTreeGenerator(new IncrementalIDGenerator(), 6, 4, 5).build();
+		bookmarkFolderId = getSmallFolder(bookmarksTree).getId();
+	}
+
+	@Benchmark
+	public BookmarksTree subTree() {
+		return bookmarksTree.subTree(bookmarkFolderId);
+	}
+
+	private static BookmarkFolder getSmallFolder(BookmarksTree bookmarksTree) {
+		BookmarkFolder bookmarkFolder = bookmarksTree.getRootFolder();
+		while (true) {
+			BookmarkFolder childFolder = bookmarksTree.getChildren(bookmarkFolder.getId()).stream()
+					.filter(BookmarkFolder.class::isInstance).map(BookmarkFolder.class::cast).findFirst()
+					.orElse(null);
+			if (childFolder == null || bookmarksTree.subTree(childFolder.getId()).size() < 20) {
+				return bookmarkFolder;
+			}
+			bookmarkFolder = childFolder;
+		}
+	}
+
+}
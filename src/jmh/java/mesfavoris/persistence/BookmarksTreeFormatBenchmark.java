@@ -0,0 +1,64 @@
+package mesfavoris.persistence;
+
+import mesfavoris.model.BookmarksTree;
+import mesfavoris.tests.commons.bookmarks.BookmarksTreeGenerator;
+import mesfavoris.tests.commons.bookmarks.IncrementalIDGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the save and load times of the {@link BookmarksTreeFormat}s. The size
+ * of the saved bookmarks is printed when the benchmark is set up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookmarksTreeFormatBenchmark {
+
+	@Param({ "JSON", "BINARY" })
+	public BookmarksTreeFormat format;
+
+	private BookmarksTree bookmarksTree;
+	private IBookmarksTreeSerializer serializer;
+	private IBookmarksTreeDeserializer deserializer;
+	private byte[] content;
+
+	@Setup
+	public void setUp() throws IOException {
+		bookmarksTree = new BookmarksTreeGenerator(new IncrementalIDGenerator(), 6, 4, 5).build();
+		serializer = format.createSerializer();
+		deserializer = format.createDeserializer();
+		content = save();
+		System.out.printf("%n%s : %d bookmarks saved in %d bytes%n", format, bookmarksTree.size(), content.length);
+	}
+
+	@Benchmark
+	public byte[] save() throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		serializer.serialize(bookmarksTree, bookmarksTree.getRootFolder().getId(), outputStream);
+		return outputStream.toByteArray();
+	}
+
+	@Benchmark
+	public BookmarksTree load() throws IOException {
+		return deserializer.deserialize(new ByteArrayInputStream(content));
+	}
+
+}
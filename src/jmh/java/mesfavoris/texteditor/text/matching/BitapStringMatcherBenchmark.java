@@ -0,0 +1,142 @@
+package mesfavoris.texteditor.text.matching;
+
+import com.google.common.io.CharStreams;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare {@link BitapStringMatcher} with the previous implementation that
+ * used a {@code HashMap<Character, Long>} alphabet and one row per error
+ * level. Each benchmark invocation searches 50 slightly modified lines of
+ * AbstractDocument.java.txt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BitapStringMatcherBenchmark {
+
+	@Param({ "BitapStringMatcher", "HashMapAlphabet" })
+	public String implementation;
+
+	private String text;
+	private List<String> patterns;
+	private IFuzzyStringMatcher matcher;
+
+	@Setup
+	public void setUp() throws IOException {
+		text = CharStreams.toString(new InputStreamReader(
+				BitapStringMatcherBenchmark.class.getResourceAsStream("AbstractDocument.java.txt"),
+				StandardCharsets.UTF_8));
+		patterns = getPatterns(text);
+		IMatchScoreComputer matchScoreComputer = new DistanceMatchScoreComputer(10000);
+		matcher = "HashMapAlphabet".equals(implementation) ? new HashMapBitapStringMatcher(matchScoreComputer)
+				: new BitapStringMatcher(matchScoreComputer);
+	}
+
+	@Benchmark
+	public void find(Blackhole blackhole) {
+		for (String pattern : patterns) {
+			blackhole.consume(matcher.find(text, pattern, 100, new EmptyProgressIndicator()));
+		}
+	}
+
+	private static List<String> getPatterns(String text) {
+		Random random = new Random(0);
+		String[] lines = text.split("\n");
+		List<String> patterns = new ArrayList<>();
+		while (patterns.size() < 50) {
+			String line = lines[random.nextInt(lines.length)].strip();
+			if (line.length() < 20 || line.length() > 64) {
+				continue;
+			}
+			// a few modified characters, like a line that changed since the
+			// bookmark was created
+			char[] chars = line.toCharArray();
+			chars[random.nextInt(chars.length)] = 'x';
+			chars[random.nextInt(chars.length)] = 'y';
+			patterns.add(new String(chars));
+		}
+		return patterns;
+	}
+
+	private static class HashMapBitapStringMatcher implements IFuzzyStringMatcher {
+		private final IMatchScoreComputer matchScoreComputer;
+
+		public HashMapBitapStringMatcher(IMatchScoreComputer matchScoreComputer) {
+			this.matchScoreComputer = matchScoreComputer;
+		}
+
+		@Override
+		public int find(CharSequence text, String pattern, int expectedLocation, ProgressIndicator progress) {
+			Map<Character, Long> alphabet = new HashMap<>();
+			for (char c : pattern.toCharArray()) {
+				alphabet.put(c, 0L);
+			}
+			for (int i = 0; i < pattern.length(); i++) {
+				char c = pattern.charAt(i);
+				alphabet.put(c, alphabet.get(c) | (1L << (pattern.length() - i - 1)));
+			}
+			double scoreThreshold = 0.5f;
+			int bestLocation = -1;
+			long matchMask = 1L << (pattern.length() - 1);
+			int finishLocation = text.length() + pattern.length();
+			long[] last_rd = new long[0];
+			for (int passNumber = 0; passNumber < pattern.length(); passNumber++) {
+				long[] rd = new long[finishLocation + 2];
+				rd[finishLocation + 1] = (1 << passNumber) - 1;
+				for (int j = finishLocation; j >= 1; j--) {
+					long charMatch;
+					if (text.length() <= j - 1 || !alphabet.containsKey(text.charAt(j - 1))) {
+						charMatch = 0;
+					} else {
+						charMatch = alphabet.get(text.charAt(j - 1));
+					}
+					if (passNumber == 0) {
+						rd[j] = ((rd[j + 1] << 1) | 1L) & charMatch;
+					} else {
+						rd[j] = (((rd[j + 1] << 1) | 1L) & charMatch)
+								| (((last_rd[j + 1] | last_rd[j]) << 1) | 1L) | last_rd[j + 1];
+					}
+					if ((rd[j] & matchMask) != 0) {
+						double score = matchScoreComputer.score(passNumber, j - 1, expectedLocation, pattern);
+						if (score <= scoreThreshold) {
+							scoreThreshold = score;
+							bestLocation = j - 1;
+						}
+					}
+				}
+				if (matchScoreComputer.score(passNumber + 1, expectedLocation, expectedLocation,
+						pattern) > scoreThreshold) {
+					break;
+				}
+				last_rd = rd;
+			}
+			return bestLocation;
+		}
+	}
+}
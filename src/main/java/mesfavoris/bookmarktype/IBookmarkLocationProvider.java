@@ -3,6 +3,11 @@ package mesfavoris.bookmarktype;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
 import mesfavoris.model.Bookmark;
+import mesfavoris.model.BookmarkId;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public interface IBookmarkLocationProvider {
 
@@ -14,4 +19,27 @@ public interface IBookmarkLocationProvider {
 	 */
 	IBookmarkLocation getBookmarkLocation(Project project, Bookmark bookmark, ProgressIndicator progress);
 
+	/**
+	 * Get the locations corresponding to the given bookmarks.
+	 * 
+	 * Providers can override it to share the work between bookmarks (bookmarks
+	 * in the same file for ex)
+	 * 
+	 * @param bookmarks
+	 * @return the location of each bookmark. Bookmarks with no location are
+	 *         not in the map
+	 */
+	default Map<BookmarkId, ? extends IBookmarkLocation> getBookmarkLocations(Project project,
+			List<Bookmark> bookmarks, ProgressIndicator progress) {
+		Map<BookmarkId, IBookmarkLocation> bookmarkLocations = new HashMap<>();
+		for (Bookmark bookmark : bookmarks) {
+			progress.checkCanceled();
+			IBookmarkLocation bookmarkLocation = getBookmarkLocation(project, bookmark, progress);
+			if (bookmarkLocation != null) {
+				bookmarkLocations.put(bookmark.getId(), bookmarkLocation);
+			}
+		}
+		return bookmarkLocations;
+	}
+
 }
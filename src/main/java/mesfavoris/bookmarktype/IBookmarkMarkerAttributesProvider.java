@@ -3,7 +3,11 @@ package mesfavoris.bookmarktype;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
 import mesfavoris.model.Bookmark;
+import mesfavoris.model.BookmarkId;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface IBookmarkMarkerAttributesProvider {
@@ -18,4 +22,25 @@ public interface IBookmarkMarkerAttributesProvider {
 	 */
 	public BookmarkMarker getMarkerDescriptor(Project project, Bookmark bookmark, Optional<IFileBookmarkLocation> fileBookmarkLocation, ProgressIndicator progressIndicator);
 
+	/**
+	 * Get descriptors to create {@link BookmarkMarker}s from several bookmarks
+	 *
+	 * @param project
+	 * @param bookmarks
+	 * @param progressIndicator
+	 * @return the descriptor of each bookmark. Bookmarks with no descriptor are
+	 *         not in the map
+	 */
+	default Map<BookmarkId, BookmarkMarker> getMarkerDescriptors(Project project, List<Bookmark> bookmarks, ProgressIndicator progressIndicator) {
+		Map<BookmarkId, BookmarkMarker> bookmarkMarkers = new HashMap<>();
+		for (Bookmark bookmark : bookmarks) {
+			progressIndicator.checkCanceled();
+			BookmarkMarker bookmarkMarker = getMarkerDescriptor(project, bookmark, Optional.empty(), progressIndicator);
+			if (bookmarkMarker != null) {
+				bookmarkMarkers.put(bookmark.getId(), bookmarkMarker);
+			}
+		}
+		return bookmarkMarkers;
+	}
+
 }
@@ -0,0 +1,76 @@
+package mesfavoris.commons;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Run a task once no new task has been submitted for the same key during a delay. Tasks run on the given scheduled
+ * executor service, so a single debouncer can be shared by many keys without creating a timer for each one.
+ *
+ * @param <K> the key type
+ */
+public class Debouncer<K> {
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final Duration delay;
+    private final Map<K, PendingTask> pendingTasks = new ConcurrentHashMap<>();
+
+    public Debouncer(ScheduledExecutorService scheduledExecutorService, Duration delay) {
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.delay = delay;
+    }
+
+    /**
+     * Schedule the task for the given key, replacing the task pending for this key if any
+     */
+    public void debounce(K key, Runnable task) {
+        PendingTask pendingTask = new PendingTask(key, task);
+        PendingTask previousTask = pendingTasks.put(key, pendingTask);
+        if (previousTask != null) {
+            previousTask.cancel();
+        }
+        pendingTask.future = scheduledExecutorService.schedule(pendingTask, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isPending(K key) {
+        return pendingTasks.containsKey(key);
+    }
+
+    /**
+     * Cancel all the pending tasks
+     */
+    public void cancelAll() {
+        pendingTasks.values().forEach(PendingTask::cancel);
+        pendingTasks.clear();
+    }
+
+    private class PendingTask implements Runnable {
+        private final K key;
+        private final Runnable task;
+        private volatile ScheduledFuture<?> future;
+
+        public PendingTask(K key, Runnable task) {
+            this.key = key;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            // a replaced task does not run, even if it could not be cancelled in time
+            if (pendingTasks.remove(key, this)) {
+                task.run();
+            }
+        }
+
+        public void cancel() {
+            ScheduledFuture<?> scheduledFuture = future;
+            if (scheduledFuture != null) {
+                scheduledFuture.cancel(false);
+            }
+        }
+    }
+
+}
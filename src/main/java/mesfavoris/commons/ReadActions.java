@@ -0,0 +1,53 @@
+package mesfavoris.commons;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+
+import java.util.function.Function;
+
+public class ReadActions {
+
+    /**
+     * Compute a value in a non-blocking read action. The read action does not
+     * block write actions : it is cancelled when a write action arrives and
+     * restarted after it, so the computation must have no side effects.
+     * <p>
+     * The computation is given the progress indicator of the read action, that
+     * is cancelled when a write action arrives : long computations must check
+     * it for cancellation, not the caller progress, so that they yield to
+     * write actions.
+     * </p>
+     * <p>
+     * If read access is already allowed (EDT or inside a read action), the
+     * value is computed directly in the current read access, with the given
+     * progress.
+     * </p>
+     *
+     * @param project
+     *            the computation is cancelled when the project is disposed
+     * @param progress
+     *            the computation is cancelled when this progress is cancelled
+     * @param computation
+     *            computes the value, given the progress indicator to use
+     * @return the computed value
+     */
+    public static <T> T computeCancellable(Project project, ProgressIndicator progress,
+            Function<ProgressIndicator, T> computation) {
+        if (ApplicationManager.getApplication().isReadAccessAllowed()) {
+            return computation.apply(progress);
+        }
+        return ReadAction.nonBlocking(() -> computation.apply(getReadActionProgress(progress)))
+                .expireWith(project)
+                .wrapProgress(progress)
+                .executeSynchronously();
+    }
+
+    private static ProgressIndicator getReadActionProgress(ProgressIndicator progress) {
+        ProgressIndicator readActionProgress = ProgressManager.getInstance().getProgressIndicator();
+        return readActionProgress != null ? readActionProgress : progress;
+    }
+
+}
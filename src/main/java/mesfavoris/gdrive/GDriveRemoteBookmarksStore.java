@@ -14,20 +14,20 @@ import mesfavoris.gdrive.connection.GDriveConnectionManager;
 import mesfavoris.gdrive.mappings.*;
 import mesfavoris.gdrive.operations.*;
 import mesfavoris.gdrive.operations.DownloadHeadRevisionOperation.FileContents;
+import mesfavoris.internal.persistence.BookmarksTreeFormatsStore;
 import mesfavoris.model.Bookmark;
 import mesfavoris.model.BookmarkFolder;
 import mesfavoris.model.BookmarkId;
 import mesfavoris.model.BookmarksTree;
+import mesfavoris.persistence.BookmarksTreeFormat;
+import mesfavoris.persistence.FormatDetectingBookmarksTreeDeserializer;
 import mesfavoris.persistence.IBookmarksTreeDeserializer;
 import mesfavoris.persistence.IBookmarksTreeSerializer;
-import mesfavoris.persistence.json.BookmarksTreeJsonDeserializer;
-import mesfavoris.persistence.json.BookmarksTreeJsonSerializer;
 import mesfavoris.remote.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Optional;
 import java.util.Set;
@@ -145,16 +145,19 @@ public class GDriveRemoteBookmarksStore extends AbstractRemoteBookmarksStore {
 		BookmarksTree bookmarkFolderTree = bookmarksTree.subTree(bookmarkFolderId);
 		bookmarkMappingsStore.add(bookmarkFolder.getId(), file.getId(),
 				bookmarkMappingPropertiesProvider.getBookmarkMappingProperties(file, bookmarkFolderTree));
-		return new RemoteBookmarksTree(this, bookmarkFolderTree, file.getEtag());
+		return keepEtag(new RemoteBookmarksTree(this, bookmarkFolderTree, file.getEtag()));
 	}
 
 	private byte[] serializeBookmarkFolder(BookmarksTree bookmarksTree, BookmarkId bookmarkFolderId,
 			ProgressIndicator indicator) throws IOException {
-		IBookmarksTreeSerializer serializer = new BookmarksTreeJsonSerializer(true);
-		StringWriter writer = new StringWriter();
-		serializer.serialize(bookmarksTree, bookmarkFolderId, writer);
-		byte[] content = writer.getBuffer().toString().getBytes(StandardCharsets.UTF_8);
-		return content;
+		IBookmarksTreeSerializer serializer = getBookmarksTreeFormat().createSerializer();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		serializer.serialize(bookmarksTree, bookmarkFolderId, outputStream);
+		return outputStream.toByteArray();
+	}
+
+	private BookmarksTreeFormat getBookmarksTreeFormat() {
+		return project.getService(BookmarksTreeFormatsStore.class).getFormat(getDescriptor().id());
 	}
 
 	@Override
@@ -213,12 +216,12 @@ public class GDriveRemoteBookmarksStore extends AbstractRemoteBookmarksStore {
 		if (indicator != null) {
 			indicator.setFraction(0.8);
 		}
-		IBookmarksTreeDeserializer deserializer = new BookmarksTreeJsonDeserializer();
+		IBookmarksTreeDeserializer deserializer = new FormatDetectingBookmarksTreeDeserializer();
 		BookmarksTree bookmarkFolderTree = deserializer
-				.deserialize(new StringReader(new String(contents.getFileContents(), StandardCharsets.UTF_8)));
+				.deserialize(new ByteArrayInputStream(contents.getFileContents()));
 		bookmarkMappingsStore.update(contents.getFile().getId(),
 				bookmarkMappingPropertiesProvider.getBookmarkMappingProperties(contents.getFile(), bookmarkFolderTree));
-		return new RemoteBookmarksTree(this, bookmarkFolderTree, contents.getFile().getEtag());
+		return keepEtag(new RemoteBookmarksTree(this, bookmarkFolderTree, contents.getFile().getEtag()));
 	}
 
 	@Override
@@ -246,7 +249,7 @@ public class GDriveRemoteBookmarksStore extends AbstractRemoteBookmarksStore {
 			BookmarksTree bookmarkFolderTree = bookmarksTree.subTree(bookmarkFolderId);
 			bookmarkMappingsStore.update(file.getId(),
 					bookmarkMappingPropertiesProvider.getBookmarkMappingProperties(file, bookmarkFolderTree));
-			return new RemoteBookmarksTree(this, bookmarkFolderTree, file.getEtag());
+			return keepEtag(new RemoteBookmarksTree(this, bookmarkFolderTree, file.getEtag()));
 		} catch (GoogleJsonResponseException e) {
 			if (e.getStatusCode() == 412) {
 				// Precondition Failed
@@ -11,6 +11,7 @@ import com.intellij.openapi.startup.StartupActivity;
 import mesfavoris.model.BookmarkId;
 import mesfavoris.model.IBookmarksListener;
 import mesfavoris.model.modification.BookmarkDeletedModification;
+import mesfavoris.model.modification.BookmarksBatchModification;
 import mesfavoris.model.modification.BookmarksModification;
 import mesfavoris.service.IBookmarksService;
 import org.jdom.Element;
@@ -103,7 +104,7 @@ public final class BookmarkMappingsStore implements IBookmarksListener, IBookmar
 
 	@Override
 	public void bookmarksModified(List<BookmarksModification> modifications) {
-		Set<BookmarkMapping> mappingsToRemove = modifications.stream()
+		Set<BookmarkMapping> mappingsToRemove = BookmarksBatchModification.expand(modifications).stream()
 				.filter(modification -> modification instanceof BookmarkDeletedModification)
 				.map(modification -> (BookmarkDeletedModification) modification)
 				.map(this::getDeletedMappings)
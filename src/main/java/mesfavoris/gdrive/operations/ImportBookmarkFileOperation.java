@@ -10,13 +10,12 @@ import mesfavoris.gdrive.mappings.IBookmarkMappingPropertiesProvider;
 import mesfavoris.gdrive.operations.DownloadHeadRevisionOperation.FileContents;
 import mesfavoris.model.BookmarkId;
 import mesfavoris.model.BookmarksTree;
+import mesfavoris.persistence.FormatDetectingBookmarksTreeDeserializer;
 import mesfavoris.persistence.IBookmarksTreeDeserializer;
-import mesfavoris.persistence.json.BookmarksTreeJsonDeserializer;
 import mesfavoris.service.IBookmarksService;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.StringReader;
-import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 public class ImportBookmarkFileOperation extends AbstractGDriveOperation {
@@ -58,9 +57,8 @@ public class ImportBookmarkFileOperation extends AbstractGDriveOperation {
 		FileContents contents = downloadFileOperation.downloadFile(fileId, progressIndicator);
 
 		progressIndicator.setFraction(0.8);
-		IBookmarksTreeDeserializer deserializer = new BookmarksTreeJsonDeserializer();
-		BookmarksTree bookmarksTree = deserializer
-				.deserialize(new StringReader(new String(contents.getFileContents(), StandardCharsets.UTF_8)));
+		IBookmarksTreeDeserializer deserializer = new FormatDetectingBookmarksTreeDeserializer();
+		BookmarksTree bookmarksTree = deserializer.deserialize(new ByteArrayInputStream(contents.getFileContents()));
 
 		bookmarksService.addBookmarksTree(parentId, bookmarksTree, newBookmarksTree -> bookmarkMappingsStore.add(
 				bookmarksTree.getRootFolder().getId(), contents.getFile().getId(),
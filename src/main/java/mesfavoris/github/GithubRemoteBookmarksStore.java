@@ -15,20 +15,15 @@ import mesfavoris.github.mappings.GistMappingPropertiesProvider;
 import mesfavoris.github.mappings.GistMappingsStore;
 import mesfavoris.github.mappings.IGistMappingsListener;
 import mesfavoris.github.operations.*;
+import mesfavoris.internal.persistence.BookmarksTreeFormatsStore;
 import mesfavoris.model.Bookmark;
 import mesfavoris.model.BookmarkFolder;
 import mesfavoris.model.BookmarkId;
 import mesfavoris.model.BookmarksTree;
-import mesfavoris.persistence.IBookmarksTreeDeserializer;
-import mesfavoris.persistence.IBookmarksTreeSerializer;
-import mesfavoris.persistence.json.BookmarksTreeJsonDeserializer;
-import mesfavoris.persistence.json.BookmarksTreeJsonSerializer;
+import mesfavoris.persistence.BookmarksTreeFormat;
 import mesfavoris.remote.*;
 
 import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
-import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -139,7 +134,7 @@ public class GithubRemoteBookmarksStore extends AbstractRemoteBookmarksStore {
         if (indicator != null) {
             indicator.setFraction(1.0);
         }
-        return new RemoteBookmarksTree(this, subTree, response.updated_at);
+        return keepEtag(new RemoteBookmarksTree(this, subTree, response.updated_at));
     }
 
     @Override
@@ -173,14 +168,12 @@ public class GithubRemoteBookmarksStore extends AbstractRemoteBookmarksStore {
         if (indicator != null) {
             indicator.setFraction(0.8);
         }
-        IBookmarksTreeDeserializer deserializer = new BookmarksTreeJsonDeserializer();
-        BookmarksTree subTree = deserializer.deserialize(
-                new StringReader(new String(contents.content(), StandardCharsets.UTF_8)));
+        BookmarksTree subTree = GistContentSerializer.deserialize(contents.content());
         gistMappingsStore.update(gistId, propertiesProvider.getProperties(contents.response(), subTree));
         if (indicator != null) {
             indicator.setFraction(1.0);
         }
-        return new RemoteBookmarksTree(this, subTree, contents.etag());
+        return keepEtag(new RemoteBookmarksTree(this, subTree, contents.etag()));
     }
 
     @Override
@@ -204,7 +197,7 @@ public class GithubRemoteBookmarksStore extends AbstractRemoteBookmarksStore {
         if (indicator != null) {
             indicator.setFraction(1.0);
         }
-        return new RemoteBookmarksTree(this, subTree, response.updated_at);
+        return keepEtag(new RemoteBookmarksTree(this, subTree, response.updated_at));
     }
 
     @Override
@@ -252,9 +245,10 @@ public class GithubRemoteBookmarksStore extends AbstractRemoteBookmarksStore {
     }
 
     private byte[] serializeBookmarkFolder(BookmarksTree tree, BookmarkId bookmarkFolderId) throws IOException {
-        IBookmarksTreeSerializer serializer = new BookmarksTreeJsonSerializer(true);
-        StringWriter writer = new StringWriter();
-        serializer.serialize(tree, bookmarkFolderId, writer);
-        return writer.getBuffer().toString().getBytes(StandardCharsets.UTF_8);
+        return GistContentSerializer.serialize(tree, bookmarkFolderId, getBookmarksTreeFormat());
+    }
+
+    private BookmarksTreeFormat getBookmarksTreeFormat() {
+        return project.getService(BookmarksTreeFormatsStore.class).getFormat(getDescriptor().id());
     }
 }
@@ -11,6 +11,7 @@ import com.intellij.openapi.startup.StartupActivity;
 import mesfavoris.model.BookmarkId;
 import mesfavoris.model.IBookmarksListener;
 import mesfavoris.model.modification.BookmarkDeletedModification;
+import mesfavoris.model.modification.BookmarksBatchModification;
 import mesfavoris.model.modification.BookmarksModification;
 import mesfavoris.service.IBookmarksService;
 import org.jdom.Element;
@@ -96,7 +97,7 @@ public final class GistMappingsStore
 
     @Override
     public void bookmarksModified(List<BookmarksModification> modifications) {
-        Set<GistMapping> toRemove = modifications.stream()
+        Set<GistMapping> toRemove = BookmarksBatchModification.expand(modifications).stream()
                 .filter(m -> m instanceof BookmarkDeletedModification)
                 .map(m -> (BookmarkDeletedModification) m)
                 .flatMap(m -> mappings.values().stream()
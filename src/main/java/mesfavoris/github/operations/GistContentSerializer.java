@@ -0,0 +1,49 @@
+package mesfavoris.github.operations;
+
+import mesfavoris.model.BookmarkId;
+import mesfavoris.model.BookmarksTree;
+import mesfavoris.persistence.BookmarksTreeFormat;
+import mesfavoris.persistence.FormatDetectingBookmarksTreeDeserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Converts bookmarks to and from the content of a Gist file. Gist files are text only: binary formats are
+ * stored base64 encoded.
+ */
+public final class GistContentSerializer {
+
+    private GistContentSerializer() {
+    }
+
+    public static byte[] serialize(BookmarksTree bookmarksTree, BookmarkId bookmarkFolderId,
+                                   BookmarksTreeFormat format) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        format.createSerializer().serialize(bookmarksTree, bookmarkFolderId, outputStream);
+        byte[] content = outputStream.toByteArray();
+        return format == BookmarksTreeFormat.JSON ? content : Base64.getEncoder().encode(content);
+    }
+
+    public static BookmarksTree deserialize(byte[] content) throws IOException {
+        if (!isJson(content)) {
+            try {
+                content = Base64.getMimeDecoder().decode(content);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid format", e);
+            }
+        }
+        return new FormatDetectingBookmarksTreeDeserializer().deserialize(new ByteArrayInputStream(content));
+    }
+
+    private static boolean isJson(byte[] content) {
+        for (byte b : content) {
+            if (!Character.isWhitespace(b)) {
+                return b == '{';
+            }
+        }
+        return true;
+    }
+}
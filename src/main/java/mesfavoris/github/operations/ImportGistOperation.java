@@ -7,14 +7,10 @@ import mesfavoris.github.mappings.GistMappingPropertiesProvider;
 import mesfavoris.github.mappings.GistMappingsStore;
 import mesfavoris.model.BookmarkId;
 import mesfavoris.model.BookmarksTree;
-import mesfavoris.persistence.IBookmarksTreeDeserializer;
-import mesfavoris.persistence.json.BookmarksTreeJsonDeserializer;
 import mesfavoris.service.IBookmarksService;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
-import java.io.StringReader;
-import java.nio.charset.StandardCharsets;
 
 public class ImportGistOperation {
     private final IGistApiClient apiClient;
@@ -43,9 +39,7 @@ public class ImportGistOperation {
 
         if (indicator != null) indicator.setFraction(0.6);
 
-        IBookmarksTreeDeserializer deserializer = new BookmarksTreeJsonDeserializer();
-        BookmarksTree bookmarksTree = deserializer.deserialize(
-                new StringReader(new String(contents.content(), StandardCharsets.UTF_8)));
+        BookmarksTree bookmarksTree = GistContentSerializer.deserialize(contents.content());
 
         if (indicator != null) indicator.setFraction(0.8);
 
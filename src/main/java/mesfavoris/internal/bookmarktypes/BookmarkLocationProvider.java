@@ -6,9 +6,12 @@ import com.intellij.openapi.project.Project;
 import mesfavoris.bookmarktype.IBookmarkLocation;
 import mesfavoris.bookmarktype.IBookmarkLocationProvider;
 import mesfavoris.model.Bookmark;
+import mesfavoris.model.BookmarkId;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class BookmarkLocationProvider implements IBookmarkLocationProvider {
 	private final List<IBookmarkLocationProvider> bookmarkLocationProviders;
@@ -34,4 +37,30 @@ public class BookmarkLocationProvider implements IBookmarkLocationProvider {
 		return bestBookmarkLocation;
 	}
 
+	@Override
+	public Map<BookmarkId, IBookmarkLocation> getBookmarkLocations(Project project, List<Bookmark> bookmarks,
+			ProgressIndicator progress) {
+		Map<BookmarkId, IBookmarkLocation> bestBookmarkLocations = new HashMap<>();
+		List<Bookmark> remainingBookmarks = new ArrayList<>(bookmarks);
+		for (IBookmarkLocationProvider provider : bookmarkLocationProviders) {
+			if (remainingBookmarks.isEmpty()) {
+				break;
+			}
+			Map<BookmarkId, ? extends IBookmarkLocation> bookmarkLocations = provider.getBookmarkLocations(project,
+					remainingBookmarks, progress);
+			bookmarkLocations.forEach((bookmarkId, bookmarkLocation) -> {
+				IBookmarkLocation bestBookmarkLocation = bestBookmarkLocations.get(bookmarkId);
+				float bestScore = bestBookmarkLocation == null ? 0.0f : bestBookmarkLocation.getScore();
+				if (bookmarkLocation != null && bookmarkLocation.getScore() > bestScore) {
+					bestBookmarkLocations.put(bookmarkId, bookmarkLocation);
+				}
+			});
+			remainingBookmarks.removeIf(bookmark -> {
+				IBookmarkLocation bestBookmarkLocation = bestBookmarkLocations.get(bookmark.getId());
+				return bestBookmarkLocation != null && bestBookmarkLocation.getScore() >= IBookmarkLocation.MAX_SCORE;
+			});
+		}
+		return bestBookmarkLocations;
+	}
+
 }
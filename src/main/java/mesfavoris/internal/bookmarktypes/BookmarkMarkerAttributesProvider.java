@@ -7,9 +7,12 @@ import mesfavoris.bookmarktype.IBookmarkMarkerAttributesProvider;
 import mesfavoris.bookmarktype.IFileBookmarkLocation;
 import mesfavoris.commons.SubProgressIndicator;
 import mesfavoris.model.Bookmark;
+import mesfavoris.model.BookmarkId;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class BookmarkMarkerAttributesProvider implements
@@ -36,4 +39,21 @@ public class BookmarkMarkerAttributesProvider implements
 		}
 		return null;
 	}
+
+	@Override
+	public Map<BookmarkId, BookmarkMarker> getMarkerDescriptors(Project project, List<Bookmark> bookmarks, ProgressIndicator progressIndicator) {
+		double progressFraction = (double) 1 / bookmarkMarkerAttributesProviders.size();
+		Map<BookmarkId, BookmarkMarker> bookmarkMarkers = new HashMap<>();
+		List<Bookmark> remainingBookmarks = new ArrayList<>(bookmarks);
+		for (IBookmarkMarkerAttributesProvider provider : bookmarkMarkerAttributesProviders) {
+			if (remainingBookmarks.isEmpty()) {
+				break;
+			}
+			try (SubProgressIndicator subProgressIndicator = new SubProgressIndicator(progressIndicator, progressFraction)) {
+				bookmarkMarkers.putAll(provider.getMarkerDescriptors(project, remainingBookmarks, subProgressIndicator));
+			}
+			remainingBookmarks.removeIf(bookmark -> bookmarkMarkers.containsKey(bookmark.getId()));
+		}
+		return bookmarkMarkers;
+	}
 }
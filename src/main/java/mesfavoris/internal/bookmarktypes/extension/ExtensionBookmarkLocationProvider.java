@@ -7,9 +7,11 @@ import mesfavoris.bookmarktype.IBookmarkLocationProvider;
 import mesfavoris.extensions.BookmarkTypeExtensionManager;
 import mesfavoris.internal.bookmarktypes.BookmarkLocationProvider;
 import mesfavoris.model.Bookmark;
+import mesfavoris.model.BookmarkId;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Location provider that delegates to BookmarkLocationProvider using providers from bookmark type extensions.
@@ -34,6 +36,12 @@ public class ExtensionBookmarkLocationProvider implements IBookmarkLocationProvi
         return locationProvider.getBookmarkLocation(project, bookmark, progress);
     }
 
+    @Override
+    public Map<BookmarkId, IBookmarkLocation> getBookmarkLocations(Project project, List<Bookmark> bookmarks, ProgressIndicator progress) {
+        BookmarkLocationProvider locationProvider = createBookmarkLocationProvider();
+        return locationProvider.getBookmarkLocations(project, bookmarks, progress);
+    }
+
     /**
      * Create a BookmarkLocationProvider instance with location providers from enabled bookmark types.
      *
@@ -8,6 +8,11 @@ import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.messages.MessageBusConnection;
 import com.intellij.util.messages.Topic;
 import mesfavoris.IBookmarksMarkers;
@@ -22,10 +27,13 @@ import mesfavoris.model.BookmarkId;
 import mesfavoris.model.modification.BookmarkDeletedModification;
 import mesfavoris.model.modification.BookmarkPropertiesModification;
 import mesfavoris.model.modification.BookmarksAddedModification;
+import mesfavoris.model.modification.BookmarksBatchModification;
 import mesfavoris.model.modification.BookmarksModification;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -46,6 +54,7 @@ public class BookmarksMarkers implements IBookmarksMarkers, Disposable {
         this.bookmarkMarkersStore = bookmarksMarkersStore;
         MessageBusConnection messageBusConnection = project.getMessageBus().connect(this);
         messageBusConnection.subscribe(BookmarksHighlightersListener.TOPIC, new BookmarksHighlightersListenerImpl());
+        messageBusConnection.subscribe(VirtualFileManager.VFS_CHANGES, new ExternalFileChangesListener());
     }
 
     public void init() {
@@ -57,20 +66,50 @@ public class BookmarksMarkers implements IBookmarksMarkers, Disposable {
     public void dispose() {
     }
 
-    private void handleBookmarksModificationEvent(BookmarksModification event) {
+    /**
+     * @param updatedBookmarks the last version of each bookmark added or modified by the modifications
+     * @param bookmarkMarkers  the markers of the updated bookmarks
+     */
+    private void handleBookmarksModificationEvent(BookmarksModification event, Map<BookmarkId, Bookmark> updatedBookmarks,
+                                                  Map<BookmarkId, BookmarkMarker> bookmarkMarkers) {
         if (event instanceof BookmarkDeletedModification bookmarkDeletedModification) {
             List<Bookmark> deletedBookmarks = Lists.newArrayList(bookmarkDeletedModification.getDeletedBookmarks());
             deletedBookmarks.forEach(b -> deleteMarker(b.getId()));
         } else if (event instanceof BookmarksAddedModification bookmarksAddedModification) {
-            bookmarksAddedModification.getBookmarks().forEach(bookmark -> createOrUpdateMarker(bookmark, Optional.empty()));
+            bookmarksAddedModification.getBookmarks().forEach(bookmark -> updateMarker(bookmark, updatedBookmarks, bookmarkMarkers));
         } else if (event instanceof BookmarkPropertiesModification bookmarkPropertiesModification) {
-            createOrUpdateMarker(bookmarkPropertiesModification.getTargetTree()
-                    .getBookmark(bookmarkPropertiesModification.getBookmarkId()), Optional.empty());
+            updateMarker(bookmarkPropertiesModification.getTargetTree()
+                    .getBookmark(bookmarkPropertiesModification.getBookmarkId()), updatedBookmarks, bookmarkMarkers);
         }
     }
 
+    private void updateMarker(Bookmark bookmark, Map<BookmarkId, Bookmark> updatedBookmarks, Map<BookmarkId, BookmarkMarker> bookmarkMarkers) {
+        // older versions of the bookmark are skipped : the marker is computed for the last one only
+        if (updatedBookmarks.get(bookmark.getId()) == bookmark) {
+            createOrUpdateMarker(bookmarkMarkers.get(bookmark.getId()));
+        }
+    }
+
+    private Map<BookmarkId, Bookmark> getUpdatedBookmarks(List<BookmarksModification> modifications) {
+        Map<BookmarkId, Bookmark> updatedBookmarks = new LinkedHashMap<>();
+        for (BookmarksModification modification : modifications) {
+            if (modification instanceof BookmarkDeletedModification bookmarkDeletedModification) {
+                bookmarkDeletedModification.getDeletedBookmarks().forEach(b -> updatedBookmarks.remove(b.getId()));
+            } else if (modification instanceof BookmarksAddedModification bookmarksAddedModification) {
+                bookmarksAddedModification.getBookmarks().forEach(b -> updatedBookmarks.put(b.getId(), b));
+            } else if (modification instanceof BookmarkPropertiesModification bookmarkPropertiesModification) {
+                BookmarkId bookmarkId = bookmarkPropertiesModification.getBookmarkId();
+                updatedBookmarks.put(bookmarkId, bookmarkPropertiesModification.getTargetTree().getBookmark(bookmarkId));
+            }
+        }
+        return updatedBookmarks;
+    }
+
     private void createOrUpdateMarker(Bookmark bookmark, Optional<IFileBookmarkLocation> fileBookmarkLocation) {
-        BookmarkMarker bookmarkMarker = bookmarkMarkerAttributesProvider.getMarkerDescriptor(project, bookmark, fileBookmarkLocation, new EmptyProgressIndicator());
+        createOrUpdateMarker(bookmarkMarkerAttributesProvider.getMarkerDescriptor(project, bookmark, fileBookmarkLocation, new EmptyProgressIndicator()));
+    }
+
+    private void createOrUpdateMarker(BookmarkMarker bookmarkMarker) {
         // if bookmarkMarker is null, we keep the existing marker if there is one
         if (bookmarkMarker != null) {
             BookmarkMarker previous = bookmarkMarkersStore.put(bookmarkMarker);
@@ -82,6 +121,25 @@ public class BookmarksMarkers implements IBookmarksMarkers, Disposable {
         }
     }
 
+    /**
+     * Refresh the markers of the given bookmarks. The locations of all the bookmarks are computed together.
+     */
+    private void refreshMarkers(List<BookmarkId> bookmarkIds, ProgressIndicator progressIndicator) {
+        List<Bookmark> bookmarks = new ArrayList<>(bookmarkIds.size());
+        for (BookmarkId bookmarkId : bookmarkIds) {
+            Bookmark bookmark = bookmarkDatabase.getBookmarksTree().getBookmark(bookmarkId);
+            if (bookmark == null) {
+                deleteMarker(bookmarkId);
+            } else {
+                bookmarks.add(bookmark);
+            }
+        }
+        Map<BookmarkId, BookmarkMarker> bookmarkMarkers = bookmarkMarkerAttributesProvider.getMarkerDescriptors(project, bookmarks, progressIndicator);
+        for (Bookmark bookmark : bookmarks) {
+            createOrUpdateMarker(bookmarkMarkers.get(bookmark.getId()));
+        }
+    }
+
     @Override
     public void deleteMarker(BookmarkId bookmarkId) {
         BookmarkMarker bookmarkMarker = bookmarkMarkersStore.remove(bookmarkId);
@@ -114,8 +172,12 @@ public class BookmarksMarkers implements IBookmarksMarkers, Disposable {
 
         @Override
         public void handle(List<BookmarksModification> modifications, @NotNull ProgressIndicator progressIndicator) {
-            for (BookmarksModification modification : modifications) {
-                handleBookmarksModificationEvent(modification);
+            List<BookmarksModification> expandedModifications = BookmarksBatchModification.expand(modifications);
+            Map<BookmarkId, Bookmark> updatedBookmarks = getUpdatedBookmarks(expandedModifications);
+            Map<BookmarkId, BookmarkMarker> bookmarkMarkers = bookmarkMarkerAttributesProvider.getMarkerDescriptors(project,
+                    new ArrayList<>(updatedBookmarks.values()), progressIndicator);
+            for (BookmarksModification modification : expandedModifications) {
+                handleBookmarksModificationEvent(modification, updatedBookmarks, bookmarkMarkers);
             }
         }
 
@@ -151,6 +213,30 @@ public class BookmarksMarkers implements IBookmarksMarkers, Disposable {
         }
     }
 
+    /**
+     * Refresh the markers of files modified outside the IDE (after a VCS branch switch for ex). Many bookmarks can
+     * move at once, so their markers are refreshed in the background, all the bookmarks of a file together.
+     */
+    private class ExternalFileChangesListener implements BulkFileListener {
+
+        @Override
+        public void after(@NotNull List<? extends VFileEvent> events) {
+            List<BookmarkId> bookmarkIds = new ArrayList<>();
+            for (VFileEvent event : events) {
+                if (event instanceof VFileContentChangeEvent && event.isFromRefresh() && event.getFile() != null) {
+                    bookmarkMarkersStore.get(event.getFile()).forEach(marker -> bookmarkIds.add(marker.getBookmarkId()));
+                }
+            }
+            if (!bookmarkIds.isEmpty()) {
+                AppExecutorUtil.getAppExecutorService().execute(() -> {
+                    if (!project.isDisposed()) {
+                        refreshMarkers(bookmarkIds, new EmptyProgressIndicator());
+                    }
+                });
+            }
+        }
+    }
+
     public interface BookmarksMarkersListener {
         Topic<BookmarksMarkersListener> TOPIC = Topic.create("BookmarksMarkersListener", BookmarksMarkersListener.class);
 
@@ -5,138 +5,234 @@ import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import mesfavoris.bookmarktype.BookmarkMarker;
 import mesfavoris.model.BookmarkId;
 import org.jdom.Element;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Persistent storage for bookmark markers
+ * <p>
+ * Reads never block : the markers of each file are kept in an immutable list that is replaced (copy-on-write) when a
+ * marker of the file is added or removed, so {@link #get(VirtualFile)} returns it without copying. Writes for the same
+ * bookmark are serialized by the bookmark id mapping so that both maps stay consistent.
+ * </p>
+ * <p>
+ * Loaded markers are kept by file url and their file is only resolved the first time the markers of the file (or
+ * of one of its bookmarks) are requested, usually when its document is opened. Loaded markers whose file no longer
+ * exists are dropped in the background.
+ * </p>
  */
 @State(
     name = "BookmarkMarkers",
     storages = @Storage("mesfavoris.xml")
 )
 public class BookmarksMarkersStore implements PersistentStateComponent<Element>, IBookmarksMarkersStore {
-    private final Map<BookmarkId, BookmarkMarker> bookmarkIdToMarkerMap = new HashMap<>();
-    private final Map<VirtualFile, Set<BookmarkMarker>> fileToMarkerMap = new HashMap<>();
-    private final ReentrantLock lock = new ReentrantLock();
+    private final ConcurrentHashMap<BookmarkId, BookmarkMarker> bookmarkIdToMarkerMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<VirtualFile, List<BookmarkMarker>> fileToMarkersMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<BookmarkId, UnresolvedMarker> unresolvedMarkers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<BookmarkId>> urlToUnresolvedBookmarkIdsMap = new ConcurrentHashMap<>();
 
     @Override
     public BookmarkMarker put(BookmarkMarker bookmarkMarker) {
-        lock.lock();
-        try {
-            BookmarkMarker previous = bookmarkIdToMarkerMap.put(bookmarkMarker.getBookmarkId(), bookmarkMarker);
-            if (previous != null) {
-                removeFromFileToMarkerMap(previous);
-            }
-            fileToMarkerMap.computeIfAbsent(bookmarkMarker.getResource(), k -> new HashSet<>())
-                    .add(bookmarkMarker);
-            return previous;
-        } finally {
-            lock.unlock();
+        if (!urlToUnresolvedBookmarkIdsMap.isEmpty()) {
+            // so that the loaded markers of the file are not left behind once it has markers
+            resolveMarkers(bookmarkMarker.getResource().getUrl(), bookmarkMarker.getResource());
         }
+        BookmarkMarker[] previous = new BookmarkMarker[1];
+        bookmarkIdToMarkerMap.compute(bookmarkMarker.getBookmarkId(), (bookmarkId, previousMarker) -> {
+            unresolvedMarkers.remove(bookmarkId);
+            if (previousMarker != null) {
+                removeFromFileToMarkersMap(previousMarker);
+            }
+            addToFileToMarkersMap(bookmarkMarker);
+            previous[0] = previousMarker;
+            return bookmarkMarker;
+        });
+        return previous[0];
     }
 
     @Override
     public BookmarkMarker remove(BookmarkId bookmarkId) {
-        lock.lock();
-        try {
-            BookmarkMarker bookmarkMarker = bookmarkIdToMarkerMap.remove(bookmarkId);
+        BookmarkMarker[] removed = new BookmarkMarker[1];
+        bookmarkIdToMarkerMap.compute(bookmarkId, (id, bookmarkMarker) -> {
+            unresolvedMarkers.remove(id);
             if (bookmarkMarker != null) {
-                removeFromFileToMarkerMap(bookmarkMarker);
+                removeFromFileToMarkersMap(bookmarkMarker);
+                removed[0] = bookmarkMarker;
             }
-            return bookmarkMarker;
-        } finally {
-            lock.unlock();
-        }
+            return null;
+        });
+        return removed[0];
     }
 
-    private void removeFromFileToMarkerMap(BookmarkMarker bookmarkMarker) {
-        Set<BookmarkMarker> markers = fileToMarkerMap.get(bookmarkMarker.getResource());
-        if (markers != null) {
-            markers.remove(bookmarkMarker);
-            if (markers.isEmpty()) {
-                fileToMarkerMap.remove(bookmarkMarker.getResource());
+    private void addToFileToMarkersMap(BookmarkMarker bookmarkMarker) {
+        fileToMarkersMap.compute(bookmarkMarker.getResource(), (file, markers) -> {
+            if (markers == null) {
+                return List.of(bookmarkMarker);
             }
-        }
+            BookmarkMarker[] newMarkers = markers.toArray(new BookmarkMarker[markers.size() + 1]);
+            newMarkers[markers.size()] = bookmarkMarker;
+            return List.of(newMarkers);
+        });
+    }
+
+    private void removeFromFileToMarkersMap(BookmarkMarker bookmarkMarker) {
+        fileToMarkersMap.computeIfPresent(bookmarkMarker.getResource(), (file, markers) -> {
+            List<BookmarkMarker> newMarkers = new ArrayList<>(markers.size());
+            for (BookmarkMarker marker : markers) {
+                if (!marker.getBookmarkId().equals(bookmarkMarker.getBookmarkId())) {
+                    newMarkers.add(marker);
+                }
+            }
+            return newMarkers.isEmpty() ? null : List.copyOf(newMarkers);
+        });
     }
 
     @Override
     public BookmarkMarker get(BookmarkId bookmarkId) {
-        lock.lock();
-        try {
-            return bookmarkIdToMarkerMap.get(bookmarkId);
-        } finally {
-            lock.unlock();
+        BookmarkMarker bookmarkMarker = bookmarkIdToMarkerMap.get(bookmarkId);
+        if (bookmarkMarker != null) {
+            return bookmarkMarker;
+        }
+        UnresolvedMarker unresolvedMarker = unresolvedMarkers.get(bookmarkId);
+        if (unresolvedMarker == null) {
+            return null;
+        }
+        VirtualFile file = VirtualFileManager.getInstance().findFileByUrl(unresolvedMarker.url());
+        if (file == null) {
+            removeUnresolvedMarkers(unresolvedMarker.url());
+            return null;
         }
+        resolveMarkers(unresolvedMarker.url(), file);
+        return bookmarkIdToMarkerMap.get(bookmarkId);
     }
 
+    /**
+     * @return an immutable snapshot of the markers of the file
+     */
     @Override
     public List<BookmarkMarker> get(VirtualFile file) {
-        lock.lock();
-        try {
-            Set<BookmarkMarker> markers = fileToMarkerMap.get(file);
-            return markers != null ? new ArrayList<>(markers) : Collections.emptyList();
-        } finally {
-            lock.unlock();
+        List<BookmarkMarker> markers = fileToMarkersMap.get(file);
+        if (markers != null) {
+            return markers;
+        }
+        if (urlToUnresolvedBookmarkIdsMap.isEmpty() || !resolveMarkers(file.getUrl(), file)) {
+            return Collections.emptyList();
         }
+        return fileToMarkersMap.getOrDefault(file, Collections.emptyList());
     }
 
-    @Override
-    public Element getState() {
-        lock.lock();
-        try {
-            Element container = new Element("BookmarkMarkers");
-            for (BookmarkMarker bookmarkMarker : bookmarkIdToMarkerMap.values()) {
-                Element bookmarkMarkerElement = new Element("bookmarkMarker");
-                bookmarkMarkerElement.setAttribute("url", bookmarkMarker.getResource().getUrl());
-                bookmarkMarkerElement.setAttribute("bookmarkId", bookmarkMarker.getBookmarkId().toString());
-                bookmarkMarker.getAttributes().forEach((key, value) -> {
-                    Element attributeElement = new Element("attribute");
-                    attributeElement.setAttribute("name", key);
-                    attributeElement.setAttribute("value", value);
-                    bookmarkMarkerElement.addContent(attributeElement);
+    /**
+     * Create the markers of the file from the loaded markers with the given url
+     *
+     * @return true if there were loaded markers for the url
+     */
+    private boolean resolveMarkers(String fileUrl, VirtualFile file) {
+        boolean[] resolved = new boolean[1];
+        // concurrent callers for the same file wait until its markers are resolved
+        urlToUnresolvedBookmarkIdsMap.computeIfPresent(fileUrl, (url, bookmarkIds) -> {
+            for (BookmarkId bookmarkId : bookmarkIds) {
+                bookmarkIdToMarkerMap.compute(bookmarkId, (id, bookmarkMarker) -> {
+                    UnresolvedMarker unresolvedMarker = unresolvedMarkers.get(id);
+                    if (bookmarkMarker != null || unresolvedMarker == null || !unresolvedMarker.url().equals(url)) {
+                        // the marker has been replaced or removed since it was loaded
+                        return bookmarkMarker;
+                    }
+                    unresolvedMarkers.remove(id);
+                    BookmarkMarker resolvedMarker = new BookmarkMarker(file, id, unresolvedMarker.attributes());
+                    addToFileToMarkersMap(resolvedMarker);
+                    return resolvedMarker;
                 });
-                container.addContent(bookmarkMarkerElement);
             }
-            return container;
-        } finally {
-            lock.unlock();
+            resolved[0] = true;
+            return null;
+        });
+        return resolved[0];
+    }
+
+    /**
+     * Drop the loaded markers whose file does not exist anymore
+     */
+    void removeUnresolvableMarkers() {
+        for (String url : urlToUnresolvedBookmarkIdsMap.keySet()) {
+            if (VirtualFileManager.getInstance().findFileByUrl(url) == null) {
+                removeUnresolvedMarkers(url);
+            }
+        }
+    }
+
+    private void removeUnresolvedMarkers(String url) {
+        Set<BookmarkId> bookmarkIds = urlToUnresolvedBookmarkIdsMap.remove(url);
+        if (bookmarkIds != null) {
+            bookmarkIds.forEach(unresolvedMarkers::remove);
+        }
+    }
+
+    @Override
+    public Element getState() {
+        Element container = new Element("BookmarkMarkers");
+        for (BookmarkMarker bookmarkMarker : bookmarkIdToMarkerMap.values()) {
+            container.addContent(getElement(bookmarkMarker.getResource().getUrl(), bookmarkMarker.getBookmarkId(),
+                    bookmarkMarker.getAttributes()));
+        }
+        for (UnresolvedMarker unresolvedMarker : unresolvedMarkers.values()) {
+            container.addContent(getElement(unresolvedMarker.url(), unresolvedMarker.bookmarkId(),
+                    unresolvedMarker.attributes()));
         }
+        return container;
+    }
+
+    private Element getElement(String url, BookmarkId bookmarkId, Map<String, String> attributes) {
+        Element bookmarkMarkerElement = new Element("bookmarkMarker");
+        bookmarkMarkerElement.setAttribute("url", url);
+        bookmarkMarkerElement.setAttribute("bookmarkId", bookmarkId.toString());
+        attributes.forEach((key, value) -> {
+            Element attributeElement = new Element("attribute");
+            attributeElement.setAttribute("name", key);
+            attributeElement.setAttribute("value", value);
+            bookmarkMarkerElement.addContent(attributeElement);
+        });
+        return bookmarkMarkerElement;
     }
 
     @Override
     public void loadState(@NotNull Element state) {
-        lock.lock();
-        try {
-            bookmarkIdToMarkerMap.clear();
-            fileToMarkerMap.clear();
-            for (Element bookmarkElement : state.getChildren("bookmarkMarker")) {
-                String urlString = bookmarkElement.getAttributeValue("url");
-                String bookmarkIdString = bookmarkElement.getAttributeValue("bookmarkId");
-                Map<String, String> attributes = new HashMap<>();
-                for (Element element : bookmarkElement.getChildren()) {
-                    String name = element.getAttributeValue("name");
-                    String value = element.getAttributeValue("value");
-                    attributes.put(name, value);
-                }
-                if (urlString != null && bookmarkIdString != null) {
-                    VirtualFile virtualFile = VirtualFileManager.getInstance().findFileByUrl(urlString);
-                    BookmarkId bookmarkId = new BookmarkId(bookmarkIdString);
-                    if (virtualFile != null) {
-                        BookmarkMarker bookmarkMarker = new BookmarkMarker(virtualFile, bookmarkId, attributes);
-                        put(bookmarkMarker);
-                    }
-                }
+        bookmarkIdToMarkerMap.clear();
+        fileToMarkersMap.clear();
+        unresolvedMarkers.clear();
+        urlToUnresolvedBookmarkIdsMap.clear();
+        for (Element bookmarkElement : state.getChildren("bookmarkMarker")) {
+            String urlString = bookmarkElement.getAttributeValue("url");
+            String bookmarkIdString = bookmarkElement.getAttributeValue("bookmarkId");
+            Map<String, String> attributes = new HashMap<>();
+            for (Element element : bookmarkElement.getChildren()) {
+                String name = element.getAttributeValue("name");
+                String value = element.getAttributeValue("value");
+                attributes.put(name, value);
             }
-        } finally {
-            lock.unlock();
+            if (urlString != null && bookmarkIdString != null) {
+                BookmarkId bookmarkId = new BookmarkId(bookmarkIdString);
+                unresolvedMarkers.put(bookmarkId, new UnresolvedMarker(urlString, bookmarkId, attributes));
+                urlToUnresolvedBookmarkIdsMap.computeIfAbsent(urlString, url -> ConcurrentHashMap.newKeySet())
+                        .add(bookmarkId);
+            }
+        }
+        if (!unresolvedMarkers.isEmpty()) {
+            AppExecutorUtil.getAppExecutorService().execute(this::removeUnresolvableMarkers);
         }
     }
 
+    /**
+     * A loaded marker whose file has not been resolved yet
+     */
+    private record UnresolvedMarker(String url, BookmarkId bookmarkId, Map<String, String> attributes) {
+
+    }
+
 
 }
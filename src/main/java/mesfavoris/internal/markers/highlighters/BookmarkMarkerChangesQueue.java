@@ -0,0 +1,114 @@
+package mesfavoris.internal.markers.highlighters;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.vfs.VirtualFile;
+import mesfavoris.bookmarktype.BookmarkMarker;
+import mesfavoris.model.BookmarkId;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Queue of the bookmark marker changes that have not been applied to the highlighters yet.
+ * <p>
+ * A single flush is scheduled for all the changes made before it runs, so a bulk modification of the markers does not
+ * post one event per marker. Changes to the same bookmark are merged : only the marker before the first change and
+ * the marker after the last one are kept. The changes are given grouped by file.
+ * </p>
+ * <p>
+ * The depth of the queue is logged at debug level on each flush.
+ * </p>
+ */
+class BookmarkMarkerChangesQueue {
+    private static final Logger LOG = Logger.getInstance(BookmarkMarkerChangesQueue.class);
+    private final Consumer<Runnable> flushScheduler;
+    private final Consumer<Map<VirtualFile, List<MarkerChange>>> changesApplier;
+    private final Map<BookmarkId, MarkerChange> pendingChanges = new LinkedHashMap<>();
+    private boolean flushScheduled = false;
+
+    /**
+     * @param flushScheduler  used to schedule the flush of the queue (on the EDT)
+     * @param changesApplier  applies the changes of a flush, grouped by file
+     */
+    public BookmarkMarkerChangesQueue(Consumer<Runnable> flushScheduler,
+                                      Consumer<Map<VirtualFile, List<MarkerChange>>> changesApplier) {
+        this.flushScheduler = flushScheduler;
+        this.changesApplier = changesApplier;
+    }
+
+    public void markerAdded(BookmarkMarker bookmarkMarker) {
+        enqueue(bookmarkMarker.getBookmarkId(), null, bookmarkMarker);
+    }
+
+    public void markerUpdated(BookmarkMarker previous, BookmarkMarker bookmarkMarker) {
+        enqueue(bookmarkMarker.getBookmarkId(), previous, bookmarkMarker);
+    }
+
+    public void markerDeleted(BookmarkMarker bookmarkMarker) {
+        enqueue(bookmarkMarker.getBookmarkId(), bookmarkMarker, null);
+    }
+
+    /**
+     * @return the number of changes waiting for the next flush
+     */
+    public synchronized int getPendingChangesCount() {
+        return pendingChanges.size();
+    }
+
+    private void enqueue(BookmarkId bookmarkId, BookmarkMarker previous, BookmarkMarker current) {
+        boolean scheduleFlush;
+        synchronized (this) {
+            MarkerChange pendingChange = pendingChanges.get(bookmarkId);
+            if (pendingChange != null) {
+                // the previous marker is the one the highlighters still show
+                previous = pendingChange.previous();
+            }
+            pendingChanges.put(bookmarkId, new MarkerChange(bookmarkId, previous, current));
+            scheduleFlush = !flushScheduled;
+            flushScheduled = true;
+        }
+        if (scheduleFlush) {
+            flushScheduler.accept(this::flush);
+        }
+    }
+
+    void flush() {
+        List<MarkerChange> changes;
+        synchronized (this) {
+            changes = new ArrayList<>(pendingChanges.values());
+            pendingChanges.clear();
+            flushScheduled = false;
+        }
+        Map<VirtualFile, List<MarkerChange>> changesByFile = new LinkedHashMap<>();
+        for (MarkerChange change : changes) {
+            if (change.previous() != null || change.current() != null) {
+                changesByFile.computeIfAbsent(change.getResource(), file -> new ArrayList<>()).add(change);
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Flushing " + changes.size() + " marker changes of " + changesByFile.size() + " files");
+        }
+        if (!changesByFile.isEmpty()) {
+            changesApplier.accept(changesByFile);
+        }
+    }
+
+    /**
+     * A change of the marker of a bookmark
+     *
+     * @param bookmarkId
+     * @param previous   the marker before the change, null if the marker has been added
+     * @param current    the marker after the change, null if the marker has been deleted
+     */
+    record MarkerChange(BookmarkId bookmarkId, BookmarkMarker previous, BookmarkMarker current) {
+
+        public VirtualFile getResource() {
+            return current != null ? current.getResource() : previous.getResource();
+        }
+
+    }
+
+}
@@ -1,6 +1,7 @@
 package mesfavoris.internal.markers.highlighters;
 
 import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ModalityState;
 import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.EditorFactory;
@@ -15,26 +16,25 @@ import com.intellij.openapi.editor.markup.HighlighterLayer;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.roots.ProjectFileIndex;
 import com.intellij.openapi.startup.StartupActivity;
-import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDocumentListener;
 import com.intellij.psi.PsiFile;
 import com.intellij.ui.AppUIUtil;
-import com.intellij.util.messages.MessageBus;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import mesfavoris.IBookmarksMarkers;
 import mesfavoris.bookmarktype.BookmarkMarker;
+import mesfavoris.commons.Debouncer;
 import mesfavoris.internal.markers.BookmarksMarkers;
+import mesfavoris.internal.markers.highlighters.BookmarkMarkerChangesQueue.MarkerChange;
 import mesfavoris.markers.IBookmarksHighlighters;
 import mesfavoris.model.BookmarkId;
 import mesfavoris.service.IBookmarksService;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import javax.swing.Timer;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static mesfavoris.internal.markers.BookmarksMarkers.BookmarksMarkersListener;
@@ -43,10 +43,14 @@ public class BookmarksHighlighters implements Disposable, IBookmarksHighlighters
     private final Project project;
     private final IBookmarksMarkers bookmarksMarkers;
     private final BookmarksHighlightersDocumentListener documentListener;
+    private final BookmarksHighlightersRegistry highlightersRegistry = new BookmarksHighlightersRegistry();
+    private final BookmarkMarkerChangesQueue markerChangesQueue;
 
     public BookmarksHighlighters(Project project) {
         this.project = project;
         this.bookmarksMarkers = project.getService(IBookmarksService.class).getBookmarksMarkers();
+        this.markerChangesQueue = new BookmarkMarkerChangesQueue(
+                flush -> AppUIUtil.invokeLaterIfProjectAlive(project, flush), this::applyMarkerChanges);
 
         project.getMessageBus().connect(this).subscribe(PsiDocumentListener.TOPIC, this::documentCreated);
         project.getMessageBus().connect(this).subscribe(BookmarksMarkers.BookmarksMarkersListener.TOPIC, getBookmarksMarkersListener());
@@ -61,54 +65,65 @@ public class BookmarksHighlighters implements Disposable, IBookmarksHighlighters
     @Override
     public void dispose() {
         // MessageBus connections and document listener will be automatically removed
-        // But we still need to dispose the document listener to stop pending timers
+        // But we still need to dispose the document listener to cancel pending processing
         if (documentListener != null) {
             documentListener.dispose();
         }
+        highlightersRegistry.clear();
     }
 
     @Override
     public List<RangeHighlighterEx> getBookmarksHighlighters(Document document) {
-        MarkupModelEx markupModel = (MarkupModelEx) DocumentMarkupModel.forDocument(document, project, false);
-        if (markupModel == null) {
-            return Collections.emptyList();
-        }
-        List<RangeHighlighterEx> highlighters = new ArrayList<>();
-        markupModel.processRangeHighlightersOverlappingWith(0, document.getTextLength(), highlighter -> {
-            if (isBookmarkHighlighter(highlighter)) {
-                highlighters.add(highlighter);
-            }
-            return true;
-        });
-        return highlighters;
+        return highlightersRegistry.getHighlighters(document);
     }
 
-    private static boolean isBookmarkHighlighter(RangeHighlighterEx highlighter) {
-        return highlighter.getUserData(BOOKMARK_IDS_KEY) != null;
+    boolean hasBookmarksHighlighters(Document document) {
+        return highlightersRegistry.hasHighlighters(document);
     }
 
     private BookmarksMarkersListener getBookmarksMarkersListener() {
+        // changes are queued and applied together on the EDT
         return new BookmarksMarkersListener() {
             @Override
             public void bookmarkMarkerDeleted(BookmarkMarker bookmarkMarker) {
-                AppUIUtil.invokeLaterIfProjectAlive(project, () ->
-                    ReadAction.run(() -> removeBookmarkFromHighlighter(bookmarkMarker)));
+                markerChangesQueue.markerDeleted(bookmarkMarker);
             }
 
             @Override
             public void bookmarkMarkerAdded(BookmarkMarker bookmarkMarker) {
-                AppUIUtil.invokeLaterIfProjectAlive(project, () ->
-                    ReadAction.run(() -> addBookmarkToHighlighter(bookmarkMarker)));
+                markerChangesQueue.markerAdded(bookmarkMarker);
             }
 
             @Override
             public void bookmarkMarkerUpdated(BookmarkMarker previous, BookmarkMarker bookmarkMarker) {
-                AppUIUtil.invokeLaterIfProjectAlive(project, () ->
-                    ReadAction.run(() -> updateHighlighterFromBookmark(previous, bookmarkMarker)));
+                markerChangesQueue.markerUpdated(previous, bookmarkMarker);
             }
         };
     }
 
+    private void applyMarkerChanges(Map<VirtualFile, List<MarkerChange>> changesByFile) {
+        ReadAction.run(() -> {
+            for (List<MarkerChange> changes : changesByFile.values()) {
+                for (MarkerChange change : changes) {
+                    applyMarkerChange(change);
+                }
+            }
+        });
+    }
+
+    private void applyMarkerChange(MarkerChange change) {
+        if (change.previous() == null) {
+            addBookmarkToHighlighter(change.current());
+        } else if (change.current() == null) {
+            removeBookmarkFromHighlighter(change.previous());
+        } else if (!change.previous().getResource().equals(change.current().getResource())) {
+            removeBookmarkFromHighlighter(change.previous());
+            addBookmarkToHighlighter(change.current());
+        } else {
+            updateHighlighterFromBookmark(change.previous(), change.current());
+        }
+    }
+
     /**
      * Removes a bookmark from its highlighter, or updates the highlighter if multiple bookmarks remain
      */
@@ -131,6 +146,7 @@ public class BookmarksHighlighters implements Disposable, IBookmarksHighlighters
 
         if (updatedIds.isEmpty()) {
             // No more bookmarks on this line, dispose the highlighter
+            highlightersRegistry.unregister(highlighter);
             highlighter.dispose();
         } else {
             updateHighlighter(highlighter, updatedIds);
@@ -146,7 +162,7 @@ public class BookmarksHighlighters implements Disposable, IBookmarksHighlighters
         } else {
             highlighter.setGutterIconRenderer(new BookmarkGutterIconRenderer(remainingMarkers.get(0)));
         }
-        highlighter.putUserData(BOOKMARK_IDS_KEY, bookmarkIds);
+        highlightersRegistry.register(highlighter, bookmarkIds);
     }
 
     /**
@@ -205,23 +221,7 @@ public class BookmarksHighlighters implements Disposable, IBookmarksHighlighters
      */
     @Override
     public RangeHighlighterEx findBookmarkHighlighterAtLine(Document document, int lineNumber) {
-        MarkupModelEx markupModel = (MarkupModelEx) DocumentMarkupModel.forDocument(document, project, false);
-        if (markupModel == null) {
-            return null;
-        }
-
-        int lineStartOffset = document.getLineStartOffset(lineNumber);
-        int lineEndOffset = document.getLineEndOffset(lineNumber);
-
-        Ref<RangeHighlighterEx> found = new Ref<>();
-        markupModel.processRangeHighlightersOverlappingWith(lineStartOffset, lineEndOffset, highlighter -> {
-            if (isBookmarkHighlighter(highlighter)) {
-                found.set(highlighter);
-                return false;
-            }
-            return true;
-        });
-        return found.get();
+        return highlightersRegistry.getHighlighterAtLine(document, lineNumber);
     }
 
     private void createHighlightersForOpenFiles() {
@@ -297,104 +297,68 @@ public class BookmarksHighlighters implements Disposable, IBookmarksHighlighters
         VirtualFile file = bookmarkMarker.getResource();
         Document document = FileDocumentManager.getInstance().getCachedDocument(file);
         if (document == null) return null;
-        MarkupModelEx markup = (MarkupModelEx) DocumentMarkupModel.forDocument(document, project, true);
-        final Document markupDocument = markup.getDocument();
-        final int startOffset = 0;
-        final int endOffset = markupDocument.getTextLength();
-
-        final Ref<RangeHighlighterEx> found = new Ref<>();
-        markup.processRangeHighlightersOverlappingWith(startOffset, endOffset, highlighter -> {
-            List<BookmarkId> bookmarkIds = highlighter.getUserData(BOOKMARK_IDS_KEY);
-            if (bookmarkIds != null && bookmarkIds.contains(bookmarkMarker.getBookmarkId())) {
-                found.set(highlighter);
-                return false;
-            }
-            return true;
-        });
-        return found.get();
+        return highlightersRegistry.getHighlighter(document, bookmarkMarker.getBookmarkId());
     }
 
+    /**
+     * Detect the bookmark highlighters moved or deleted by document changes. Changes are debounced and processed in a
+     * background read action. Documents without bookmark highlighters are ignored.
+     */
     private static class BookmarksHighlightersDocumentListener implements BulkAwareDocumentListener.Simple {
-        private static final int DEBOUNCE_DELAY_MS = 1000;
+        private static final Duration DEBOUNCE_DELAY = Duration.ofMillis(1000);
 
-        private final Map<Document, Timer> pendingProcessing = new ConcurrentHashMap<>();
+        private final Debouncer<Document> debouncer = new Debouncer<>(AppExecutorUtil.getAppScheduledExecutorService(),
+                DEBOUNCE_DELAY);
         private final Project project;
         private final IBookmarksMarkers bookmarksMarkers;
-        private final IBookmarksHighlighters bookmarksHighlighters;
+        private final BookmarksHighlighters bookmarksHighlighters;
 
-        public BookmarksHighlightersDocumentListener(Project project, IBookmarksHighlighters bookmarksHighlighters, IBookmarksMarkers bookmarksMarkers) {
+        public BookmarksHighlightersDocumentListener(Project project, BookmarksHighlighters bookmarksHighlighters, IBookmarksMarkers bookmarksMarkers) {
             this.project = project;
             this.bookmarksMarkers = bookmarksMarkers;
             this.bookmarksHighlighters = bookmarksHighlighters;
         }
 
         /**
-         * Cleanup method to stop all pending timers. Should be called when disposing the listener.
+         * Cleanup method to cancel the pending processing. Should be called when disposing the listener.
          */
         public void dispose() {
-            pendingProcessing.values().forEach(Timer::stop);
-            pendingProcessing.clear();
+            debouncer.cancelAll();
         }
 
         @Override
         public void beforeDocumentChange(@NotNull DocumentEvent e) {
         }
 
-        private boolean isDocumentInProject(Document document) {
-            VirtualFile file = FileDocumentManager.getInstance().getFile(document);
-            if (file == null) {
-                return false;
-            }
-            ProjectFileIndex projectFileIndex = ProjectFileIndex.getInstance(project);
-            return projectFileIndex.isInProject(file);
-        }
-
-
         @Override
         public void documentChanged(@NotNull DocumentEvent e) {
             Document document = e.getDocument();
-
-            // Only check if document belongs to project - let processDocumentChange handle bookmark check
-            if (!isDocumentInProject(document)) {
+            if (!bookmarksHighlighters.hasBookmarksHighlighters(document)) {
                 return;
             }
-
-            // Cancel any pending processing for this document
-            Timer existingTimer = pendingProcessing.get(document);
-            if (existingTimer != null) {
-                existingTimer.stop();
-            }
-
-            // Schedule debounced processing
-            Timer debounceTimer = new Timer(DEBOUNCE_DELAY_MS, actionEvent -> {
-                try {
-                    processDocumentChange(document);
-                } finally {
-                    pendingProcessing.remove(document);
-                }
-            });
-            debounceTimer.setRepeats(false);
-            pendingProcessing.put(document, debounceTimer);
-            debounceTimer.start();
+            debouncer.debounce(document, () -> processDocumentChange(document));
         }
 
         private void processDocumentChange(Document document) {
+            ReadAction.nonBlocking(() -> getHighlighterChanges(document))
+                    .expireWith(bookmarksHighlighters)
+                    .coalesceBy(this, document)
+                    .finishOnUiThread(ModalityState.defaultModalityState(), this::publishHighlighterChanges)
+                    .submit(AppExecutorUtil.getAppExecutorService());
+        }
+
+        private HighlighterChanges getHighlighterChanges(Document document) {
+            List<RangeHighlighterEx> movedHighlighters = new ArrayList<>();
+            List<BookmarkId> deletedBookmarkIds = new ArrayList<>();
             // Get current highlighters and markers for this document
             List<RangeHighlighterEx> currentHighlighters = bookmarksHighlighters.getBookmarksHighlighters(document);
 
             VirtualFile file = FileDocumentManager.getInstance().getFile(document);
             if (file == null) {
-                return;
+                return new HighlighterChanges(movedHighlighters, deletedBookmarkIds);
             }
             List<BookmarkMarker> documentMarkers = bookmarksMarkers.getMarkers(file);
 
-            // Early exit if no bookmarks in either direction
-            if (currentHighlighters.isEmpty() && documentMarkers.isEmpty()) {
-                return;
-            }
-
-            MessageBus messageBus = project.getMessageBus();
-
             // 1. Check existing highlighters for position changes
             Set<BookmarkId> processedMarkerIds = new HashSet<>();
             for (RangeHighlighterEx highlighter : currentHighlighters) {
@@ -406,7 +370,7 @@ public class BookmarksHighlighters implements Disposable, IBookmarksHighlighters
                     // Check position change using the first bookmark as reference
                     BookmarkMarker firstMarker = bookmarksMarkers.getMarker(bookmarkIds.get(0));
                     if (firstMarker != null && hasPositionChanged(highlighter, firstMarker)) {
-                        messageBus.syncPublisher(BookmarksHighlightersListener.TOPIC).bookmarkHighlighterMoved(highlighter);
+                        movedHighlighters.add(highlighter);
                     }
                 }
             }
@@ -414,9 +378,22 @@ public class BookmarksHighlighters implements Disposable, IBookmarksHighlighters
             // 2. Check for markers without corresponding highlighters (deleted highlighters)
             for (BookmarkMarker marker : documentMarkers) {
                 if (!processedMarkerIds.contains(marker.getBookmarkId())) {
-                    messageBus.syncPublisher(BookmarksHighlightersListener.TOPIC).bookmarkHighlighterDeleted(List.of(marker.getBookmarkId()));
+                    deletedBookmarkIds.add(marker.getBookmarkId());
+                }
+            }
+            return new HighlighterChanges(movedHighlighters, deletedBookmarkIds);
+        }
+
+        private void publishHighlighterChanges(HighlighterChanges highlighterChanges) {
+            BookmarksHighlightersListener publisher = project.getMessageBus().syncPublisher(BookmarksHighlightersListener.TOPIC);
+            for (RangeHighlighterEx highlighter : highlighterChanges.movedHighlighters()) {
+                if (highlighter.isValid()) {
+                    publisher.bookmarkHighlighterMoved(highlighter);
                 }
             }
+            for (BookmarkId bookmarkId : highlighterChanges.deletedBookmarkIds()) {
+                publisher.bookmarkHighlighterDeleted(List.of(bookmarkId));
+            }
         }
 
         private boolean hasPositionChanged(RangeHighlighterEx highlighter, BookmarkMarker marker) {
@@ -427,6 +404,10 @@ public class BookmarksHighlighters implements Disposable, IBookmarksHighlighters
             return expectedLine != actualLine;
         }
 
+        private record HighlighterChanges(List<RangeHighlighterEx> movedHighlighters,
+                                          List<BookmarkId> deletedBookmarkIds) {
+        }
+
     }
 
     /**
@@ -0,0 +1,164 @@
+package mesfavoris.internal.markers.highlighters;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.ex.RangeHighlighterEx;
+import com.intellij.openapi.util.Key;
+import mesfavoris.model.BookmarkId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import static mesfavoris.markers.IBookmarksHighlighters.BOOKMARK_IDS_KEY;
+
+/**
+ * Registry of the bookmark highlighters of each document, so that they can be found by bookmark id or by line
+ * without scanning the markup model of the document.
+ * <p>
+ * The highlighters of a document are kept in its user data : highlighters reference their document, so they are
+ * collected with it. Highlighters follow the lines they are on when the document is modified, so the line index is
+ * rebuilt from the (few) registered highlighters when the document modification stamp changes. Highlighters that are
+ * no longer valid are dropped when found.
+ * </p>
+ */
+class BookmarksHighlightersRegistry {
+    private final Key<DocumentHighlighters> documentHighlightersKey = Key.create("mesfavoris.documentHighlighters");
+    // only used to clear the user data of the documents, the set does not reference their highlighters
+    private final Set<Document> documents = Collections.newSetFromMap(new WeakHashMap<>());
+
+    /**
+     * Register a highlighter or update the bookmark ids of an already registered highlighter. The bookmark ids are
+     * also stored in the highlighter user data.
+     */
+    public synchronized void register(RangeHighlighterEx highlighter, List<BookmarkId> bookmarkIds) {
+        highlighter.putUserData(BOOKMARK_IDS_KEY, bookmarkIds);
+        Document document = highlighter.getDocument();
+        DocumentHighlighters documentHighlighters = document.getUserData(documentHighlightersKey);
+        if (documentHighlighters == null) {
+            documentHighlighters = new DocumentHighlighters();
+            document.putUserData(documentHighlightersKey, documentHighlighters);
+            documents.add(document);
+        }
+        documentHighlighters.put(highlighter, bookmarkIds);
+    }
+
+    public synchronized void unregister(RangeHighlighterEx highlighter) {
+        DocumentHighlighters documentHighlighters = highlighter.getDocument().getUserData(documentHighlightersKey);
+        if (documentHighlighters != null) {
+            documentHighlighters.remove(highlighter);
+        }
+    }
+
+    public synchronized RangeHighlighterEx getHighlighter(Document document, BookmarkId bookmarkId) {
+        DocumentHighlighters documentHighlighters = document.getUserData(documentHighlightersKey);
+        if (documentHighlighters == null) {
+            return null;
+        }
+        RangeHighlighterEx highlighter = documentHighlighters.highlightersByBookmarkId.get(bookmarkId);
+        if (highlighter != null && !highlighter.isValid()) {
+            documentHighlighters.remove(highlighter);
+            return null;
+        }
+        return highlighter;
+    }
+
+    public synchronized RangeHighlighterEx getHighlighterAtLine(Document document, int lineNumber) {
+        DocumentHighlighters documentHighlighters = document.getUserData(documentHighlightersKey);
+        if (documentHighlighters == null) {
+            return null;
+        }
+        RangeHighlighterEx highlighter = documentHighlighters.getLineIndex(document).get(lineNumber);
+        if (highlighter != null && !highlighter.isValid()) {
+            documentHighlighters.removeInvalidHighlighters();
+            highlighter = documentHighlighters.getLineIndex(document).get(lineNumber);
+        }
+        return highlighter;
+    }
+
+    /**
+     * Cheap check, used on each document change
+     */
+    public synchronized boolean hasHighlighters(Document document) {
+        DocumentHighlighters documentHighlighters = document.getUserData(documentHighlightersKey);
+        return documentHighlighters != null && !documentHighlighters.bookmarkIdsByHighlighter.isEmpty();
+    }
+
+    public synchronized List<RangeHighlighterEx> getHighlighters(Document document) {
+        DocumentHighlighters documentHighlighters = document.getUserData(documentHighlightersKey);
+        if (documentHighlighters == null) {
+            return List.of();
+        }
+        documentHighlighters.removeInvalidHighlighters();
+        return new ArrayList<>(documentHighlighters.bookmarkIdsByHighlighter.keySet());
+    }
+
+    /**
+     * Forget the highlighters of all the documents
+     */
+    public synchronized void clear() {
+        for (Document document : documents) {
+            document.putUserData(documentHighlightersKey, null);
+        }
+        documents.clear();
+    }
+
+    private static class DocumentHighlighters {
+        private final Map<RangeHighlighterEx, List<BookmarkId>> bookmarkIdsByHighlighter = new LinkedHashMap<>();
+        private final Map<BookmarkId, RangeHighlighterEx> highlightersByBookmarkId = new HashMap<>();
+        private Map<Integer, RangeHighlighterEx> highlightersByLine = null;
+        private long lineIndexModificationStamp;
+
+        public void put(RangeHighlighterEx highlighter, List<BookmarkId> bookmarkIds) {
+            remove(highlighter);
+            bookmarkIdsByHighlighter.put(highlighter, bookmarkIds);
+            for (BookmarkId bookmarkId : bookmarkIds) {
+                highlightersByBookmarkId.put(bookmarkId, highlighter);
+            }
+            highlightersByLine = null;
+        }
+
+        public void remove(RangeHighlighterEx highlighter) {
+            List<BookmarkId> bookmarkIds = bookmarkIdsByHighlighter.remove(highlighter);
+            if (bookmarkIds == null) {
+                return;
+            }
+            for (BookmarkId bookmarkId : bookmarkIds) {
+                highlightersByBookmarkId.remove(bookmarkId, highlighter);
+            }
+            highlightersByLine = null;
+        }
+
+        public void removeInvalidHighlighters() {
+            Iterator<RangeHighlighterEx> iterator = bookmarkIdsByHighlighter.keySet().iterator();
+            while (iterator.hasNext()) {
+                RangeHighlighterEx highlighter = iterator.next();
+                if (!highlighter.isValid()) {
+                    iterator.remove();
+                    highlightersByBookmarkId.values().removeIf(value -> value == highlighter);
+                    highlightersByLine = null;
+                }
+            }
+        }
+
+        public Map<Integer, RangeHighlighterEx> getLineIndex(Document document) {
+            if (highlightersByLine == null || lineIndexModificationStamp != document.getModificationStamp()) {
+                highlightersByLine = new HashMap<>();
+                for (RangeHighlighterEx highlighter : bookmarkIdsByHighlighter.keySet()) {
+                    if (highlighter.isValid()) {
+                        highlightersByLine.putIfAbsent(document.getLineNumber(highlighter.getStartOffset()), highlighter);
+                    }
+                }
+                lineIndexModificationStamp = document.getModificationStamp();
+            }
+            return highlightersByLine;
+        }
+
+    }
+
+}
@@ -314,6 +314,25 @@ class MesFavorisBookmarksMcpToolset : McpToolset {
         }
     }
 
+    @McpTool
+    @McpDescription(description = "Modify several bookmarks (favoris) at once by merging the given properties into the existing ones of each bookmark. Only specified properties are updated; others remain unchanged. Returns a confirmation message.")
+    suspend fun modify_bookmarks(
+        @McpDescription(description = "IDs of the bookmarks to modify") ids: List<String>,
+        @McpDescription(description = "Properties to update. Use list_bookmark_properties to get the list of possible properties.") properties: Map<String, String>
+    ): String {
+        val service = bookmarksService()
+        val bookmarkIds = ids.map { it.trim() }.filter { it.isNotEmpty() }.map { BookmarkId(it) }
+        if (bookmarkIds.isEmpty()) mcpFail("No bookmark IDs provided")
+        val tree = service.getBookmarksTree()
+        bookmarkIds.forEach { id -> tree.getBookmark(id) ?: mcpFail("Bookmark not found: $id") }
+        return try {
+            service.modifyBookmarks(bookmarkIds, properties)
+            "Modified ${bookmarkIds.size} bookmark(s)"
+        } catch (e: BookmarksException) {
+            mcpFail("Could not modify bookmarks: ${e.message}")
+        }
+    }
+
     @McpTool
     @McpDescription(description = "Update a bookmark (favori) to a new file location, re-capturing file path, line number and line content.")
     suspend fun update_bookmark(
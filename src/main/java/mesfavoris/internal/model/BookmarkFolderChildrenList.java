@@ -2,9 +2,6 @@ package mesfavoris.internal.model;
 
 import java.util.List;
 
-import org.javimmutable.collections.JImmutableList;
-import org.javimmutable.collections.util.JImmutables;
-
 import mesfavoris.model.BookmarkId;
 
 /**
@@ -14,18 +11,19 @@ import mesfavoris.model.BookmarkId;
  *
  */
 public class BookmarkFolderChildrenList {
-	private final JImmutableList<BookmarkId> children;
+	private final IndexedBookmarkIdList children;
+	private final List<BookmarkId> bookmarks;
 
 	public BookmarkFolderChildrenList(List<BookmarkId> children) {
-		this.children = JImmutables.list(children);
+		this(IndexedBookmarkIdList.of(children));
 	}
 
-	private BookmarkFolderChildrenList(JImmutableList<BookmarkId> children) {
+	private BookmarkFolderChildrenList(IndexedBookmarkIdList children) {
 		this.children = children;
+		this.bookmarks = children.asList();
 	}
 
-	private BookmarkFolderChildrenList createBookmarkFolderChildrenList(
-			JImmutableList<BookmarkId> children) {
+	private BookmarkFolderChildrenList createBookmarkFolderChildrenList(IndexedBookmarkIdList children) {
 		if (children == this.children) {
 			return this;
 		} else {
@@ -33,71 +31,95 @@ public class BookmarkFolderChildrenList {
 		}
 	}
 
+	/**
+	 * @return an unmodifiable view of the children, nothing is copied
+	 */
 	public List<BookmarkId> getBookmarks() {
-		return children.getList();
+		return bookmarks;
 	}
 
 	public boolean isEmpty() {
 		return children.isEmpty();
 	}
 
+	public int indexOf(BookmarkId bookmarkId) {
+		return children.indexOf(bookmarkId);
+	}
+
 	public BookmarkFolderChildrenList add(List<BookmarkId> bookmarksToAdd) {
-		JImmutableList<BookmarkId> newChildren = children;
-		for (BookmarkId bookmark : bookmarksToAdd) {
-			newChildren = newChildren.insert(bookmark);
-		}
-		return createBookmarkFolderChildrenList(newChildren);
+		return createBookmarkFolderChildrenList(children.insert(children.size(), bookmarksToAdd));
 	}
 
 	public BookmarkFolderChildrenList addBefore(List<BookmarkId> bookmarksToAdd, BookmarkId existingBookmark) {
-		JImmutableList<BookmarkId> newChildren = children;
-		int index = newChildren.getList().indexOf(existingBookmark);
+		int index = children.indexOf(existingBookmark);
 		if (index == -1) {
-			index = newChildren.size();
+			index = children.size();
 		}
-		for (BookmarkId bookmark : bookmarksToAdd) {
-			newChildren = newChildren.insert(index, bookmark);
-			index++;
-		}
-		return createBookmarkFolderChildrenList(newChildren);
+		return createBookmarkFolderChildrenList(children.insert(index, bookmarksToAdd));
 	}
 
 	public BookmarkFolderChildrenList addAfter(List<BookmarkId> bookmarksToAdd, BookmarkId existingBookmark) {
-		JImmutableList<BookmarkId> newChildren = children;
-		int index = newChildren.getList().indexOf(existingBookmark);
+		int index = children.indexOf(existingBookmark);
 		if (index == -1) {
 			index = 0;
 		} else {
 			index++;
 		}
-		for (BookmarkId bookmark : bookmarksToAdd) {
-			newChildren = newChildren.insert(index, bookmark);
-			index++;
+		return createBookmarkFolderChildrenList(children.insert(index, bookmarksToAdd));
+	}
+
+	/**
+	 * Move children before an existing one
+	 * 
+	 * @param bookmarksToMove
+	 *            children of this folder
+	 * @param existingBookmark
+	 *            the child to move them before or null to move them at the end
+	 * @return this list if the children are already there
+	 */
+	public BookmarkFolderChildrenList moveBefore(List<BookmarkId> bookmarksToMove, BookmarkId existingBookmark) {
+		int index = children.indexOf(existingBookmark);
+		if (index == -1) {
+			index = children.size();
+		}
+		if (children.containsAt(index - bookmarksToMove.size(), bookmarksToMove)) {
+			return this;
 		}
-		return createBookmarkFolderChildrenList(newChildren);
+		return remove(bookmarksToMove).addBefore(bookmarksToMove, existingBookmark);
 	}
 
-	public BookmarkFolderChildrenList remove(List<BookmarkId> bookmarksToRemove) {
-		JImmutableList<BookmarkId> newChildren = children;
-		for (BookmarkId bookmark : bookmarksToRemove) {
-			int index = newChildren.getList().indexOf(bookmark);
-			if (index != -1) {
-				newChildren = newChildren.delete(index);
-			}
+	/**
+	 * Move children after an existing one
+	 * 
+	 * @param bookmarksToMove
+	 *            children of this folder
+	 * @param existingBookmark
+	 *            the child to move them after or null to move them at the
+	 *            beginning
+	 * @return this list if the children are already there
+	 */
+	public BookmarkFolderChildrenList moveAfter(List<BookmarkId> bookmarksToMove, BookmarkId existingBookmark) {
+		int index = children.indexOf(existingBookmark) + 1;
+		if (children.containsAt(index, bookmarksToMove)) {
+			return this;
 		}
-		return createBookmarkFolderChildrenList(newChildren);
+		return remove(bookmarksToMove).addAfter(bookmarksToMove, existingBookmark);
+	}
+
+	public BookmarkFolderChildrenList remove(List<BookmarkId> bookmarksToRemove) {
+		return createBookmarkFolderChildrenList(children.remove(bookmarksToRemove));
 	}
 
 	@Override
 	public String toString() {
-		return "BookmarkFolderChildrenList [children=" + children + "]";
+		return "BookmarkFolderChildrenList [children=" + getBookmarks() + "]";
 	}
 
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((children == null) ? 0 : children.hashCode());
+		result = prime * result + ((children == null) ? 0 : getBookmarks().hashCode());
 		return result;
 	}
 
@@ -113,7 +135,7 @@ public class BookmarkFolderChildrenList {
 		if (children == null) {
 			if (other.children != null)
 				return false;
-		} else if (!children.equals(other.children))
+		} else if (!getBookmarks().equals(other.getBookmarks()))
 			return false;
 		return true;
 	}
@@ -2,6 +2,7 @@ package mesfavoris.internal.model;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.util.JImmutables;
@@ -21,6 +22,17 @@ public class BookmarksChildrenMap {
 		this.idToChildren = JImmutables.map();
 	}
 
+	public BookmarksChildrenMap(Map<BookmarkId, List<BookmarkId>> idToChildren) {
+		JImmutableMap.Builder<BookmarkId, BookmarkFolderChildrenList> builder = JImmutables.mapBuilder();
+		idToChildren.forEach((parentId, children) -> {
+			// folders without children have no entry
+			if (!children.isEmpty()) {
+				builder.add(parentId, new BookmarkFolderChildrenList(children));
+			}
+		});
+		this.idToChildren = builder.build();
+	}
+
 	private BookmarksChildrenMap(JImmutableMap<BookmarkId, BookmarkFolderChildrenList> idToChildren) {
 		this.idToChildren = idToChildren;
 	}
@@ -92,6 +104,38 @@ public class BookmarksChildrenMap {
 		return createBookmarksChildrenMap(newIdToChildren);
 	}
 
+	/**
+	 * Move children of a folder before one of its children (or at the end if
+	 * existingBookmark is null)
+	 * 
+	 * @return this map if the children are already there
+	 */
+	public BookmarksChildrenMap moveBefore(BookmarkId parentId, List<BookmarkId> bookmarksToMove,
+			BookmarkId existingBookmark) {
+		BookmarkFolderChildrenList children = idToChildren.get(parentId);
+		BookmarkFolderChildrenList newChildren = children.moveBefore(bookmarksToMove, existingBookmark);
+		if (newChildren == children) {
+			return this;
+		}
+		return createBookmarksChildrenMap(idToChildren.assign(parentId, newChildren));
+	}
+
+	/**
+	 * Move children of a folder after one of its children (or at the beginning
+	 * if existingBookmark is null)
+	 * 
+	 * @return this map if the children are already there
+	 */
+	public BookmarksChildrenMap moveAfter(BookmarkId parentId, List<BookmarkId> bookmarksToMove,
+			BookmarkId existingBookmark) {
+		BookmarkFolderChildrenList children = idToChildren.get(parentId);
+		BookmarkFolderChildrenList newChildren = children.moveAfter(bookmarksToMove, existingBookmark);
+		if (newChildren == children) {
+			return this;
+		}
+		return createBookmarksChildrenMap(idToChildren.assign(parentId, newChildren));
+	}
+
 	public BookmarksChildrenMap delete(BookmarkId parentId, List<BookmarkId> bookmarksToRemove) {
 		if (bookmarksToRemove.isEmpty()) {
 			return this;
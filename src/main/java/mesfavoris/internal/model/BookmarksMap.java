@@ -3,6 +3,7 @@ package mesfavoris.internal.model;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.util.JImmutables;
@@ -24,6 +25,12 @@ public class BookmarksMap implements Iterable<Bookmark> {
 		this.idToBookmark = JImmutables.map();
 	}
 
+	public BookmarksMap(Map<BookmarkId, Bookmark> idToBookmark) {
+		JImmutableMap.Builder<BookmarkId, Bookmark> builder = JImmutables.mapBuilder();
+		idToBookmark.forEach(builder::add);
+		this.idToBookmark = builder.build();
+	}
+
 	private BookmarksMap(JImmutableMap<BookmarkId, Bookmark> idToBookmark) {
 		this.idToBookmark = idToBookmark;
 	}
@@ -1,6 +1,7 @@
 package mesfavoris.internal.model;
 
 import java.util.List;
+import java.util.Map;
 
 import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.util.JImmutables;
@@ -20,6 +21,12 @@ public class BookmarksParentsMap {
 		this.idToParent = JImmutables.map();
 	}
 
+	public BookmarksParentsMap(Map<BookmarkId, BookmarkId> idToParent) {
+		JImmutableMap.Builder<BookmarkId, BookmarkId> builder = JImmutables.mapBuilder();
+		idToParent.forEach(builder::add);
+		this.idToParent = builder.build();
+	}
+
 	private BookmarksParentsMap(JImmutableMap<BookmarkId, BookmarkId> idToParent) {
 		this.idToParent = idToParent;
 	}
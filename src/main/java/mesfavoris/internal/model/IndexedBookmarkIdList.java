@@ -0,0 +1,421 @@
+package mesfavoris.internal.model;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.util.JImmutables;
+
+import mesfavoris.model.BookmarkId;
+
+/**
+ * Persistent list of distinct {@link BookmarkId}s with logarithmic
+ * {@link #indexOf(BookmarkId)}, insertion and removal.
+ * <p>
+ * Each id is given a numeric position. Positions are sparse so that ids can be
+ * inserted between two others without renumbering the whole list. When there
+ * is no room left, only a window of ids around the insertion point is
+ * renumbered. The ids are kept in an AVL tree ordered by position and
+ * augmented with subtree sizes (an order-statistic tree) and a map gives the
+ * position of each id.
+ * </p>
+ */
+final class IndexedBookmarkIdList {
+	private static final long GAP = 1L << 20;
+	private static final long POSITION_LIMIT = 1L << 60;
+	// leaves room for about ten insertions between two renumbered ids
+	private static final long MIN_SPREAD_STEP = 1L << 10;
+	private final JImmutableMap<BookmarkId, Long> positions;
+	private final Node root;
+
+	private IndexedBookmarkIdList(JImmutableMap<BookmarkId, Long> positions, Node root) {
+		this.positions = positions;
+		this.root = root;
+	}
+
+	/**
+	 * Create a list from the given ids
+	 *
+	 * @param bookmarkIds
+	 *            the ids. They must be distinct
+	 * @return the new list
+	 */
+	public static IndexedBookmarkIdList of(List<BookmarkId> bookmarkIds) {
+		JImmutableMap<BookmarkId, Long> positions = JImmutables.map();
+		for (int i = 0; i < bookmarkIds.size(); i++) {
+			positions = positions.assign(bookmarkIds.get(i), i * GAP);
+		}
+		return new IndexedBookmarkIdList(positions, build(bookmarkIds, 0, bookmarkIds.size() - 1));
+	}
+
+	public int size() {
+		return size(root);
+	}
+
+	public boolean isEmpty() {
+		return root == null;
+	}
+
+	public int indexOf(BookmarkId bookmarkId) {
+		Long position = bookmarkId == null ? null : positions.get(bookmarkId);
+		if (position == null) {
+			return -1;
+		}
+		int index = 0;
+		Node node = root;
+		while (node != null) {
+			if (position < node.position) {
+				node = node.left;
+			} else if (position > node.position) {
+				index += size(node.left) + 1;
+				node = node.right;
+			} else {
+				return index + size(node.left);
+			}
+		}
+		return -1;
+	}
+
+	public BookmarkId get(int index) {
+		return select(index).bookmarkId;
+	}
+
+	/**
+	 * Insert ids at the given index
+	 *
+	 * @param index
+	 * @param bookmarkIds
+	 *            ids not already in the list
+	 * @return the new list
+	 */
+	public IndexedBookmarkIdList insert(int index, List<BookmarkId> bookmarkIds) {
+		if (bookmarkIds.isEmpty()) {
+			return this;
+		}
+		int count = bookmarkIds.size();
+		long first;
+		long step;
+		if (root == null) {
+			first = 0;
+			step = GAP;
+		} else if (index == 0) {
+			long upper = select(0).position;
+			first = upper - count * GAP;
+			step = GAP;
+		} else if (index == size()) {
+			first = select(index - 1).position + GAP;
+			step = GAP;
+		} else {
+			long lower = select(index - 1).position;
+			long upper = select(index).position;
+			step = (upper - lower) / (count + 1);
+			first = lower + step;
+		}
+		if (step == 0 || first < -POSITION_LIMIT || first + (count - 1) * step > POSITION_LIMIT) {
+			// no room left between the neighbours
+			return spread(index, bookmarkIds);
+		}
+		return renumber(index, index, index, bookmarkIds, first - step, step);
+	}
+
+	/**
+	 * Insert ids at the given index, renumbering the ids around it. The window
+	 * of renumbered ids is doubled until its positions leave at least
+	 * {@link #MIN_SPREAD_STEP} between consecutive ids. The list is only
+	 * rebuilt if the window covers the whole list.
+	 */
+	private IndexedBookmarkIdList spread(int index, List<BookmarkId> bookmarkIds) {
+		int size = size();
+		for (int k = 1;; k *= 2) {
+			int low = Math.max(0, index - k);
+			int high = Math.min(size, index + k);
+			long lower = low == 0 ? -POSITION_LIMIT : select(low - 1).position;
+			long upper = high == size ? POSITION_LIMIT : select(high).position;
+			long step = (upper - lower) / (high - low + bookmarkIds.size() + 1);
+			if (step >= MIN_SPREAD_STEP) {
+				return renumber(low, high, index, bookmarkIds, lower, step);
+			}
+			if (low == 0 && high == size) {
+				List<BookmarkId> newBookmarkIds = new ArrayList<>(toList());
+				newBookmarkIds.addAll(index, bookmarkIds);
+				return of(newBookmarkIds);
+			}
+		}
+	}
+
+	/**
+	 * Give new positions to the ids between low (inclusive) and high
+	 * (exclusive) and to the ids inserted at index
+	 *
+	 * @param lower
+	 *            the position before the first renumbered id
+	 * @param step
+	 *            the distance between consecutive positions
+	 */
+	private IndexedBookmarkIdList renumber(int low, int high, int index, List<BookmarkId> bookmarkIds, long lower,
+			long step) {
+		List<BookmarkId> renumberedIds = new ArrayList<>(high - low + bookmarkIds.size());
+		JImmutableMap<BookmarkId, Long> newPositions = positions;
+		Node newRoot = root;
+		for (int i = low; i < high; i++) {
+			Node node = select(i);
+			renumberedIds.add(node.bookmarkId);
+			newRoot = delete(newRoot, node.position);
+		}
+		renumberedIds.addAll(index - low, bookmarkIds);
+		long position = lower;
+		for (BookmarkId bookmarkId : renumberedIds) {
+			position += step;
+			newPositions = newPositions.assign(bookmarkId, position);
+			newRoot = insert(newRoot, position, bookmarkId);
+		}
+		return new IndexedBookmarkIdList(newPositions, newRoot);
+	}
+
+	public IndexedBookmarkIdList remove(Collection<BookmarkId> bookmarkIds) {
+		JImmutableMap<BookmarkId, Long> newPositions = positions;
+		Node newRoot = root;
+		for (BookmarkId bookmarkId : bookmarkIds) {
+			Long position = newPositions.get(bookmarkId);
+			if (position != null) {
+				newPositions = newPositions.delete(bookmarkId);
+				newRoot = delete(newRoot, position);
+			}
+		}
+		if (newRoot == root) {
+			return this;
+		}
+		return new IndexedBookmarkIdList(newPositions, newRoot);
+	}
+
+	/**
+	 * Get an unmodifiable view of the ids. Nothing is copied : {@code get},
+	 * {@code indexOf} and {@code contains} are logarithmic and iteration is
+	 * linear.
+	 */
+	public List<BookmarkId> asList() {
+		return new ListView();
+	}
+
+	/**
+	 * Check if the given ids are at the given index, in the same order
+	 */
+	public boolean containsAt(int index, List<BookmarkId> bookmarkIds) {
+		if (index < 0) {
+			return false;
+		}
+		for (int i = 0; i < bookmarkIds.size(); i++) {
+			if (indexOf(bookmarkIds.get(i)) != index + i) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public List<BookmarkId> toList() {
+		List<BookmarkId> list = new ArrayList<>(size());
+		addAll(root, list);
+		return Collections.unmodifiableList(list);
+	}
+
+	private Node select(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		Node node = root;
+		while (true) {
+			int leftSize = size(node.left);
+			if (index < leftSize) {
+				node = node.left;
+			} else if (index == leftSize) {
+				return node;
+			} else {
+				index -= leftSize + 1;
+				node = node.right;
+			}
+		}
+	}
+
+	private static void addAll(Node node, List<BookmarkId> list) {
+		if (node != null) {
+			addAll(node.left, list);
+			list.add(node.bookmarkId);
+			addAll(node.right, list);
+		}
+	}
+
+	private static Node build(List<BookmarkId> bookmarkIds, int low, int high) {
+		if (low > high) {
+			return null;
+		}
+		int middle = (low + high) >>> 1;
+		return new Node(middle * GAP, bookmarkIds.get(middle), build(bookmarkIds, low, middle - 1),
+				build(bookmarkIds, middle + 1, high));
+	}
+
+	private static Node insert(Node node, long position, BookmarkId bookmarkId) {
+		if (node == null) {
+			return new Node(position, bookmarkId, null, null);
+		}
+		if (position < node.position) {
+			return balance(node.position, node.bookmarkId, insert(node.left, position, bookmarkId), node.right);
+		} else {
+			return balance(node.position, node.bookmarkId, node.left, insert(node.right, position, bookmarkId));
+		}
+	}
+
+	private static Node delete(Node node, long position) {
+		if (node == null) {
+			return null;
+		}
+		if (position < node.position) {
+			return balance(node.position, node.bookmarkId, delete(node.left, position), node.right);
+		} else if (position > node.position) {
+			return balance(node.position, node.bookmarkId, node.left, delete(node.right, position));
+		} else if (node.left == null) {
+			return node.right;
+		} else if (node.right == null) {
+			return node.left;
+		}
+		Node min = node.right;
+		while (min.left != null) {
+			min = min.left;
+		}
+		return balance(min.position, min.bookmarkId, node.left, deleteMin(node.right));
+	}
+
+	private static Node deleteMin(Node node) {
+		if (node.left == null) {
+			return node.right;
+		}
+		return balance(node.position, node.bookmarkId, deleteMin(node.left), node.right);
+	}
+
+	private static Node balance(long position, BookmarkId bookmarkId, Node left, Node right) {
+		int leftHeight = height(left);
+		int rightHeight = height(right);
+		if (leftHeight > rightHeight + 1) {
+			if (height(left.left) >= height(left.right)) {
+				return new Node(left.position, left.bookmarkId, left.left,
+						new Node(position, bookmarkId, left.right, right));
+			}
+			Node leftRight = left.right;
+			return new Node(leftRight.position, leftRight.bookmarkId,
+					new Node(left.position, left.bookmarkId, left.left, leftRight.left),
+					new Node(position, bookmarkId, leftRight.right, right));
+		} else if (rightHeight > leftHeight + 1) {
+			if (height(right.right) >= height(right.left)) {
+				return new Node(right.position, right.bookmarkId, new Node(position, bookmarkId, left, right.left),
+						right.right);
+			}
+			Node rightLeft = right.left;
+			return new Node(rightLeft.position, rightLeft.bookmarkId,
+					new Node(position, bookmarkId, left, rightLeft.left),
+					new Node(right.position, right.bookmarkId, rightLeft.right, right.right));
+		}
+		return new Node(position, bookmarkId, left, right);
+	}
+
+	private static int height(Node node) {
+		return node == null ? 0 : node.height;
+	}
+
+	private static int size(Node node) {
+		return node == null ? 0 : node.size;
+	}
+
+	private class ListView extends AbstractList<BookmarkId> {
+
+		@Override
+		public BookmarkId get(int index) {
+			return IndexedBookmarkIdList.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return IndexedBookmarkIdList.this.size();
+		}
+
+		@Override
+		public int indexOf(Object o) {
+			return o instanceof BookmarkId bookmarkId ? IndexedBookmarkIdList.this.indexOf(bookmarkId) : -1;
+		}
+
+		@Override
+		public int lastIndexOf(Object o) {
+			// ids are distinct
+			return indexOf(o);
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return indexOf(o) != -1;
+		}
+
+		@Override
+		public Iterator<BookmarkId> iterator() {
+			return new InOrderIterator(root);
+		}
+
+	}
+
+	/**
+	 * In-order traversal of the tree, using a stack of the left spine
+	 */
+	private static final class InOrderIterator implements Iterator<BookmarkId> {
+		private final Deque<Node> stack = new ArrayDeque<>();
+
+		private InOrderIterator(Node root) {
+			pushLeftSpine(root);
+		}
+
+		private void pushLeftSpine(Node node) {
+			while (node != null) {
+				stack.push(node);
+				node = node.left;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !stack.isEmpty();
+		}
+
+		@Override
+		public BookmarkId next() {
+			if (stack.isEmpty()) {
+				throw new NoSuchElementException();
+			}
+			Node node = stack.pop();
+			pushLeftSpine(node.right);
+			return node.bookmarkId;
+		}
+
+	}
+
+	private static final class Node {
+		private final long position;
+		private final BookmarkId bookmarkId;
+		private final Node left;
+		private final Node right;
+		private final int height;
+		private final int size;
+
+		private Node(long position, BookmarkId bookmarkId, Node left, Node right) {
+			this.position = position;
+			this.bookmarkId = bookmarkId;
+			this.left = left;
+			this.right = right;
+			this.height = Math.max(height(left), height(right)) + 1;
+			this.size = size(left) + size(right) + 1;
+		}
+	}
+
+}
@@ -11,6 +11,7 @@ import mesfavoris.model.BookmarksTree;
 import mesfavoris.model.modification.BookmarkDeletedModification;
 import mesfavoris.model.modification.BookmarkPropertiesModification;
 import mesfavoris.model.modification.BookmarksAddedModification;
+import mesfavoris.model.modification.BookmarksBatchModification;
 import mesfavoris.model.modification.BookmarksModification;
 import mesfavoris.model.modification.BookmarksMovedModification;
 
@@ -39,7 +40,7 @@ public class BookmarksModificationsOptimizer {
 
 	private boolean isSameTree(BookmarksTree sourceTree, BookmarksTree targetTree,
 			List<BookmarksModification> modifications) {
-		for (BookmarksModification modification : modifications) {
+		for (BookmarksModification modification : BookmarksBatchModification.expand(modifications)) {
 			if (modification instanceof BookmarkDeletedModification) {
 				if (!modificationCancelled(sourceTree, targetTree, (BookmarkDeletedModification) modification)) {
 					return false;
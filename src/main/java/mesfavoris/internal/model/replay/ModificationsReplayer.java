@@ -21,7 +21,7 @@ public class ModificationsReplayer {
 	private final List<BookmarksModification> modifications;
 
 	public ModificationsReplayer(List<BookmarksModification> modifications) {
-		this.modifications = modifications;
+		this.modifications = BookmarksBatchModification.expand(modifications);
 	}
 
 	/**
@@ -59,6 +59,8 @@ public class BookmarksAutoSaver implements IBookmarksDirtyStateTracker, Disposab
     @Override
     public void dispose() {
         bookmarkDatabase.removeListener(bookmarksListener);
+        // remaining modifications have been handled when disposing backgroundBookmarksModificationsHandler
+        localBookmarksSaver.compact(bookmarkDatabase.getBookmarksTree());
     }
 
     @Override
@@ -70,7 +72,7 @@ public class BookmarksAutoSaver implements IBookmarksDirtyStateTracker, Disposab
         List<BookmarksModification> bookmarksModifications = backgroundBookmarksModificationsHandler
                 .getUnhandledEvents();
         Set<BookmarkId> dirtyBookmarks = new HashSet<>();
-        for (BookmarksModification bookmarksModification : bookmarksModifications) {
+        for (BookmarksModification bookmarksModification : BookmarksBatchModification.expand(bookmarksModifications)) {
             if (bookmarksModification instanceof BookmarkDeletedModification bookmarkDeletedModification) {
                 dirtyBookmarks.add(bookmarkDeletedModification.getBookmarkParentId());
             } else if (bookmarksModification instanceof BookmarkPropertiesModification bookmarkPropertiesModification) {
@@ -101,9 +103,7 @@ public class BookmarksAutoSaver implements IBookmarksDirtyStateTracker, Disposab
         public void handle(List<BookmarksModification> modifications, @NotNull ProgressIndicator progressIndicator)
                 throws BookmarksException {
             try {
-                BookmarksModification latestModification = modifications.getLast();
-                BookmarksTree bookmarksTree = latestModification.getTargetTree();
-                localBookmarksSaver.saveBookmarks(bookmarksTree);
+                localBookmarksSaver.saveModifications(modifications);
                 remoteBookmarksSaver.applyModificationsToRemoteBookmarksStores(modifications, progressIndicator);
             } finally {
                 computeDirtyBookmarks();
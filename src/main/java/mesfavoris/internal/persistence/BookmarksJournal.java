@@ -0,0 +1,407 @@
+package mesfavoris.internal.persistence;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.intellij.openapi.diagnostic.Logger;
+import mesfavoris.model.Bookmark;
+import mesfavoris.model.BookmarkFolder;
+import mesfavoris.model.BookmarkId;
+import mesfavoris.model.BookmarksTree;
+import mesfavoris.model.modification.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Append-only journal of bookmarks modifications, stored next to the bookmarks
+ * file.
+ * <p>
+ * The journal contains one JSON record per line. The first line identifies the
+ * snapshot (the bookmarks file) the records apply to, using its CRC32. The
+ * following lines are derived from {@link BookmarksModification}s. A journal
+ * that does not match the snapshot is obsolete (the snapshot has been written
+ * but the journal has not been reset yet) and is ignored.
+ * </p>
+ */
+public class BookmarksJournal {
+    private static final Logger LOG = Logger.getInstance(BookmarksJournal.class);
+    private static final String NAME_VERSION = "version";
+    private static final String VERSION_1_0 = "1.0";
+    private static final String NAME_SNAPSHOT = "snapshot";
+    private static final String NAME_OPERATION = "op";
+    private static final String OPERATION_ADDED = "added";
+    private static final String OPERATION_DELETED = "deleted";
+    private static final String OPERATION_MOVED = "moved";
+    private static final String OPERATION_PROPERTIES = "properties";
+    private static final String NAME_ID = "id";
+    private static final String NAME_IDS = "ids";
+    private static final String NAME_PARENT = "parent";
+    private static final String NAME_AFTER = "after";
+    private static final String NAME_BOOKMARKS = "bookmarks";
+    private static final String NAME_FOLDER = "folder";
+    private static final String NAME_PROPERTIES = "properties";
+    private static final String NAME_RECURSIVE = "recursive";
+    private static final String NAME_SET = "set";
+    private static final String NAME_UNSET = "unset";
+
+    private final Path path;
+    private volatile int recordsCount;
+
+    public BookmarksJournal(@NotNull File file) {
+        this.path = file.toPath();
+    }
+
+    public boolean exists() {
+        return Files.exists(path);
+    }
+
+    /**
+     * Number of records appended since the journal has been reset
+     *
+     * @return the number of records
+     */
+    public int getRecordsCount() {
+        return recordsCount;
+    }
+
+    /**
+     * Start a new empty journal for the given snapshot
+     *
+     * @param snapshotChecksum
+     *            the CRC32 of the snapshot
+     * @throws IOException
+     */
+    public void reset(long snapshotChecksum) throws IOException {
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+                JsonWriter jsonWriter = new JsonWriter(writer);
+                jsonWriter.beginObject();
+                jsonWriter.name(NAME_VERSION).value(VERSION_1_0);
+                jsonWriter.name(NAME_SNAPSHOT).value(Long.toHexString(snapshotChecksum));
+                jsonWriter.endObject();
+                jsonWriter.flush();
+                writer.write('\n');
+            }
+            try {
+                Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+        recordsCount = 0;
+    }
+
+    /**
+     * Append the given modifications to the journal. The journal must have
+     * been {@link #reset(long)} before.
+     *
+     * @param modifications
+     * @throws IOException
+     */
+    public void append(List<BookmarksModification> modifications) throws IOException {
+        if (!exists()) {
+            throw new IOException("Journal does not exist : " + path);
+        }
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+            for (BookmarksModification modification : BookmarksBatchModification.expand(modifications)) {
+                writeRecord(writer, modification);
+                writer.write('\n');
+                count++;
+            }
+            writer.flush();
+            channel.force(false);
+        }
+        recordsCount += count;
+    }
+
+    /**
+     * Replay the journal on top of the given snapshot
+     *
+     * @param bookmarksTree
+     *            the tree loaded from the snapshot
+     * @param snapshotPath
+     *            the path of the snapshot
+     * @return the tree with all journal records applied
+     * @throws IOException
+     */
+    public BookmarksTree replay(BookmarksTree bookmarksTree, Path snapshotPath) throws IOException {
+        recordsCount = 0;
+        if (!exists()) {
+            return bookmarksTree;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null || !isJournalForSnapshot(header, getChecksum(snapshotPath))) {
+                LOG.info("Ignoring obsolete bookmarks journal " + path);
+                return bookmarksTree;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    bookmarksTree = applyRecord(bookmarksTree, line);
+                    recordsCount++;
+                } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+                    // most likely a record partially written during a crash
+                    LOG.warn("Cannot replay bookmarks journal record : " + line, e);
+                    break;
+                }
+            }
+        }
+        return bookmarksTree;
+    }
+
+    /**
+     * Get the checksum of a snapshot
+     *
+     * @param snapshotPath
+     * @return the CRC32 of the file
+     * @throws IOException
+     */
+    public static long getChecksum(Path snapshotPath) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream inputStream = new CheckedInputStream(Files.newInputStream(snapshotPath), crc)) {
+            byte[] buffer = new byte[64 * 1024];
+            while (inputStream.read(buffer) != -1) {
+                // checksum is updated while reading
+            }
+        }
+        return crc.getValue();
+    }
+
+    private boolean isJournalForSnapshot(String header, long snapshotChecksum) throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(header));
+        String version = null;
+        String snapshot = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (NAME_VERSION.equals(name)) {
+                version = reader.nextString();
+            } else if (NAME_SNAPSHOT.equals(name)) {
+                snapshot = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return VERSION_1_0.equals(version) && Long.toHexString(snapshotChecksum).equals(snapshot);
+    }
+
+    private void writeRecord(Writer writer, BookmarksModification modification) throws IOException {
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        if (modification instanceof BookmarksAddedModification bookmarksAddedModification) {
+            writeBookmarksAdded(jsonWriter, bookmarksAddedModification);
+        } else if (modification instanceof BookmarkDeletedModification bookmarkDeletedModification) {
+            writeBookmarkDeleted(jsonWriter, bookmarkDeletedModification);
+        } else if (modification instanceof BookmarksMovedModification bookmarksMovedModification) {
+            writeBookmarksMoved(jsonWriter, bookmarksMovedModification);
+        } else if (modification instanceof BookmarkPropertiesModification bookmarkPropertiesModification) {
+            writeBookmarkProperties(jsonWriter, bookmarkPropertiesModification);
+        } else {
+            throw new IOException("Unknown bookmarks modification : " + modification);
+        }
+        jsonWriter.flush();
+    }
+
+    private void writeBookmarksAdded(JsonWriter writer, BookmarksAddedModification modification) throws IOException {
+        writer.beginObject();
+        writer.name(NAME_OPERATION).value(OPERATION_ADDED);
+        writer.name(NAME_PARENT).value(modification.getParentId().toString());
+        writeBookmarkId(writer, NAME_AFTER, modification.getAfterBookmarkId());
+        writer.name(NAME_BOOKMARKS).beginArray();
+        for (Bookmark bookmark : modification.getBookmarks()) {
+            writer.beginObject();
+            writer.name(NAME_ID).value(bookmark.getId().toString());
+            if (bookmark instanceof BookmarkFolder) {
+                writer.name(NAME_FOLDER).value(true);
+            }
+            writer.name(NAME_PROPERTIES);
+            writeProperties(writer, bookmark.getProperties());
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    private void writeBookmarkDeleted(JsonWriter writer, BookmarkDeletedModification modification)
+            throws IOException {
+        writer.beginObject();
+        writer.name(NAME_OPERATION).value(OPERATION_DELETED);
+        writer.name(NAME_ID).value(modification.getBookmarkId().toString());
+        writer.name(NAME_RECURSIVE).value(modification.isRecursive());
+        writer.endObject();
+    }
+
+    private void writeBookmarksMoved(JsonWriter writer, BookmarksMovedModification modification) throws IOException {
+        writer.beginObject();
+        writer.name(NAME_OPERATION).value(OPERATION_MOVED);
+        writer.name(NAME_PARENT).value(modification.getNewParentId().toString());
+        writeBookmarkId(writer, NAME_AFTER, modification.getAfterBookmarkId());
+        writer.name(NAME_IDS).beginArray();
+        for (BookmarkId bookmarkId : modification.getBookmarkIds()) {
+            writer.value(bookmarkId.toString());
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    private void writeBookmarkProperties(JsonWriter writer, BookmarkPropertiesModification modification)
+            throws IOException {
+        Bookmark bookmark = modification.getTargetTree().getBookmark(modification.getBookmarkId());
+        writer.beginObject();
+        writer.name(NAME_OPERATION).value(OPERATION_PROPERTIES);
+        writer.name(NAME_ID).value(modification.getBookmarkId().toString());
+        writer.name(NAME_SET).beginObject();
+        for (String propertyName : modification.getAddedProperties()) {
+            writer.name(propertyName).value(bookmark.getPropertyValue(propertyName));
+        }
+        for (String propertyName : modification.getModifiedProperties()) {
+            writer.name(propertyName).value(bookmark.getPropertyValue(propertyName));
+        }
+        writer.endObject();
+        writer.name(NAME_UNSET).beginArray();
+        for (String propertyName : modification.getDeletedProperties()) {
+            writer.value(propertyName);
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    private void writeBookmarkId(JsonWriter writer, String name, BookmarkId bookmarkId) throws IOException {
+        if (bookmarkId != null) {
+            writer.name(name).value(bookmarkId.toString());
+        }
+    }
+
+    private void writeProperties(JsonWriter writer, Map<String, String> properties) throws IOException {
+        writer.beginObject();
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            writer.name(entry.getKey()).value(entry.getValue());
+        }
+        writer.endObject();
+    }
+
+    private BookmarksTree applyRecord(BookmarksTree bookmarksTree, String line) throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(line));
+        String operation = null;
+        BookmarkId id = null;
+        BookmarkId parentId = null;
+        BookmarkId afterId = null;
+        boolean recursive = false;
+        List<Bookmark> bookmarks = Collections.emptyList();
+        List<BookmarkId> ids = Collections.emptyList();
+        Map<String, String> set = Collections.emptyMap();
+        List<String> unset = Collections.emptyList();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+            case NAME_OPERATION -> operation = reader.nextString();
+            case NAME_ID -> id = new BookmarkId(reader.nextString());
+            case NAME_PARENT -> parentId = new BookmarkId(reader.nextString());
+            case NAME_AFTER -> afterId = new BookmarkId(reader.nextString());
+            case NAME_RECURSIVE -> recursive = reader.nextBoolean();
+            case NAME_BOOKMARKS -> bookmarks = readBookmarks(reader);
+            case NAME_IDS -> ids = readBookmarkIds(reader);
+            case NAME_SET -> set = readProperties(reader);
+            case NAME_UNSET -> unset = readStrings(reader);
+            default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (reader.peek() != JsonToken.END_DOCUMENT) {
+            throw new IOException("Invalid journal record");
+        }
+        if (operation == null || (id == null && parentId == null)) {
+            throw new IOException("Invalid journal record");
+        }
+        switch (operation) {
+        case OPERATION_ADDED:
+            return bookmarksTree.addBookmarksAfter(parentId, afterId, bookmarks);
+        case OPERATION_DELETED:
+            return bookmarksTree.deleteBookmark(id, recursive);
+        case OPERATION_MOVED:
+            return bookmarksTree.moveAfter(ids, parentId, afterId);
+        case OPERATION_PROPERTIES:
+            Bookmark bookmark = bookmarksTree.getBookmark(id);
+            if (bookmark == null) {
+                throw new IOException("No bookmark with id " + id);
+            }
+            Map<String, String> properties = new HashMap<>(bookmark.getProperties());
+            properties.putAll(set);
+            unset.forEach(properties::remove);
+            return bookmarksTree.setProperties(id, properties);
+        default:
+            throw new IOException("Unknown journal operation : " + operation);
+        }
+    }
+
+    private List<Bookmark> readBookmarks(JsonReader reader) throws IOException {
+        List<Bookmark> bookmarks = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            BookmarkId id = null;
+            boolean isFolder = false;
+            Map<String, String> properties = Collections.emptyMap();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                switch (name) {
+                case NAME_ID -> id = new BookmarkId(reader.nextString());
+                case NAME_FOLDER -> isFolder = reader.nextBoolean();
+                case NAME_PROPERTIES -> properties = readProperties(reader);
+                default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (id == null) {
+                throw new IOException("Invalid journal record");
+            }
+            bookmarks.add(isFolder ? new BookmarkFolder(id, properties) : new Bookmark(id, properties));
+        }
+        reader.endArray();
+        return bookmarks;
+    }
+
+    private List<BookmarkId> readBookmarkIds(JsonReader reader) throws IOException {
+        List<BookmarkId> ids = new ArrayList<>();
+        for (String id : readStrings(reader)) {
+            ids.add(new BookmarkId(id));
+        }
+        return ids;
+    }
+
+    private List<String> readStrings(JsonReader reader) throws IOException {
+        List<String> strings = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            strings.add(reader.nextString());
+        }
+        reader.endArray();
+        return strings;
+    }
+
+    private Map<String, String> readProperties(JsonReader reader) throws IOException {
+        Map<String, String> properties = new TreeMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            properties.put(reader.nextName(), reader.nextString());
+        }
+        reader.endObject();
+        return properties;
+    }
+
+}
@@ -0,0 +1,69 @@
+package mesfavoris.internal.persistence;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import mesfavoris.persistence.BookmarksTreeFormat;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Store the {@link BookmarksTreeFormat} used to save bookmarks in each store.
+ * <p>
+ * Stores are identified by the id of their remote bookmarks store descriptor,
+ * or by {@link #LOCAL_STORE_ID} for the local bookmarks file. Stores without a
+ * format use {@link BookmarksTreeFormat#JSON}. The format is read each time
+ * bookmarks are saved, and bookmarks are loaded whatever their format.
+ * </p>
+ */
+@Service(Service.Level.PROJECT)
+@State(name = "BookmarksTreeFormats", storages = @Storage("mesfavoris.xml"))
+public final class BookmarksTreeFormatsStore implements PersistentStateComponent<BookmarksTreeFormatsStore.State> {
+    public static final String LOCAL_STORE_ID = "local";
+    private static final BookmarksTreeFormat DEFAULT_FORMAT = BookmarksTreeFormat.JSON;
+
+    // replaced, never modified : the format is read from the threads saving bookmarks
+    private volatile State state = new State();
+
+    public static class State {
+        public Map<String, String> formats = new HashMap<>();
+    }
+
+    @Override
+    public @NotNull State getState() {
+        return state;
+    }
+
+    @Override
+    public void loadState(@NotNull State state) {
+        this.state = state;
+    }
+
+    @NotNull
+    public BookmarksTreeFormat getFormat(@NotNull String storeId) {
+        String format = state.formats.get(storeId);
+        if (format == null) {
+            return DEFAULT_FORMAT;
+        }
+        try {
+            return BookmarksTreeFormat.valueOf(format);
+        } catch (IllegalArgumentException e) {
+            return DEFAULT_FORMAT;
+        }
+    }
+
+    public void setFormat(@NotNull String storeId, @NotNull BookmarksTreeFormat format) {
+        State newState = new State();
+        newState.formats = new HashMap<>(state.formats);
+        if (format == DEFAULT_FORMAT) {
+            newState.formats.remove(storeId);
+        } else {
+            newState.formats.put(storeId, format.name());
+        }
+        this.state = newState;
+    }
+
+}
@@ -4,24 +4,117 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import mesfavoris.model.BookmarksTree;
+import mesfavoris.model.modification.BookmarksBatchModification;
+import mesfavoris.model.modification.BookmarksModification;
 import mesfavoris.persistence.IBookmarksTreeSerializer;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
+/**
+ * Save the bookmarks tree to a local file.
+ * <p>
+ * Bookmarks are first written to a temporary file that then atomically
+ * replaces the bookmarks file, so that a crash during a save cannot leave a
+ * truncated file.
+ * </p>
+ * <p>
+ * When a {@link BookmarksJournal} is given, modifications are appended to the
+ * journal instead of rewriting the whole file. The journal is periodically
+ * compacted into the bookmarks file.
+ * </p>
+ */
 public class LocalBookmarksSaver {
     private static final Logger LOG = Logger.getInstance(LocalBookmarksSaver.class);
+    private static final int MAX_JOURNAL_RECORDS = 1000;
     private final File file;
-    private final IBookmarksTreeSerializer bookmarksSerializer;
+    private final Supplier<IBookmarksTreeSerializer> bookmarksSerializerSupplier;
+    private final BookmarksJournal bookmarksJournal;
+    private volatile BookmarksTree lastSavedBookmarksTree;
 
     public LocalBookmarksSaver(@NotNull File file, @NotNull IBookmarksTreeSerializer bookmarksSerializer) {
+        this(file, bookmarksSerializer, null);
+    }
+
+    public LocalBookmarksSaver(@NotNull File file, @NotNull IBookmarksTreeSerializer bookmarksSerializer,
+                               BookmarksJournal bookmarksJournal) {
+        this(file, () -> bookmarksSerializer, bookmarksJournal);
+    }
+
+    /**
+     * @param bookmarksSerializerSupplier
+     *            supplies the serializer each time the whole bookmarks file is
+     *            written, so that a change of format applies to the next save
+     */
+    public LocalBookmarksSaver(@NotNull File file, @NotNull Supplier<IBookmarksTreeSerializer> bookmarksSerializerSupplier,
+                               BookmarksJournal bookmarksJournal) {
         this.file = file;
-        this.bookmarksSerializer = bookmarksSerializer;
+        this.bookmarksSerializerSupplier = bookmarksSerializerSupplier;
+        this.bookmarksJournal = bookmarksJournal;
+    }
+
+    /**
+     * Save the given modifications. They are appended to the journal if
+     * possible, otherwise the whole tree is saved.
+     *
+     * @param modifications
+     */
+    public void saveModifications(List<BookmarksModification> modifications) {
+        if (modifications.isEmpty()) {
+            return;
+        }
+        BookmarksTree bookmarksTree = modifications.getLast().getTargetTree();
+        if (bookmarksTree == lastSavedBookmarksTree) {
+            return;
+        }
+        if (bookmarksJournal == null || lastSavedBookmarksTree == null
+                || modifications.getFirst().getSourceTree() != lastSavedBookmarksTree
+                || bookmarksJournal.getRecordsCount()
+                        + BookmarksBatchModification.expand(modifications).size() > MAX_JOURNAL_RECORDS) {
+            // the journal cannot be used or needs to be compacted
+            saveBookmarks(bookmarksTree);
+            return;
+        }
+        try {
+            bookmarksJournal.append(modifications);
+            lastSavedBookmarksTree = bookmarksTree;
+        } catch (IOException e) {
+            LOG.warn("Failed to append bookmarks modifications to journal", e);
+            saveBookmarks(bookmarksTree);
+        }
+    }
+
+    /**
+     * Fold the journal into the bookmarks file
+     *
+     * @param bookmarksTree
+     *            the current bookmarks tree
+     */
+    public void compact(BookmarksTree bookmarksTree) {
+        if (bookmarksJournal != null && bookmarksJournal.getRecordsCount() > 0) {
+            lastSavedBookmarksTree = null;
+        }
+        saveBookmarks(bookmarksTree);
     }
 
     public void saveBookmarks(BookmarksTree bookmarksTree) {
+        // BookmarksTree is persistent : an unmodified tree is the same instance
+        if (bookmarksTree == lastSavedBookmarksTree) {
+            return;
+        }
         try {
             // Create parent directories if they don't exist
             File parentDir = file.getParentFile();
@@ -32,18 +125,47 @@ public class LocalBookmarksSaver {
                 }
             }
 
-            try (FileWriter writer = new FileWriter(file)) {
-                bookmarksSerializer.serialize(bookmarksTree,
-                        bookmarksTree.getRootFolder().getId(), writer);
-
-                // Reload the file in any open editors
-                refreshFile();
+            Path path = file.toPath();
+            Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+            long checksum;
+            try {
+                checksum = writeBookmarks(bookmarksTree, tempPath);
+                replaceFile(tempPath, path);
+            } finally {
+                Files.deleteIfExists(tempPath);
             }
+            if (bookmarksJournal != null) {
+                bookmarksJournal.reset(checksum);
+            }
+            lastSavedBookmarksTree = bookmarksTree;
+
+            // Reload the file in any open editors
+            refreshFile();
         } catch (IOException e) {
             LOG.error("Failed to save bookmarks", e);
         }
     }
 
+    private long writeBookmarks(BookmarksTree bookmarksTree, Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream outputStream = new CheckedOutputStream(Channels.newOutputStream(channel), crc);
+            IBookmarksTreeSerializer bookmarksSerializer = bookmarksSerializerSupplier.get();
+            bookmarksSerializer.serialize(bookmarksTree, bookmarksTree.getRootFolder().getId(), outputStream);
+            channel.force(false);
+        }
+        return crc.getValue();
+    }
+
+    private void replaceFile(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     private void refreshFile() {
         VirtualFile virtualFile = LocalFileSystem.getInstance().findFileByIoFile(file);
         if (virtualFile != null) {
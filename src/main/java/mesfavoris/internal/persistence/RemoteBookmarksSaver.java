@@ -100,7 +100,7 @@ public class RemoteBookmarksSaver {
     private Map<RemoteBookmarkFolder, List<BookmarksModification>> getRemoteBookmarkFolders(
             List<BookmarksModification> modifications) {
 		Map<RemoteBookmarkFolder, List<BookmarksModification>> result = new HashMap<>();
-		for (BookmarksModification event : modifications) {
+		for (BookmarksModification event : BookmarksBatchModification.expand(modifications)) {
 			if (event instanceof BookmarkDeletedModification) {
 				BookmarkDeletedModification modification = (BookmarkDeletedModification) event;
 				Optional<RemoteBookmarkFolder> remoteBookmarkFolder = remoteBookmarksStoreManager
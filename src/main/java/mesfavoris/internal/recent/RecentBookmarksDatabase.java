@@ -6,6 +6,7 @@ import com.intellij.openapi.project.Project;
 import mesfavoris.model.*;
 import mesfavoris.model.modification.BookmarkDeletedModification;
 import mesfavoris.model.modification.BookmarksAddedModification;
+import mesfavoris.model.modification.BookmarksBatchModification;
 import mesfavoris.model.modification.BookmarksModification;
 import mesfavoris.recent.IRecentBookmarksProvider;
 import org.jdom.Element;
@@ -143,7 +144,7 @@ public class RecentBookmarksDatabase implements IRecentBookmarksProvider, Persis
 	}
 
 	private List<BookmarkId> getDeletedBookmarks(List<BookmarksModification> modifications) {
-		return modifications.stream()
+		return BookmarksBatchModification.expand(modifications).stream()
 				.filter(modification -> modification instanceof BookmarkDeletedModification)
 				.map(modification -> (BookmarkDeletedModification) modification)
 				.flatMap(modification -> StreamSupport.stream(modification.getDeletedBookmarks().spliterator(), false))
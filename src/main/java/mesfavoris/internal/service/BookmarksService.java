@@ -20,6 +20,8 @@ import mesfavoris.internal.bookmarktypes.extension.*;
 import mesfavoris.internal.markers.BookmarksMarkers;
 import mesfavoris.internal.markers.BookmarksMarkersStore;
 import mesfavoris.internal.persistence.BookmarksAutoSaver;
+import mesfavoris.internal.persistence.BookmarksJournal;
+import mesfavoris.internal.persistence.BookmarksTreeFormatsStore;
 import mesfavoris.internal.persistence.LocalBookmarksSaver;
 import mesfavoris.internal.persistence.RemoteBookmarksSaver;
 import mesfavoris.internal.problems.NoBookmarkProblems;
@@ -38,9 +40,8 @@ import mesfavoris.model.BookmarkDatabase;
 import mesfavoris.model.BookmarkId;
 import mesfavoris.model.BookmarksTree;
 import mesfavoris.model.modification.IBookmarksModificationValidator;
+import mesfavoris.persistence.FormatDetectingBookmarksTreeDeserializer;
 import mesfavoris.persistence.IBookmarksDirtyStateTracker;
-import mesfavoris.persistence.json.BookmarksTreeJsonDeserializer;
-import mesfavoris.persistence.json.BookmarksTreeJsonSerializer;
 import mesfavoris.recent.IRecentBookmarksProvider;
 import mesfavoris.remote.IRemoteBookmarksStore;
 import mesfavoris.remote.RemoteBookmarkFolder;
@@ -94,7 +95,9 @@ public final class BookmarksService implements IBookmarksService, Disposable, Pe
     private void init() throws IOException {
         this.remoteBookmarksStoreManager = project.getService(RemoteBookmarksStoreManager.class);
         IBookmarksModificationValidator bookmarksModificationValidator = new BookmarksModificationValidator(remoteBookmarksStoreManager);
-        this.bookmarkDatabase = loadBookmarkDatabase(bookmarksModificationValidator);
+        BookmarksJournal bookmarksJournal = new BookmarksJournal(getBookmarksJournalPath(project).toFile());
+        this.bookmarkDatabase = loadBookmarkDatabase(bookmarksModificationValidator, bookmarksJournal);
+        bookmarkDatabase.addListener(remoteBookmarksStoreManager);
         this.bookmarkLabelProvider = new ExtensionBookmarkLabelProvider();
         this.bookmarkLocationProvider = new ExtensionBookmarkLocationProvider();
         this.gotoBookmark = new ExtensionGotoBookmark();
@@ -109,8 +112,10 @@ public final class BookmarksService implements IBookmarksService, Disposable, Pe
 
         Disposer.register(this, bookmarksMarkers);
 
+        BookmarksTreeFormatsStore bookmarksTreeFormatsStore = project.getService(BookmarksTreeFormatsStore.class);
         LocalBookmarksSaver localBookmarksSaver = new LocalBookmarksSaver(getBookmarksFilePath(project).toFile(),
-                new BookmarksTreeJsonSerializer(true));
+                () -> bookmarksTreeFormatsStore.getFormat(BookmarksTreeFormatsStore.LOCAL_STORE_ID).createSerializer(),
+                bookmarksJournal);
         RemoteBookmarksSaver remoteBookmarksSaver = new RemoteBookmarksSaver(remoteBookmarksStoreManager);
         bookmarksSaver = new BookmarksAutoSaver(project, bookmarkDatabase, localBookmarksSaver, remoteBookmarksSaver);
         Disposer.register(this, bookmarksSaver);
@@ -146,13 +151,18 @@ public final class BookmarksService implements IBookmarksService, Disposable, Pe
         return projectConfigDir.resolve("bookmarks.json");
     }
 
-    private BookmarkDatabase loadBookmarkDatabase(IBookmarksModificationValidator bookmarksModificationValidator) throws IOException {
+    private Path getBookmarksJournalPath(Project project) throws IOException {
+        return getBookmarksFilePath(project).resolveSibling("bookmarks.journal");
+    }
+
+    private BookmarkDatabase loadBookmarkDatabase(IBookmarksModificationValidator bookmarksModificationValidator,
+                                                  BookmarksJournal bookmarksJournal) throws IOException {
         File bookmarksFile = getBookmarksFilePath(project).toFile();
         BookmarksWorkspaceFactory bookmarksWorkspaceFactory = new BookmarksWorkspaceFactory(
-                new BookmarksTreeJsonDeserializer(), bookmarksModificationValidator);
+                new FormatDetectingBookmarksTreeDeserializer(), bookmarksModificationValidator);
         if (bookmarksFile.exists()) {
             try {
-                return bookmarksWorkspaceFactory.load(bookmarksFile);
+                return bookmarksWorkspaceFactory.load(bookmarksFile, bookmarksJournal);
             } catch (FileNotFoundException e) {
                 return bookmarksWorkspaceFactory.create();
             }
@@ -257,6 +267,12 @@ public final class BookmarksService implements IBookmarksService, Disposable, Pe
         setBookmarkProperties(bookmarkId, merged);
     }
 
+    @Override
+    public void modifyBookmarks(List<BookmarkId> bookmarkIds, Map<String, String> changedProperties) throws BookmarksException {
+        SetBookmarkPropertiesOperation operation = new SetBookmarkPropertiesOperation(bookmarkDatabase);
+        operation.mergeProperties(bookmarkIds, changedProperties);
+    }
+
     public void copyToClipboard(List<BookmarkId> selection) {
         CopyBookmarkOperation operation = new CopyBookmarkOperation();
         operation.copyToClipboard(bookmarkDatabase.getBookmarksTree(), selection);
@@ -353,6 +369,9 @@ public final class BookmarksService implements IBookmarksService, Disposable, Pe
 
     @Override
     public void dispose() {
+        if (bookmarkDatabase != null) {
+            bookmarkDatabase.removeListener(remoteBookmarksStoreManager);
+        }
         if (recentBookmarksDatabase != null) {
             recentBookmarksDatabase.close();
         }
@@ -2,8 +2,8 @@ package mesfavoris.internal.service.operations;
 
 import mesfavoris.BookmarksException;
 import mesfavoris.model.BookmarkDatabase;
-import mesfavoris.model.BookmarkFolder;
 import mesfavoris.model.BookmarkId;
+import mesfavoris.model.BookmarksTree;
 
 import java.util.List;
 
@@ -16,13 +16,13 @@ public class DeleteBookmarksOperation {
 
 	public void deleteBookmarks(final List<BookmarkId> selection, boolean recurse) throws BookmarksException {
 		bookmarkDatabase.modify(bookmarksTreeModifier -> {
-			for (BookmarkId bookmarkId : selection) {
-				BookmarkFolder bookmarkFolder = bookmarksTreeModifier.getCurrentTree().getParentBookmark(bookmarkId);
-				if (bookmarkFolder == null) {
-					return;
-				}
-				bookmarksTreeModifier.deleteBookmark(bookmarkId, recurse);
-			}
+			BookmarksTree bookmarksTree = bookmarksTreeModifier.getCurrentTree();
+			// the root folder cannot be deleted
+			List<BookmarkId> bookmarkIds = selection.stream()
+					.filter(bookmarkId -> bookmarksTree.getBookmark(bookmarkId) != null
+							&& bookmarksTree.getParentBookmark(bookmarkId) != null)
+					.toList();
+			bookmarksTreeModifier.deleteBookmarks(bookmarkIds, recurse);
 		});
 	}
 
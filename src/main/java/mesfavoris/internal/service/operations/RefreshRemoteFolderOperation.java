@@ -1,14 +1,18 @@
 package mesfavoris.internal.service.operations;
 
+import com.intellij.ide.util.DelegatingProgressIndicator;
 import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import mesfavoris.BookmarksException;
-import mesfavoris.commons.SubProgressIndicator;
 import mesfavoris.internal.model.merge.BookmarksTreeMerger;
 import mesfavoris.model.BookmarkDatabase;
 import mesfavoris.model.BookmarkId;
+import mesfavoris.model.BookmarksTree;
 import mesfavoris.model.LockMode;
 import mesfavoris.model.OptimisticLockException;
+import mesfavoris.model.modification.BookmarksTreeModifier;
+import mesfavoris.model.modification.IBookmarksTreeModifier;
 import mesfavoris.persistence.IBookmarksDirtyStateTracker;
 import mesfavoris.remote.IRemoteBookmarksStore;
 import mesfavoris.remote.IRemoteBookmarksStore.State;
@@ -18,9 +22,15 @@ import mesfavoris.remote.RemoteBookmarksTree;
 
 import java.io.IOException;
 import java.io.Serial;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Set;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Refresh remote folders in the bookmark database. Load remote bookmarks from
@@ -30,6 +40,9 @@ import java.util.Set;
  *
  */
 public class RefreshRemoteFolderOperation {
+	private static final int MAX_PARALLEL_LOADS_PER_STORE = 4;
+	private static final long INITIAL_RETRY_DELAY_MS = 200;
+	private static final long MAX_RETRY_DELAY_MS = 5000;
 	private final BookmarkDatabase bookmarkDatabase;
 	private final RemoteBookmarksStoreManager remoteBookmarksStoreManager;
 	private final IBookmarksDirtyStateTracker bookmarksDirtyStateTracker;
@@ -44,111 +57,211 @@ public class RefreshRemoteFolderOperation {
 
 	public void refresh(ProgressIndicator monitor) throws BookmarksException {
 		Collection<IRemoteBookmarksStore> stores = remoteBookmarksStoreManager.getRemoteBookmarksStores();
-		List<String> storeIds = stores.stream().filter(store -> store.getState() == State.connected)
-				.map(store -> store.getDescriptor().id()).toList();
+		List<IRemoteBookmarksStore> connectedStores = stores.stream()
+				.filter(store -> store.getState() == State.connected).toList();
 		monitor.setText("Loading bookmark folders from all stores");
-		monitor.setIndeterminate(false);
-		monitor.setFraction(0.0);
-
-		Exception exception = null;
-		double progressPerStore = storeIds.isEmpty() ? 0.0 : 1.0 / storeIds.size();
-		int storeIndex = 0;
-
-		for (String storeId : storeIds) {
-			try {
-				double baseFraction = storeIndex * progressPerStore;
-				monitor.setFraction(baseFraction);
-				try (SubProgressIndicator subMonitor = new SubProgressIndicator(monitor, progressPerStore)) {
-					refresh(storeId, subMonitor);
-				}
-			} catch (ProcessCanceledException e) {
-				throw e;
-			} catch (Exception e) {
-				exception = e;
-			}
-			storeIndex++;
-		}
-		monitor.setFraction(1.0);
-
-		if (exception != null) {
-			if (exception instanceof BookmarksException) {
-				throw (BookmarksException) exception;
-			} else {
-				throw (RuntimeException) exception;
-			}
-		}
+		refresh(connectedStores, monitor);
 	}
 
 	public void refresh(String storeId, ProgressIndicator monitor) throws BookmarksException {
 		IRemoteBookmarksStore store = remoteBookmarksStoreManager.getRemoteBookmarksStore(storeId)
 				.orElseThrow(() -> new BookmarksException("Remote bookmarks store not found"));
-		Set<RemoteBookmarkFolder> remoteBookmarkFolders = store.getRemoteBookmarkFolders();
 		monitor.setText("Loading bookmark folders from " + store.getDescriptor().label());
-		monitor.setIndeterminate(false);
-		monitor.setFraction(0.0);
+		refresh(List.of(store), monitor);
+	}
 
-		Exception exception = null;
-		double progressPerFolder = remoteBookmarkFolders.isEmpty() ? 0.0 : 1.0 / remoteBookmarkFolders.size();
-		int folderIndex = 0;
+	public void refresh(BookmarkId bookmarkFolderId, ProgressIndicator monitor) throws BookmarksException {
+		IRemoteBookmarksStore store = remoteBookmarksStoreManager.getRemoteBookmarkFolder(bookmarkFolderId)
+				.flatMap(remoteBookmarkFolder -> remoteBookmarksStoreManager.getRemoteBookmarksStore(remoteBookmarkFolder.getRemoteBookmarkStoreId()))
+				.orElseThrow(() -> new BookmarksException("Not a remote bookmark folder"));
+		RemoteBookmarksTree remoteBookmarksTree;
+		try {
+			// load once : the merge is retried, loading again only if the
+			// remote folder has been modified
+			remoteBookmarksTree = store.load(bookmarkFolderId, monitor);
+		} catch (IOException e) {
+			throw new BookmarksException("Could not load remote bookmark folder", e);
+		}
+		merge(List.of(remoteBookmarksTree), monitor);
+	}
 
-		for (RemoteBookmarkFolder bookmarkFolder : remoteBookmarkFolders) {
-			try {
-				double baseFraction = folderIndex * progressPerFolder;
-				monitor.setFraction(baseFraction);
-				try (SubProgressIndicator subMonitor = new SubProgressIndicator(monitor, progressPerFolder)) {
-					refresh(bookmarkFolder.getBookmarkFolderId(), subMonitor);
+	/**
+	 * Load all the remote bookmark folders of the given stores concurrently
+	 * then merge them in the bookmark database at once
+	 */
+	private void refresh(List<IRemoteBookmarksStore> stores, ProgressIndicator monitor) throws BookmarksException {
+		monitor.setIndeterminate(false);
+		monitor.setFraction(0.0);
+		List<ExecutorService> executors = new ArrayList<>();
+		List<Future<RemoteBookmarksTree>> futures = new ArrayList<>();
+		try {
+			for (IRemoteBookmarksStore store : stores) {
+				// bounded parallelism per store : we don't want to be throttled
+				ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+						"Refresh " + store.getDescriptor().id(), MAX_PARALLEL_LOADS_PER_STORE);
+				executors.add(executor);
+				for (RemoteBookmarkFolder remoteBookmarkFolder : store.getRemoteBookmarkFolders()) {
+					futures.add(executor.submit(() -> store.load(remoteBookmarkFolder.getBookmarkFolderId(),
+							new CancellableProgressIndicator(monitor))));
+				}
+			}
+			List<RemoteBookmarksTree> remoteBookmarksTrees = new ArrayList<>();
+			Exception exception = null;
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					remoteBookmarksTrees.add(waitFor(futures.get(i), monitor));
+				} catch (ProcessCanceledException e) {
+					throw e;
+				} catch (Exception e) {
+					exception = e;
+				}
+				monitor.setFraction((double) (i + 1) / (futures.size() + 1));
+			}
+			merge(remoteBookmarksTrees, monitor);
+			monitor.setFraction(1.0);
+			if (exception != null) {
+				if (exception instanceof BookmarksException) {
+					throw (BookmarksException) exception;
+				} else {
+					throw (RuntimeException) exception;
 				}
-			} catch (ProcessCanceledException e) {
-				throw e;
-			} catch (Exception e) {
-				exception = e;
 			}
-			folderIndex++;
+		} finally {
+			futures.forEach(future -> future.cancel(true));
+			executors.forEach(ExecutorService::shutdownNow);
 		}
-		monitor.setFraction(1.0);
+	}
 
-		if (exception != null) {
-			if (exception instanceof BookmarksException) {
-				throw (BookmarksException) exception;
-			} else {
-				throw (RuntimeException) exception;
+	private RemoteBookmarksTree waitFor(Future<RemoteBookmarksTree> future, ProgressIndicator monitor)
+			throws BookmarksException {
+		while (true) {
+			if (monitor.isCanceled()) {
+				throw new ProcessCanceledException();
+			}
+			try {
+				return future.get(100, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// check cancellation and wait again
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new BookmarksException("Could not load remote bookmark folder", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof ProcessCanceledException processCanceledException) {
+					throw processCanceledException;
+				}
+				if (e.getCause() instanceof RuntimeException runtimeException) {
+					throw runtimeException;
+				}
+				throw new BookmarksException("Could not load remote bookmark folder", e.getCause());
 			}
 		}
 	}
 
-	public void refresh(BookmarkId bookmarkFolderId, ProgressIndicator monitor) throws BookmarksException {
-		IRemoteBookmarksStore store = remoteBookmarksStoreManager.getRemoteBookmarkFolder(bookmarkFolderId)
-				.flatMap(remoteBookmarkFolder -> remoteBookmarksStoreManager.getRemoteBookmarksStore(remoteBookmarkFolder.getRemoteBookmarkStoreId()))
-				.orElseThrow(() -> new BookmarksException("Not a remote bookmark folder"));
-		do {
+	/**
+	 * Replace existing bookmark folders with the remote ones, in a single
+	 * modification of the bookmark database.
+	 * <p>
+	 * If the bookmark database is dirty or has been modified concurrently, the
+	 * merge is retried with an exponential backoff until there is nothing left
+	 * to merge. Local modifications can be saved to the remote stores in the
+	 * meantime : before each retry, remote bookmark folders whose etag is no
+	 * longer the last known one are loaded again, so that an old version does
+	 * not revert them.
+	 * </p>
+	 */
+	private void merge(List<RemoteBookmarksTree> remoteBookmarksTrees, ProgressIndicator monitor)
+			throws BookmarksException {
+		long retryDelay = INITIAL_RETRY_DELAY_MS;
+		while (hasChanges(bookmarkDatabase.getBookmarksTree(), remoteBookmarksTrees)) {
 			try {
+				List<RemoteBookmarksTree> mergedRemoteBookmarksTrees = remoteBookmarksTrees;
 				bookmarkDatabase.modify(LockMode.OPTIMISTIC, (bookmarksTreeModifier) -> {
 					if (bookmarksDirtyStateTracker.isDirty()) {
 						throw new DirtyBookmarksDatabaseException();
 					}
-					try {
-						RemoteBookmarksTree remoteBookmarksTree = store.load(bookmarkFolderId, monitor);
-						// replace existing bookmark folder with remote one
-						BookmarksTreeMerger bookmarksTreeMerger = new BookmarksTreeMerger(
-								remoteBookmarksTree.getBookmarksTree());
-						bookmarksTreeMerger.merge(bookmarksTreeModifier);
-					} catch (IOException e) {
-						throw new BookmarksException("Could not load remote bookmark folder", e);
-					}
+					merge(mergedRemoteBookmarksTrees, bookmarksTreeModifier);
 				}, /* validateModifications */ false);
 				return;
 			} catch (OptimisticLockException | DirtyBookmarksDatabaseException e) {
 				try {
 					// sleep and retry later
-					Thread.sleep(200);
+					Thread.sleep(retryDelay);
 				} catch (InterruptedException e1) {
 					throw new BookmarksException("Could not load remote bookmark folder", e1);
 				}
+				retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MS);
 				if (monitor.isCanceled()) {
 					throw new ProcessCanceledException();
 				}
+				remoteBookmarksTrees = reloadModified(remoteBookmarksTrees, monitor);
 			}
-		} while (true);
+		}
+	}
+
+	/**
+	 * Load again the remote bookmark folders that have been saved or loaded
+	 * with another etag since they were loaded
+	 */
+	private List<RemoteBookmarksTree> reloadModified(List<RemoteBookmarksTree> remoteBookmarksTrees,
+			ProgressIndicator monitor) throws BookmarksException {
+		List<RemoteBookmarksTree> result = new ArrayList<>(remoteBookmarksTrees.size());
+		for (RemoteBookmarksTree remoteBookmarksTree : remoteBookmarksTrees) {
+			IRemoteBookmarksStore store = remoteBookmarksTree.getRemoteBookmarksStore();
+			BookmarkId bookmarkFolderId = remoteBookmarksTree.getBookmarksTree().getRootFolder().getId();
+			Optional<String> lastKnownEtag = store.getLastKnownEtag(bookmarkFolderId);
+			if (lastKnownEtag.isPresent() && lastKnownEtag.get().equals(remoteBookmarksTree.getEtag())) {
+				result.add(remoteBookmarksTree);
+			} else {
+				try {
+					result.add(store.load(bookmarkFolderId, new CancellableProgressIndicator(monitor)));
+				} catch (IOException e) {
+					throw new BookmarksException("Could not load remote bookmark folder", e);
+				}
+			}
+		}
+		return result;
+	}
+
+	private void merge(List<RemoteBookmarksTree> remoteBookmarksTrees,
+			IBookmarksTreeModifier bookmarksTreeModifier) {
+		for (RemoteBookmarksTree remoteBookmarksTree : remoteBookmarksTrees) {
+			BookmarksTreeMerger bookmarksTreeMerger = new BookmarksTreeMerger(remoteBookmarksTree.getBookmarksTree());
+			bookmarksTreeMerger.merge(bookmarksTreeModifier);
+		}
+	}
+
+	private boolean hasChanges(BookmarksTree bookmarksTree, List<RemoteBookmarksTree> remoteBookmarksTrees) {
+		BookmarksTreeModifier bookmarksTreeModifier = new BookmarksTreeModifier(bookmarksTree);
+		merge(remoteBookmarksTrees, bookmarksTreeModifier);
+		return !bookmarksTreeModifier.getModifications().isEmpty();
+	}
+
+	/**
+	 * Progress indicator given to concurrent loads : cancellation is forwarded
+	 * but text and fraction changes are ignored
+	 */
+	private static class CancellableProgressIndicator extends DelegatingProgressIndicator {
+
+		public CancellableProgressIndicator(ProgressIndicator parent) {
+			super(parent);
+		}
+
+		@Override
+		public void setText(String text) {
+		}
+
+		@Override
+		public void setText2(String text) {
+		}
+
+		@Override
+		public void setFraction(double fraction) {
+		}
+
+		@Override
+		public void setIndeterminate(boolean indeterminate) {
+		}
+
 	}
 
 	private static class DirtyBookmarksDatabaseException extends BookmarksException {
@@ -1,9 +1,14 @@
 package mesfavoris.internal.service.operations;
 
 import mesfavoris.BookmarksException;
+import mesfavoris.model.Bookmark;
 import mesfavoris.model.BookmarkDatabase;
 import mesfavoris.model.BookmarkId;
+import mesfavoris.model.BookmarksTree;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class SetBookmarkPropertiesOperation {
@@ -16,4 +21,28 @@ public class SetBookmarkPropertiesOperation {
     public void setProperties(BookmarkId bookmarkId, Map<String,String> properties) throws BookmarksException {
         bookmarkDatabase.modify(bookmarksTreeModifier -> bookmarksTreeModifier.setProperties(bookmarkId, properties));
     }
+
+    public void setProperties(Map<BookmarkId, Map<String,String>> bookmarksProperties) throws BookmarksException {
+        bookmarkDatabase.modify(bookmarksTreeModifier -> bookmarksTreeModifier.setProperties(bookmarksProperties));
+    }
+
+    /**
+     * Merge the given properties into the existing properties of each bookmark, in a single modification
+     */
+    public void mergeProperties(List<BookmarkId> bookmarkIds, Map<String,String> changedProperties) throws BookmarksException {
+        bookmarkDatabase.modify(bookmarksTreeModifier -> {
+            BookmarksTree bookmarksTree = bookmarksTreeModifier.getCurrentTree();
+            Map<BookmarkId, Map<String, String>> bookmarksProperties = new LinkedHashMap<>();
+            for (BookmarkId bookmarkId : bookmarkIds) {
+                Bookmark bookmark = bookmarksTree.getBookmark(bookmarkId);
+                if (bookmark == null) {
+                    throw new BookmarksException("Bookmark not found: " + bookmarkId);
+                }
+                Map<String, String> merged = new HashMap<>(bookmark.getProperties());
+                merged.putAll(changedProperties);
+                bookmarksProperties.put(bookmarkId, merged);
+            }
+            bookmarksTreeModifier.setProperties(bookmarksProperties);
+        });
+    }
 }
@@ -36,6 +36,7 @@ public class MesFavorisConfigurable implements Configurable {
             "<li><b>Placeholders</b>: Define shortcuts for frequently used paths</li>" +
             "<li><b>Bookmark Types</b>: Enable or disable specific bookmark types</li>" +
             "<li><b>Google Drive</b>: Configure OAuth credentials for Google Drive integration</li>" +
+            "<li><b>Storage Formats</b>: Choose the format used to save bookmarks in each store</li>" +
             "</ul>" +
             "</body></html>");
         descriptionLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
@@ -0,0 +1,101 @@
+package mesfavoris.internal.settings.formats;
+
+import com.intellij.openapi.options.Configurable;
+import com.intellij.openapi.project.Project;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.util.ui.JBUI;
+import mesfavoris.internal.persistence.BookmarksTreeFormatsStore;
+import mesfavoris.persistence.BookmarksTreeFormat;
+import mesfavoris.remote.RemoteBookmarksStoreExtension;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configurable for the format used to save bookmarks in each store
+ */
+public class BookmarksTreeFormatsConfigurable implements Configurable {
+    private final BookmarksTreeFormatsStore store;
+    private final Map<String, JComboBox<BookmarksTreeFormat>> formatComboBoxes = new LinkedHashMap<>();
+    private JPanel panel;
+
+    public BookmarksTreeFormatsConfigurable(Project project) {
+        this.store = project.getService(BookmarksTreeFormatsStore.class);
+    }
+
+    @Nls(capitalization = Nls.Capitalization.Title)
+    @Override
+    public String getDisplayName() {
+        return "Storage Formats";
+    }
+
+    @Override
+    public @Nullable JComponent createComponent() {
+        if (panel == null) {
+            panel = createPanel();
+            reset();
+        }
+        return panel;
+    }
+
+    private JPanel createPanel() {
+        JPanel formatsPanel = new JPanel(new GridBagLayout());
+        GridBagConstraints c = new GridBagConstraints();
+        c.insets = JBUI.insets(4);
+        c.anchor = GridBagConstraints.WEST;
+        c.gridy = 0;
+        addFormatComboBox(formatsPanel, c, BookmarksTreeFormatsStore.LOCAL_STORE_ID, "Local bookmarks file");
+        for (RemoteBookmarksStoreExtension extension : RemoteBookmarksStoreExtension.EP_NAME.getExtensionList()) {
+            addFormatComboBox(formatsPanel, c, extension.getId(), extension.getLabel());
+        }
+
+        c.gridx = 0;
+        c.gridwidth = 2;
+        c.weightx = 1.0;
+        c.weighty = 1.0;
+        c.anchor = GridBagConstraints.NORTHWEST;
+        JBLabel helpLabel = new JBLabel("<html>The format is used the next time bookmarks are saved. "
+                + "Bookmarks are loaded whatever their format.<br>"
+                + "BINARY is smaller and faster to save and load, JSON can be read and edited.</html>");
+        formatsPanel.add(helpLabel, c);
+        return formatsPanel;
+    }
+
+    private void addFormatComboBox(JPanel formatsPanel, GridBagConstraints c, String storeId, String label) {
+        JComboBox<BookmarksTreeFormat> comboBox = new JComboBox<>(BookmarksTreeFormat.values());
+        formatComboBoxes.put(storeId, comboBox);
+        c.gridx = 0;
+        formatsPanel.add(new JBLabel(label + ":"), c);
+        c.gridx = 1;
+        formatsPanel.add(comboBox, c);
+        c.gridy++;
+    }
+
+    @Override
+    public boolean isModified() {
+        return formatComboBoxes.entrySet().stream()
+                .anyMatch(entry -> entry.getValue().getSelectedItem() != store.getFormat(entry.getKey()));
+    }
+
+    @Override
+    public void apply() {
+        formatComboBoxes.forEach((storeId, comboBox) -> store.setFormat(storeId,
+                (BookmarksTreeFormat) comboBox.getSelectedItem()));
+    }
+
+    @Override
+    public void reset() {
+        formatComboBoxes.forEach((storeId, comboBox) -> comboBox.setSelectedItem(store.getFormat(storeId)));
+    }
+
+    @Override
+    public void disposeUIResources() {
+        panel = null;
+        formatComboBoxes.clear();
+    }
+}
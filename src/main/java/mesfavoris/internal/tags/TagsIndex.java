@@ -11,6 +11,7 @@ import mesfavoris.model.BookmarkId;
 import mesfavoris.model.IBookmarksListener;
 import mesfavoris.model.modification.BookmarkDeletedModification;
 import mesfavoris.model.modification.BookmarkPropertiesModification;
+import mesfavoris.model.modification.BookmarksBatchModification;
 import mesfavoris.model.modification.BookmarksAddedModification;
 import mesfavoris.model.modification.BookmarksModification;
 import mesfavoris.service.IBookmarksService;
@@ -94,7 +95,7 @@ public final class TagsIndex implements IBookmarksListener, Disposable {
 			// events before the first read are captured by the initial build
 			return;
 		}
-		for (BookmarksModification modification : modifications) {
+		for (BookmarksModification modification : BookmarksBatchModification.expand(modifications)) {
 			if (modification instanceof BookmarkPropertiesModification propertiesModification) {
 				if (touchesTags(propertiesModification)) {
 					Bookmark bookmark = propertiesModification.getTargetTree().getBookmark(propertiesModification.getBookmarkId());
@@ -22,7 +22,7 @@ public class BookmarksTreeModel extends BaseTreeModel<BookmarkTreeNode> {
     private final Map<BookmarkId, BookmarkTreeNode> nodeCache = new ConcurrentHashMap<>();
 
     private final IBookmarksListener bookmarksListener = modifications -> ApplicationManager.getApplication().invokeLater(() -> {
-        for (BookmarksModification modification : modifications) {
+        for (BookmarksModification modification : BookmarksBatchModification.expand(modifications)) {
             if (modification instanceof BookmarksAddedModification bookmarksAddedModification) {
                 handleBookmarksAdded(bookmarksAddedModification);
             }
@@ -23,6 +23,15 @@ public class BookmarksModificationValidator implements IBookmarksModificationVal
 
 	@Override
 	public Status validateModification(BookmarksModification bookmarksModification) {
+		Status status = validate(bookmarksModification);
+		if (status.isOk()) {
+			// the next modification applies to the target tree of this one
+			remoteBookmarksStoreManager.indexModification(bookmarksModification);
+		}
+		return status;
+	}
+
+	private Status validate(BookmarksModification bookmarksModification) {
 		if (bookmarksModification instanceof BookmarkDeletedModification) {
 			return validate((BookmarkDeletedModification) bookmarksModification);
 		}
@@ -35,6 +44,9 @@ public class BookmarksModificationValidator implements IBookmarksModificationVal
 		if (bookmarksModification instanceof BookmarksMovedModification) {
 			return validate((BookmarksMovedModification) bookmarksModification);
 		}
+		if (bookmarksModification instanceof BookmarksBatchModification) {
+			return validate((BookmarksBatchModification) bookmarksModification);
+		}
 		return errorStatus("Unknown bookmarks modification");
 	}
 
@@ -53,6 +65,17 @@ public class BookmarksModificationValidator implements IBookmarksModificationVal
 				bookmarkPropertiesModification.getBookmarkId());
 	}
 
+	private Status validate(BookmarksBatchModification bookmarksBatchModification) {
+		// modifications of the batch share its trees : the index is only derived for the whole batch
+		for (BookmarksModification modification : bookmarksBatchModification.getModifications()) {
+			Status status = validate(modification);
+			if (!status.isOk()) {
+				return status;
+			}
+		}
+		return Status.OK_STATUS;
+	}
+
 	private Status validate(BookmarksMovedModification bookmarksMovedModification) {
 		Status status = validateModification(bookmarksMovedModification.getSourceTree(),
 				bookmarksMovedModification.getNewParentId());
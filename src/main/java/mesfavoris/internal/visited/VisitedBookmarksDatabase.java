@@ -6,6 +6,7 @@ import com.intellij.openapi.project.Project;
 import com.intellij.util.messages.MessageBusConnection;
 import mesfavoris.model.*;
 import mesfavoris.model.modification.BookmarkDeletedModification;
+import mesfavoris.model.modification.BookmarksBatchModification;
 import mesfavoris.model.modification.BookmarksModification;
 import mesfavoris.topics.BookmarksActivityListener;
 import org.jdom.Element;
@@ -35,7 +36,8 @@ public class VisitedBookmarksDatabase implements PersistentStateComponent<Elemen
 	public VisitedBookmarksDatabase(Project project, BookmarkDatabase bookmarkDatabase) {
 		this.project = project;
 		this.bookmarkDatabase = bookmarkDatabase;
-		bookmarksListener = modifications -> bookmarksDeleted(filterBookmarksDeleteModifications(modifications.stream())
+		bookmarksListener = modifications -> bookmarksDeleted(filterBookmarksDeleteModifications(
+				BookmarksBatchModification.expand(modifications).stream())
 				.flatMap(modification -> StreamSupport.stream(modification.getDeletedBookmarks().spliterator(), false))
 				.map(Bookmark::getId).collect(Collectors.toList()));
 		messageBusConnection = project.getMessageBus().connect();
@@ -1,6 +1,7 @@
 package mesfavoris.internal.workspace;
 
 import com.google.common.collect.Lists;
+import mesfavoris.internal.persistence.BookmarksJournal;
 import mesfavoris.model.BookmarkDatabase;
 import mesfavoris.model.BookmarkFolder;
 import mesfavoris.model.BookmarkId;
@@ -9,9 +10,10 @@ import mesfavoris.model.modification.IBookmarksModificationValidator;
 import mesfavoris.persistence.IBookmarksTreeDeserializer;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 
 public class BookmarksWorkspaceFactory {
 	public static final String BOOKMARKS_DATABASE_ID = "main";
@@ -24,10 +26,33 @@ public class BookmarksWorkspaceFactory {
 	}
 
 	public BookmarkDatabase load(File file) throws FileNotFoundException, IOException {
-		BookmarksTree bookmarksTree = bookmarksDeserializer.deserialize(new FileReader(file));
+		BookmarksTree bookmarksTree = deserialize(file);
 		return new BookmarkDatabase(BOOKMARKS_DATABASE_ID, bookmarksTree, bookmarksModificationValidator);
 	}
 
+	/**
+	 * Load bookmarks from the given snapshot and replay the journal on top of it
+	 * 
+	 * @param file
+	 *            the snapshot
+	 * @param bookmarksJournal
+	 *            the journal of modifications made since the snapshot
+	 * @return the bookmarks database
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */
+	public BookmarkDatabase load(File file, BookmarksJournal bookmarksJournal) throws FileNotFoundException, IOException {
+		BookmarksTree bookmarksTree = deserialize(file);
+		bookmarksTree = bookmarksJournal.replay(bookmarksTree, file.toPath());
+		return new BookmarkDatabase(BOOKMARKS_DATABASE_ID, bookmarksTree, bookmarksModificationValidator);
+	}
+
+	private BookmarksTree deserialize(File file) throws IOException {
+		try (InputStream inputStream = new FileInputStream(file)) {
+			return bookmarksDeserializer.deserialize(inputStream);
+		}
+	}
+
 	public BookmarkDatabase create() {
 		BookmarkFolder rootFolder = new BookmarkFolder(new BookmarkId("root"), "Root");
 		BookmarksTree bookmarksTree = new BookmarksTree(rootFolder);
@@ -1,43 +1,170 @@
 package mesfavoris.java.internal;
 
-import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.*;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import mesfavoris.bookmarktype.IBookmarkLocationProvider;
+import mesfavoris.commons.ReadActions;
 import mesfavoris.java.internal.editor.JavaEditorUtils;
 import mesfavoris.model.Bookmark;
+import mesfavoris.model.BookmarkId;
 import mesfavoris.texteditor.TextEditorBookmarkProperties;
 import mesfavoris.texteditor.text.matching.DocumentFuzzySearcher;
+import mesfavoris.texteditor.text.matching.DocumentFuzzySearcher.LineSearch;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static mesfavoris.java.JavaBookmarkProperties.*;
 
 public class JavaTypeMemberBookmarkLocationProvider implements IBookmarkLocationProvider {
+	private static final Key<CachedValue<Map<MemberKey, List<PsiMember>>>> MEMBER_CANDIDATES_KEY = Key
+			.create("mesfavoris.javaMemberCandidates");
 
 	@Override
 	public JavaTypeMemberBookmarkLocation getBookmarkLocation(Project project, Bookmark bookmark, ProgressIndicator progress) {
-		return ReadAction.compute(() -> {
+		return ReadActions.computeCancellable(project, progress, readActionProgress -> getBookmarkLocation(
+				getMemberCandidates(project, bookmark, readActionProgress), bookmark, readActionProgress));
+	}
+
+	/**
+	 * Get the locations of the given bookmarks. The lines of all the bookmarks
+	 * in the same document are searched together.
+	 * <p>
+	 * The document of each bookmark is first found in its own non-blocking read
+	 * action, then each document is searched in its own non-blocking read
+	 * action. A write action only restarts the current one : member candidates
+	 * are cached until the next PSI modification.
+	 * </p>
+	 */
+	@Override
+	public Map<BookmarkId, JavaTypeMemberBookmarkLocation> getBookmarkLocations(Project project,
+			List<Bookmark> bookmarks, ProgressIndicator progress) {
+		Map<BookmarkId, JavaTypeMemberBookmarkLocation> bookmarkLocations = new HashMap<>();
+		Map<Document, List<Bookmark>> bookmarksByDocument = new LinkedHashMap<>();
+		for (Bookmark bookmark : bookmarks) {
+			progress.checkCanceled();
+			Document document = ReadActions.computeCancellable(project, progress, readActionProgress -> {
+				MemberLineSearch memberLineSearch = getMemberLineSearch(
+						getMemberCandidates(project, bookmark, readActionProgress), bookmark);
+				return memberLineSearch == null ? null : memberLineSearch.document();
+			});
+			if (document == null) {
+				putIfNotNull(bookmarkLocations, bookmark, getBookmarkLocation(project, bookmark, progress));
+			} else {
+				bookmarksByDocument.computeIfAbsent(document, d -> new ArrayList<>()).add(bookmark);
+			}
+		}
+		for (List<Bookmark> documentBookmarks : bookmarksByDocument.values()) {
+			progress.checkCanceled();
+			bookmarkLocations.putAll(ReadActions.computeCancellable(project, progress,
+					readActionProgress -> getDocumentBookmarkLocations(project, documentBookmarks, readActionProgress)));
+		}
+		return bookmarkLocations;
+	}
+
+	/**
+	 * Get the locations of the given bookmarks, usually in the same document,
+	 * searching their lines together. Must be called in a read action.
+	 */
+	private Map<BookmarkId, JavaTypeMemberBookmarkLocation> getDocumentBookmarkLocations(Project project,
+			List<Bookmark> bookmarks, ProgressIndicator progress) {
+		Map<BookmarkId, JavaTypeMemberBookmarkLocation> bookmarkLocations = new HashMap<>();
+		Map<Document, List<MemberLineSearch>> lineSearchesByDocument = new LinkedHashMap<>();
+		for (Bookmark bookmark : bookmarks) {
+			progress.checkCanceled();
 			List<PsiMember> memberCandidates = getMemberCandidates(project, bookmark, progress);
-			for (PsiMember member : memberCandidates) {
-				LinePosition linePosition = getLineNumber(member, bookmark, progress);
-				if (linePosition != null) {
-					return new JavaTypeMemberBookmarkLocation(member, linePosition.lineNumber, linePosition.lineOffset);
+			MemberLineSearch memberLineSearch = getMemberLineSearch(memberCandidates, bookmark);
+			if (memberLineSearch != null) {
+				lineSearchesByDocument.computeIfAbsent(memberLineSearch.document(), document -> new ArrayList<>())
+						.add(memberLineSearch);
+			} else {
+				putIfNotNull(bookmarkLocations, bookmark, getBookmarkLocation(memberCandidates, bookmark, progress));
+			}
+		}
+		for (Map.Entry<Document, List<MemberLineSearch>> entry : lineSearchesByDocument.entrySet()) {
+			Document document = entry.getKey();
+			List<MemberLineSearch> memberLineSearches = entry.getValue();
+			int[] foundLineNumbers = new DocumentFuzzySearcher(document).findLineNumbers(
+					memberLineSearches.stream().map(MemberLineSearch::lineSearch).toList(),
+					progress);
+			for (int i = 0; i < memberLineSearches.size(); i++) {
+				MemberLineSearch memberLineSearch = memberLineSearches.get(i);
+				Integer lineNumber = foundLineNumbers[i] == -1 ? memberLineSearch.estimatedLineNumber()
+						: Integer.valueOf(foundLineNumbers[i]);
+				Integer lineOffset = lineNumber == null ? null : getLineOffset(document, lineNumber);
+				if (lineOffset != null) {
+					bookmarkLocations.put(memberLineSearch.bookmark().getId(), new JavaTypeMemberBookmarkLocation(
+							memberLineSearch.memberCandidates().get(0), lineNumber, lineOffset));
+				} else {
+					// first candidate cannot be located : try the others
+					putIfNotNull(bookmarkLocations, memberLineSearch.bookmark(), getBookmarkLocation(
+							memberLineSearch.memberCandidates(), memberLineSearch.bookmark(), progress));
 				}
 			}
-			if (memberCandidates.isEmpty()) {
-				return null;
-			} else {
-				return new JavaTypeMemberBookmarkLocation(memberCandidates.get(0), null, null);
+		}
+		return bookmarkLocations;
+	}
+
+	private void putIfNotNull(Map<BookmarkId, JavaTypeMemberBookmarkLocation> bookmarkLocations, Bookmark bookmark,
+			JavaTypeMemberBookmarkLocation bookmarkLocation) {
+		if (bookmarkLocation != null) {
+			bookmarkLocations.put(bookmark.getId(), bookmarkLocation);
+		}
+	}
+
+	private JavaTypeMemberBookmarkLocation getBookmarkLocation(List<PsiMember> memberCandidates, Bookmark bookmark,
+			ProgressIndicator progress) {
+		for (PsiMember member : memberCandidates) {
+			LinePosition linePosition = getLineNumber(member, bookmark, progress);
+			if (linePosition != null) {
+				return new JavaTypeMemberBookmarkLocation(member, linePosition.lineNumber, linePosition.lineOffset);
 			}
-		});
+		}
+		if (memberCandidates.isEmpty()) {
+			return null;
+		} else {
+			return new JavaTypeMemberBookmarkLocation(memberCandidates.get(0), null, null);
+		}
+	}
+
+	/**
+	 * Get the line search for the first member candidate if the bookmark has a
+	 * line content and the member is in a document
+	 */
+	private MemberLineSearch getMemberLineSearch(List<PsiMember> memberCandidates, Bookmark bookmark) {
+		String lineContent = bookmark.getPropertyValue(TextEditorBookmarkProperties.PROP_LINE_CONTENT);
+		if (lineContent == null || memberCandidates.isEmpty()) {
+			return null;
+		}
+		PsiMember member = memberCandidates.get(0);
+		PsiFile containingFile = member.getContainingFile();
+		if (containingFile == null) {
+			return null;
+		}
+		Document document = PsiDocumentManager.getInstance(member.getProject()).getDocument(containingFile);
+		if (document == null) {
+			return null;
+		}
+		Integer estimatedLineNumber = getEstimatedLineNumber(member, bookmark);
+		LineSearch lineSearch = new LineSearch(getRegion(member),
+				estimatedLineNumber == null ? -1 : estimatedLineNumber, lineContent);
+		return new MemberLineSearch(bookmark, memberCandidates, document, estimatedLineNumber, lineSearch);
 	}
 
 	private LinePosition getLineNumber(PsiMember member, Bookmark bookmark, ProgressIndicator progress) {
@@ -108,7 +235,27 @@ public class JavaTypeMemberBookmarkLocationProvider implements IBookmarkLocation
 		}
 	}
 
+	/**
+	 * Get the member candidates for the bookmark. Candidates are only searched
+	 * using the stub indexes and are cached until the next PSI modification.
+	 */
 	private List<PsiMember> getMemberCandidates(Project project, Bookmark javaBookmark, ProgressIndicator progress) {
+		Map<MemberKey, List<PsiMember>> memberCandidatesCache = CachedValuesManager.getManager(project)
+				.getCachedValue(project, MEMBER_CANDIDATES_KEY,
+						() -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(),
+								PsiModificationTracker.getInstance(project)),
+						false);
+		MemberKey memberKey = MemberKey.of(javaBookmark);
+		List<PsiMember> memberCandidates = memberCandidatesCache.get(memberKey);
+		if (memberCandidates == null || !memberCandidates.stream().allMatch(PsiMember::isValid)) {
+			progress.checkCanceled();
+			memberCandidates = List.copyOf(searchMemberCandidates(project, javaBookmark));
+			memberCandidatesCache.put(memberKey, memberCandidates);
+		}
+		return memberCandidates;
+	}
+
+	private List<PsiMember> searchMemberCandidates(Project project, Bookmark javaBookmark) {
 		String type = javaBookmark.getPropertyValue(PROP_JAVA_TYPE);
 		if (type != null) {
 			List<PsiClass> matchingTypes = searchType(project, type);
@@ -157,13 +304,11 @@ public class JavaTypeMemberBookmarkLocationProvider implements IBookmarkLocation
 	}
 
 	private List<PsiMethod> getMethodsWithName(PsiClass type, String name) {
-		List<PsiMethod> methodsWithName = new ArrayList<>();
-		for (PsiMethod method : type.getMethods()) {
-			if (name.equals(method.getName())) {
-				methodsWithName.add(method);
-			}
+		if (name == null) {
+			return Collections.emptyList();
 		}
-		return methodsWithName;
+		// uses the stubs : the AST of the file is not loaded
+		return Arrays.asList(type.findMethodsByName(name, false));
 	}
 
 	private List<PsiClass> searchType(Project project, String classFQN) {
@@ -187,6 +332,25 @@ public class JavaTypeMemberBookmarkLocationProvider implements IBookmarkLocation
 			   KIND_TYPE.equals(elementKind);
 	}
 
+	/**
+	 * The properties of a bookmark used to search its member candidates
+	 */
+	private record MemberKey(String type, String declaringType, String elementKind, String elementName,
+			String methodSignature) {
+
+		public static MemberKey of(Bookmark javaBookmark) {
+			return new MemberKey(javaBookmark.getPropertyValue(PROP_JAVA_TYPE),
+					javaBookmark.getPropertyValue(PROP_JAVA_DECLARING_TYPE),
+					javaBookmark.getPropertyValue(PROP_JAVA_ELEMENT_KIND),
+					javaBookmark.getPropertyValue(PROP_JAVA_ELEMENT_NAME),
+					javaBookmark.getPropertyValue(PROP_JAVA_METHOD_SIGNATURE));
+		}
+	}
+
+	private record MemberLineSearch(Bookmark bookmark, List<PsiMember> memberCandidates, Document document,
+			Integer estimatedLineNumber, LineSearch lineSearch) {
+	}
+
 	private static class LinePosition {
 		public final int lineNumber;
 		public final int lineOffset;
@@ -166,6 +166,86 @@ public class BookmarksTree implements Iterable<Bookmark> {
 		return createBookmarksTree(rootFolderId, newIdToBookmark, newIdToChildren, newIdToParent);
 	}
 
+	/**
+	 * Set the properties of several bookmarks at once
+	 * 
+	 * @param bookmarksProperties
+	 *            the new properties of each bookmark
+	 * @return the new tree
+	 */
+	public BookmarksTree setProperties(Map<BookmarkId, Map<String, String>> bookmarksProperties) {
+		List<Bookmark> modifiedBookmarks = new ArrayList<>();
+		for (Map.Entry<BookmarkId, Map<String, String>> entry : bookmarksProperties.entrySet()) {
+			Bookmark bookmark = checkBookmarkExist(entry.getKey());
+			Map<String, String> properties = entry.getValue();
+			if (bookmark.properties.getMap().equals(properties)) {
+				continue;
+			}
+			if (bookmark instanceof BookmarkFolder) {
+				modifiedBookmarks.add(new BookmarkFolder(bookmark.id, properties));
+			} else {
+				modifiedBookmarks.add(new Bookmark(bookmark.id, properties));
+			}
+		}
+		if (modifiedBookmarks.isEmpty()) {
+			return this;
+		}
+		return createBookmarksTree(rootFolderId, bookmarksMap.add(modifiedBookmarks), childrenMap, parentsMap);
+	}
+
+	/**
+	 * Delete several bookmarks at once. Bookmarks that are not in the tree are
+	 * ignored.
+	 * 
+	 * @param bookmarkIds
+	 * @param recurse
+	 *            true to also delete the content of folders. Otherwise a folder
+	 *            can only be deleted if all its children are deleted too.
+	 * @return the new tree
+	 */
+	public BookmarksTree deleteBookmarks(Collection<BookmarkId> bookmarkIds, boolean recurse) {
+		Set<BookmarkId> deletedIds = new LinkedHashSet<>();
+		for (BookmarkId bookmarkId : bookmarkIds) {
+			Bookmark bookmark = getBookmark(bookmarkId);
+			if (bookmark == null) {
+				continue;
+			}
+			checkNotRootFolder(bookmarkId);
+			deletedIds.add(bookmarkId);
+			if (recurse && bookmark instanceof BookmarkFolder) {
+				Set<Bookmark> subTreeBookmarks = new HashSet<>();
+				getAllBookmarksUnder(bookmarkId, subTreeBookmarks);
+				subTreeBookmarks.forEach(subTreeBookmark -> deletedIds.add(subTreeBookmark.getId()));
+			}
+		}
+		if (deletedIds.isEmpty()) {
+			return this;
+		}
+		// children to remove from folders that are not deleted
+		Map<BookmarkId, List<BookmarkId>> parentToDeletedChildren = new HashMap<>();
+		for (BookmarkId bookmarkId : deletedIds) {
+			if (!deletedIds.containsAll(childrenMap.getChildren(bookmarkId))) {
+				throw new IllegalStateException("Cannot delete non-empty folder");
+			}
+			BookmarkId parentId = parentsMap.getParent(bookmarkId);
+			if (!deletedIds.contains(parentId)) {
+				parentToDeletedChildren.computeIfAbsent(parentId, id -> new ArrayList<>()).add(bookmarkId);
+			}
+		}
+		BookmarksMap newIdToBookmark = bookmarksMap;
+		BookmarksChildrenMap newIdToChildren = childrenMap;
+		BookmarksParentsMap newIdToParent = parentsMap;
+		for (BookmarkId bookmarkId : deletedIds) {
+			newIdToBookmark = newIdToBookmark.delete(bookmarkId);
+			newIdToChildren = newIdToChildren.delete(bookmarkId);
+			newIdToParent = newIdToParent.delete(bookmarkId);
+		}
+		for (Map.Entry<BookmarkId, List<BookmarkId>> entry : parentToDeletedChildren.entrySet()) {
+			newIdToChildren = newIdToChildren.delete(entry.getKey(), entry.getValue());
+		}
+		return createBookmarksTree(rootFolderId, newIdToBookmark, newIdToChildren, newIdToParent);
+	}
+
 	private void checkBookmarksNotInTree(Collection<Bookmark> bookmarks) {
 		for (Bookmark bookmark : bookmarks) {
 			if (getBookmark(bookmark.getId()) != null) {
@@ -240,21 +320,23 @@ public class BookmarksTree implements Iterable<Bookmark> {
 
 	public BookmarksTree subTree(BookmarkId bookmarkFolderId) {
 		BookmarkFolder bookmarkFolder = checkBookmarkFolderExist(bookmarkFolderId);
-		Set<Bookmark> subTreeBookmarks = new HashSet<>();
-		getAllBookmarksUnder(bookmarkFolderId, subTreeBookmarks);
-		subTreeBookmarks.add(bookmarkFolder);
-		BookmarksMap newIdToBookmark = bookmarksMap;
-		BookmarksChildrenMap newIdToChildren = childrenMap;
-		BookmarksParentsMap newIdToParent = parentsMap;
-		for (Bookmark bookmark : bookmarksMap) {
-			if (!subTreeBookmarks.contains(bookmark)) {
-				newIdToBookmark = newIdToBookmark.delete(bookmark.getId());
-				newIdToChildren = newIdToChildren.delete(bookmark.getId());
-				newIdToParent = newIdToParent.delete(bookmark.getId());
+		if (bookmarkFolderId.equals(rootFolderId)) {
+			return this;
+		}
+		// only visit the bookmarks under the folder, not the whole tree
+		Builder builder = builder(bookmarkFolder);
+		addSubTree(builder, bookmarkFolderId);
+		return builder.build();
+	}
+
+	private void addSubTree(Builder builder, BookmarkId bookmarkFolderId) {
+		for (BookmarkId childId : childrenMap.getChildren(bookmarkFolderId)) {
+			Bookmark child = getBookmark(childId);
+			builder.addBookmark(bookmarkFolderId, child);
+			if (child instanceof BookmarkFolder) {
+				addSubTree(builder, childId);
 			}
 		}
-		newIdToParent = newIdToParent.delete(bookmarkFolder.getId());
-		return createBookmarksTree(bookmarkFolder.getId(), newIdToBookmark, newIdToChildren, newIdToParent);
 	}
 
 	private void getAllBookmarksUnder(BookmarkId bookmarkFolderId, Set<Bookmark> bookmarks) {
@@ -271,6 +353,11 @@ public class BookmarksTree implements Iterable<Bookmark> {
 	public BookmarksTree move(List<BookmarkId> bookmarkIds, BookmarkId newParentId) {
 		checkBookmarkFolderExist(newParentId);
 		checkBookmarksCanBeMoved(bookmarkIds, newParentId);
+		if (haveParent(bookmarkIds, newParentId)) {
+			// the children map is unchanged if bookmarks are moved to the same place
+			return createBookmarksTree(rootFolderId, bookmarksMap,
+					childrenMap.moveBefore(newParentId, bookmarkIds, null), parentsMap);
+		}
 		BookmarksParentsMap newParentsMap = parentsMap;
 		BookmarksChildrenMap newChildrenMap = childrenMap;
 		for (BookmarkId bookmarkId : bookmarkIds) {
@@ -282,13 +369,21 @@ public class BookmarksTree implements Iterable<Bookmark> {
 		}
 		newParentsMap = newParentsMap.setParent(bookmarkIds, newParentId);
 		newChildrenMap = newChildrenMap.add(newParentId, bookmarkIds);
-		if (childrenMap.getChildren(newParentId).equals(newChildrenMap.getChildren(newParentId))) {
-			// bookmarks moved to the same place
-			return this;
-		}
 		return createBookmarksTree(rootFolderId, bookmarksMap, newChildrenMap, newParentsMap);
 	}
 
+	/**
+	 * Check if all the given bookmarks are children of the given folder
+	 */
+	private boolean haveParent(List<BookmarkId> bookmarkIds, BookmarkId parentId) {
+		for (BookmarkId bookmarkId : bookmarkIds) {
+			if (!parentId.equals(parentsMap.getParent(bookmarkId))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private void checkBookmarksCanBeMoved(List<BookmarkId> bookmarkIds, BookmarkId newParentId) {
 		Set<BookmarkId> forbiddenIds = Sets.newHashSet(getPath(newParentId));
 		for (BookmarkId bookmarkId : bookmarkIds) {
@@ -314,21 +409,24 @@ public class BookmarksTree implements Iterable<Bookmark> {
 		if (existingBookmarkId != null) {
 			checkBookmarkHasParent(existingBookmarkId, newParentId);
 		}
+		for (BookmarkId bookmarkId : bookmarkIds) {
+			checkNotBookmark(bookmarkId, existingBookmarkId);
+		}
+		if (haveParent(bookmarkIds, newParentId)) {
+			// the children map is unchanged if bookmarks are moved to the same place
+			return createBookmarksTree(rootFolderId, bookmarksMap,
+					childrenMap.moveAfter(newParentId, bookmarkIds, existingBookmarkId), parentsMap);
+		}
 		BookmarksParentsMap newParentsMap = parentsMap;
 		BookmarksChildrenMap newChildrenMap = childrenMap;
 		for (BookmarkId bookmarkId : bookmarkIds) {
 			checkBookmarkExist(bookmarkId);
-			checkNotBookmark(bookmarkId, existingBookmarkId);
 			checkNotRootFolder(bookmarkId);
 			BookmarkFolder oldParent = getParentBookmark(bookmarkId);
 			newChildrenMap = newChildrenMap.delete(oldParent.getId(), Lists.newArrayList(bookmarkId));
 		}
 		newParentsMap = newParentsMap.setParent(bookmarkIds, newParentId);
 		newChildrenMap = newChildrenMap.addAfter(newParentId, bookmarkIds, existingBookmarkId);
-		if (childrenMap.getChildren(newParentId).equals(newChildrenMap.getChildren(newParentId))) {
-			// bookmarks moved to the same place
-			return this;
-		}
 		return createBookmarksTree(rootFolderId, bookmarksMap, newChildrenMap, newParentsMap);
 	}
 
@@ -339,11 +437,18 @@ public class BookmarksTree implements Iterable<Bookmark> {
 		if (existingBookmarkId != null) {
 			checkBookmarkHasParent(existingBookmarkId, newParentId);
 		}
+		for (BookmarkId bookmarkId : bookmarkIds) {
+			checkNotBookmark(bookmarkId, existingBookmarkId);
+		}
+		if (haveParent(bookmarkIds, newParentId)) {
+			// the children map is unchanged if bookmarks are moved to the same place
+			return createBookmarksTree(rootFolderId, bookmarksMap,
+					childrenMap.moveBefore(newParentId, bookmarkIds, existingBookmarkId), parentsMap);
+		}
 		BookmarksParentsMap newParentsMap = parentsMap;
 		BookmarksChildrenMap newChildrenMap = childrenMap;
 		for (BookmarkId bookmarkId : bookmarkIds) {
 			checkBookmarkExist(bookmarkId);
-			checkNotBookmark(bookmarkId, existingBookmarkId);
 			checkNotRootFolder(bookmarkId);
 			BookmarkFolder oldParent = getParentBookmark(bookmarkId);
 			newParentsMap = newParentsMap.delete(bookmarkId);
@@ -351,10 +456,6 @@ public class BookmarksTree implements Iterable<Bookmark> {
 		}
 		newParentsMap = newParentsMap.setParent(bookmarkIds, newParentId);
 		newChildrenMap = newChildrenMap.addBefore(newParentId, bookmarkIds, existingBookmarkId);
-		if (childrenMap.getChildren(newParentId).equals(newChildrenMap.getChildren(newParentId))) {
-			// bookmarks moved to the same place
-			return this;
-		}
 		return createBookmarksTree(rootFolderId, bookmarksMap, newChildrenMap, newParentsMap);
 	}
 
@@ -386,4 +487,89 @@ public class BookmarksTree implements Iterable<Bookmark> {
 		return bookmarksMap.size();
 	}
 
+	/**
+	 * Creates a builder to efficiently create a new {@link BookmarksTree}
+	 * 
+	 * @param rootFolder
+	 *            the root folder of the tree to build
+	 * @return the builder
+	 */
+	public static Builder builder(BookmarkFolder rootFolder) {
+		return new Builder(rootFolder);
+	}
+
+	/**
+	 * Mutable builder for {@link BookmarksTree}. Bookmarks are collected in
+	 * plain collections and the persistent maps are only created once, when
+	 * {@link #build()} is called. Prefer it over successive calls to
+	 * {@link BookmarksTree#addBookmarks(BookmarkId, List)} when loading a whole
+	 * tree.
+	 */
+	public static class Builder {
+		private final BookmarkId rootFolderId;
+		private final Map<BookmarkId, Bookmark> idToBookmark = new HashMap<>();
+		private final Map<BookmarkId, List<BookmarkId>> idToChildren = new HashMap<>();
+		private final Map<BookmarkId, BookmarkId> idToParent = new HashMap<>();
+
+		private Builder(BookmarkFolder rootFolder) {
+			this.rootFolderId = rootFolder.getId();
+			idToBookmark.put(rootFolderId, rootFolder);
+		}
+
+		/**
+		 * Add a bookmark as the last child of the given folder
+		 * 
+		 * @param parentId
+		 *            the id of a folder already added to this builder
+		 * @param bookmark
+		 *            the bookmark to add
+		 * @return this builder instance
+		 */
+		public Builder addBookmark(BookmarkId parentId, Bookmark bookmark) {
+			checkBookmarkFolderExist(parentId);
+			if (idToBookmark.putIfAbsent(bookmark.getId(), bookmark) != null) {
+				throw new IllegalArgumentException("Bookmark already in tree");
+			}
+			idToChildren.computeIfAbsent(parentId, id -> new ArrayList<>()).add(bookmark.getId());
+			idToParent.put(bookmark.getId(), parentId);
+			return this;
+		}
+
+		/**
+		 * Add bookmarks as the last children of the given folder
+		 * 
+		 * @param parentId
+		 *            the id of a folder already added to this builder
+		 * @param bookmarks
+		 *            the bookmarks to add
+		 * @return this builder instance
+		 */
+		public Builder addBookmarks(BookmarkId parentId, List<Bookmark> bookmarks) {
+			for (Bookmark bookmark : bookmarks) {
+				addBookmark(parentId, bookmark);
+			}
+			return this;
+		}
+
+		private void checkBookmarkFolderExist(BookmarkId id) {
+			Bookmark bookmark = idToBookmark.get(id);
+			if (bookmark == null) {
+				throw new IllegalArgumentException(MessageFormat.format("No bookmark with id {0}", id));
+			}
+			if (!(bookmark instanceof BookmarkFolder)) {
+				throw new IllegalArgumentException(MessageFormat.format("{0} is not the id of a bookmark folder", id));
+			}
+		}
+
+		/**
+		 * Builds the {@link BookmarksTree}
+		 * 
+		 * @return a new {@link BookmarksTree}
+		 */
+		public BookmarksTree build() {
+			return new BookmarksTree(rootFolderId, new BookmarksMap(idToBookmark),
+					new BookmarksChildrenMap(idToChildren), new BookmarksParentsMap(idToParent));
+		}
+	}
+
 }
@@ -0,0 +1,58 @@
+package mesfavoris.model.modification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import mesfavoris.model.BookmarksTree;
+
+/**
+ * A single modification made of several modifications applied at once (see
+ * {@link BookmarksTreeModifier#setProperties(java.util.Map)} and
+ * {@link BookmarksTreeModifier#deleteBookmarks(java.util.Collection, boolean)}).
+ * <p>
+ * All the modifications of the batch share the source and target trees of the
+ * batch. Listeners that handle modifications one by one can use
+ * {@link #expand(List)}.
+ * </p>
+ */
+public class BookmarksBatchModification extends BookmarksModification {
+	private final List<BookmarksModification> modifications;
+
+	public BookmarksBatchModification(BookmarksTree sourceTree, BookmarksTree targetTree,
+			List<? extends BookmarksModification> modifications) {
+		super(sourceTree, targetTree);
+		this.modifications = Collections.unmodifiableList(new ArrayList<>(modifications));
+	}
+
+	public List<BookmarksModification> getModifications() {
+		return modifications;
+	}
+
+	/**
+	 * Replace batch modifications with the modifications they contain
+	 *
+	 * @param modifications
+	 * @return the expanded modifications
+	 */
+	public static List<BookmarksModification> expand(List<BookmarksModification> modifications) {
+		if (modifications.stream().noneMatch(BookmarksBatchModification.class::isInstance)) {
+			return modifications;
+		}
+		List<BookmarksModification> result = new ArrayList<>();
+		for (BookmarksModification modification : modifications) {
+			if (modification instanceof BookmarksBatchModification batchModification) {
+				result.addAll(batchModification.getModifications());
+			} else {
+				result.add(modification);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "BookmarksBatchModification [modifications=" + modifications.size() + "]";
+	}
+
+}
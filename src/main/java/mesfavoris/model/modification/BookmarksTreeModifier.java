@@ -1,6 +1,8 @@
 package mesfavoris.model.modification;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -89,6 +91,31 @@ public class BookmarksTreeModifier implements IBookmarksTreeModifier {
 		}
 	}
 
+	@Override
+	public void deleteBookmarks(Collection<BookmarkId> bookmarkIds, boolean recurse) {
+		BookmarksTree sourceTree = currentTree;
+		currentTree = currentTree.deleteBookmarks(bookmarkIds, recurse);
+		if (currentTree == sourceTree) {
+			return;
+		}
+		List<BookmarkDeletedModification> deletedModifications = new ArrayList<>();
+		for (BookmarkId bookmarkId : new LinkedHashSet<>(bookmarkIds)) {
+			Bookmark bookmark = sourceTree.getBookmark(bookmarkId);
+			if (bookmark == null) {
+				continue;
+			}
+			BookmarkFolder parentFolder = sourceTree.getParentBookmark(bookmarkId);
+			if (currentTree.getBookmark(parentFolder.getId()) == null) {
+				// deleted with its parent
+				continue;
+			}
+			boolean recursive = bookmark instanceof BookmarkFolder && !sourceTree.getChildren(bookmarkId).isEmpty();
+			deletedModifications.add(new BookmarkDeletedModification(sourceTree, currentTree, parentFolder.getId(),
+					bookmarkId, recursive));
+		}
+		modifications.add(new BookmarksBatchModification(sourceTree, currentTree, deletedModifications));
+	}
+
 	public BookmarksTree getCurrentTree() {
 		return currentTree;
 	}
@@ -119,6 +146,22 @@ public class BookmarksTreeModifier implements IBookmarksTreeModifier {
 		}
 	}
 	
+	@Override
+	public void setProperties(Map<BookmarkId, Map<String, String>> bookmarksProperties) {
+		BookmarksTree sourceTree = currentTree;
+		currentTree = currentTree.setProperties(bookmarksProperties);
+		if (currentTree == sourceTree) {
+			return;
+		}
+		List<BookmarkPropertiesModification> propertiesModifications = new ArrayList<>();
+		for (BookmarkId bookmarkId : bookmarksProperties.keySet()) {
+			if (sourceTree.getBookmark(bookmarkId) != currentTree.getBookmark(bookmarkId)) {
+				propertiesModifications.add(new BookmarkPropertiesModification(sourceTree, currentTree, bookmarkId));
+			}
+		}
+		modifications.add(new BookmarksBatchModification(sourceTree, currentTree, propertiesModifications));
+	}
+
 	public void optimize() {
 		List<BookmarksModification> newModifications  = bookmarksModificationsOptimizer.optimize(modifications);
 		this.modifications.clear();
@@ -1,5 +1,6 @@
 package mesfavoris.model.modification;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -21,6 +22,22 @@ public interface IBookmarksTreeModifier {
 
 	public abstract void setProperties(BookmarkId bookmarkId, Map<String, String> properties);
 
+	/**
+	 * Set the properties of several bookmarks as a single
+	 * {@link BookmarksBatchModification}
+	 * 
+	 * @param bookmarksProperties
+	 */
+	public abstract void setProperties(Map<BookmarkId, Map<String, String>> bookmarksProperties);
+
+	/**
+	 * Delete several bookmarks as a single {@link BookmarksBatchModification}
+	 * 
+	 * @param bookmarkIds
+	 * @param recurse
+	 */
+	public abstract void deleteBookmarks(Collection<BookmarkId> bookmarkIds, boolean recurse);
+
 	public abstract BookmarksTree getCurrentTree();
 
 	public void move(List<BookmarkId> bookmarkIds, BookmarkId newParentId);
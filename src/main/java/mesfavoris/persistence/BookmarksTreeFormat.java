@@ -0,0 +1,62 @@
+package mesfavoris.persistence;
+
+import mesfavoris.persistence.binary.BinarySerializerConstants;
+import mesfavoris.persistence.binary.BookmarksTreeBinaryDeserializer;
+import mesfavoris.persistence.binary.BookmarksTreeBinarySerializer;
+import mesfavoris.persistence.json.BookmarksTreeJsonDeserializer;
+import mesfavoris.persistence.json.BookmarksTreeJsonSerializer;
+
+/**
+ * Formats used to persist a {@link mesfavoris.model.BookmarksTree}
+ */
+public enum BookmarksTreeFormat {
+	JSON {
+		@Override
+		public IBookmarksTreeSerializer createSerializer() {
+			return new BookmarksTreeJsonSerializer(true);
+		}
+
+		@Override
+		public IBookmarksTreeDeserializer createDeserializer() {
+			return new BookmarksTreeJsonDeserializer();
+		}
+	},
+	BINARY {
+		@Override
+		public IBookmarksTreeSerializer createSerializer() {
+			return new BookmarksTreeBinarySerializer();
+		}
+
+		@Override
+		public IBookmarksTreeDeserializer createDeserializer() {
+			return new BookmarksTreeBinaryDeserializer();
+		}
+	};
+
+	public abstract IBookmarksTreeSerializer createSerializer();
+
+	public abstract IBookmarksTreeDeserializer createDeserializer();
+
+	/**
+	 * Get the format of serialized bookmarks
+	 * 
+	 * @param header
+	 *            the first bytes of the serialized bookmarks
+	 * @param length
+	 *            number of valid bytes in header
+	 * @return the format
+	 */
+	public static BookmarksTreeFormat detect(byte[] header, int length) {
+		byte[] magic = BinarySerializerConstants.MAGIC;
+		if (length < magic.length) {
+			return JSON;
+		}
+		for (int i = 0; i < magic.length; i++) {
+			if (header[i] != magic[i]) {
+				return JSON;
+			}
+		}
+		return BINARY;
+	}
+
+}
@@ -0,0 +1,25 @@
+package mesfavoris.persistence;
+
+import mesfavoris.model.BookmarksTree;
+import mesfavoris.persistence.binary.BinarySerializerConstants;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Deserialize a {@link BookmarksTree} whatever its {@link BookmarksTreeFormat}
+ */
+public class FormatDetectingBookmarksTreeDeserializer implements IBookmarksTreeDeserializer {
+
+	@Override
+	public BookmarksTree deserialize(InputStream inputStream) throws IOException {
+		InputStream in = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream);
+		byte[] header = new byte[BinarySerializerConstants.MAGIC.length];
+		in.mark(header.length);
+		int length = in.readNBytes(header, 0, header.length);
+		in.reset();
+		return BookmarksTreeFormat.detect(header, length).createDeserializer().deserialize(in);
+	}
+
+}
@@ -4,17 +4,18 @@ import com.intellij.openapi.progress.ProgressIndicator;
 import mesfavoris.model.BookmarksTree;
 
 import java.io.IOException;
-import java.io.Reader;
+import java.io.InputStream;
 
 public interface IBookmarksTreeDeserializer {
 
 	/**
-	 * Deserialize a {@link BookmarksTree}
+	 * Deserialize a {@link BookmarksTree} from the given stream. The stream is
+	 * not closed.
 	 * 
-	 * @param reader
+	 * @param inputStream
 	 * @return
 	 * @throws IOException
 	 */
-	public BookmarksTree deserialize(Reader reader) throws IOException;
+	public BookmarksTree deserialize(InputStream inputStream) throws IOException;
 
 }
\ No newline at end of file
@@ -4,7 +4,7 @@ import mesfavoris.model.BookmarkId;
 import mesfavoris.model.BookmarksTree;
 
 import java.io.IOException;
-import java.io.Writer;
+import java.io.OutputStream;
 
 /**
  * Serialize a {@link BookmarksTree}
@@ -15,15 +15,16 @@ import java.io.Writer;
 public interface IBookmarksTreeSerializer {
 
 	/**
-	 * Serialize the given bookmarks subTree
+	 * Serialize the given bookmarks subTree to the given stream. Output is
+	 * buffered and flushed when done but the stream is not closed.
 	 * 
 	 * @param bookmarksTree
 	 * @param bookmarkFolderId
 	 *            the subtree to serialize
-	 * @param writer
+	 * @param outputStream
 	 * @throws IOException
 	 */
-	public void serialize(BookmarksTree bookmarksTree, BookmarkId bookmarkFolderId, Writer writer)
+	public void serialize(BookmarksTree bookmarksTree, BookmarkId bookmarkFolderId, OutputStream outputStream)
 			throws IOException;
 
 }
\ No newline at end of file
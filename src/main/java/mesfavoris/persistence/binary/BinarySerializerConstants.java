@@ -0,0 +1,31 @@
+package mesfavoris.persistence.binary;
+
+/**
+ * Constants for the binary bookmarks format.
+ * <p>
+ * Layout (all integers are unsigned LEB128 varints) :
+ *
+ * <pre>
+ * file     := MAGIC version stringTable folder
+ * table    := count literal*
+ * bookmark := header id propertiesCount (keyIndex value)* bookmark*
+ * header   := childrenCount &lt;&lt; 1 | 1 for a folder, 0 for a bookmark
+ * id       := length utf8Bytes
+ * value    := code [bytes] with kind = code &amp; 3 and length (or index) = code &gt;&gt;&gt; 2
+ * </pre>
+ * </p>
+ */
+public final class BinarySerializerConstants {
+	public static final byte[] MAGIC = { 'M', 'F', 'B', 'T' };
+	public static final int VERSION_1 = 1;
+
+	/** value is a reference to the string table */
+	public static final int KIND_TABLE_REF = 0;
+	/** value is an UTF-8 string */
+	public static final int KIND_STRING = 1;
+	/** value is a base64 string stored as raw bytes */
+	public static final int KIND_BASE64 = 2;
+
+	private BinarySerializerConstants() {
+	}
+}
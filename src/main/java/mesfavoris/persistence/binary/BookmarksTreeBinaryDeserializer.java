@@ -0,0 +1,126 @@
+package mesfavoris.persistence.binary;
+
+import mesfavoris.model.Bookmark;
+import mesfavoris.model.BookmarkFolder;
+import mesfavoris.model.BookmarkId;
+import mesfavoris.model.BookmarksTree;
+import mesfavoris.persistence.IBookmarksTreeDeserializer;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static mesfavoris.persistence.binary.BinarySerializerConstants.*;
+
+/**
+ * Deserialize a {@link BookmarksTree} written by
+ * {@link BookmarksTreeBinarySerializer}
+ */
+public class BookmarksTreeBinaryDeserializer implements IBookmarksTreeDeserializer {
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	@Override
+	public BookmarksTree deserialize(InputStream inputStream) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream, BUFFER_SIZE));
+		byte[] magic = new byte[MAGIC.length];
+		in.readFully(magic);
+		if (!Arrays.equals(MAGIC, magic)) {
+			throw new IOException("Invalid format");
+		}
+		if (readVarint(in) != VERSION_1) {
+			throw new IOException("Invalid format : unknown version");
+		}
+		String[] stringTable = new String[readVarint(in)];
+		for (int i = 0; i < stringTable.length; i++) {
+			int code = readVarint(in);
+			if ((code & 3) == KIND_TABLE_REF) {
+				throw new IOException("Invalid format");
+			}
+			stringTable[i] = readLiteral(in, code);
+		}
+		int header = readVarint(in);
+		if ((header & 1) == 0) {
+			throw new IOException("Invalid format");
+		}
+		BookmarkFolder rootFolder = new BookmarkFolder(readId(in), readProperties(in, stringTable));
+		BookmarksTree.Builder bookmarksTreeBuilder = BookmarksTree.builder(rootFolder);
+		deserializeChildren(in, bookmarksTreeBuilder, rootFolder.getId(), header >>> 1, stringTable);
+		return bookmarksTreeBuilder.build();
+	}
+
+	private void deserializeChildren(DataInputStream in, BookmarksTree.Builder bookmarksTreeBuilder,
+			BookmarkId parentId, int childrenCount, String[] stringTable) throws IOException {
+		for (int i = 0; i < childrenCount; i++) {
+			int header = readVarint(in);
+			BookmarkId id = readId(in);
+			Map<String, String> properties = readProperties(in, stringTable);
+			if ((header & 1) != 0) {
+				BookmarkFolder bookmarkFolder = new BookmarkFolder(id, properties);
+				bookmarksTreeBuilder.addBookmark(parentId, bookmarkFolder);
+				deserializeChildren(in, bookmarksTreeBuilder, id, header >>> 1, stringTable);
+			} else {
+				bookmarksTreeBuilder.addBookmark(parentId, new Bookmark(id, properties));
+			}
+		}
+	}
+
+	private BookmarkId readId(DataInputStream in) throws IOException {
+		return new BookmarkId(new String(readBytes(in, readVarint(in)), StandardCharsets.UTF_8));
+	}
+
+	private Map<String, String> readProperties(DataInputStream in, String[] stringTable) throws IOException {
+		Map<String, String> properties = new TreeMap<>();
+		int count = readVarint(in);
+		for (int i = 0; i < count; i++) {
+			String name = getString(stringTable, readVarint(in));
+			int code = readVarint(in);
+			String value = (code & 3) == KIND_TABLE_REF ? getString(stringTable, code >>> 2) : readLiteral(in, code);
+			properties.put(name, value);
+		}
+		return properties;
+	}
+
+	private String getString(String[] stringTable, int index) throws IOException {
+		if (index < 0 || index >= stringTable.length) {
+			throw new IOException("Invalid format");
+		}
+		return stringTable[index];
+	}
+
+	private String readLiteral(DataInputStream in, int code) throws IOException {
+		byte[] bytes = readBytes(in, code >>> 2);
+		return switch (code & 3) {
+			case KIND_STRING -> new String(bytes, StandardCharsets.UTF_8);
+			case KIND_BASE64 -> Base64.getEncoder().encodeToString(bytes);
+			default -> throw new IOException("Invalid format");
+		};
+	}
+
+	private byte[] readBytes(DataInputStream in, int length) throws IOException {
+		if (length < 0) {
+			throw new IOException("Invalid format");
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	private int readVarint(DataInputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Invalid format");
+	}
+
+}
@@ -0,0 +1,146 @@
+package mesfavoris.persistence.binary;
+
+import mesfavoris.model.Bookmark;
+import mesfavoris.model.BookmarkFolder;
+import mesfavoris.model.BookmarkId;
+import mesfavoris.model.BookmarksTree;
+import mesfavoris.persistence.IBookmarksTreeSerializer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static mesfavoris.persistence.binary.BinarySerializerConstants.*;
+
+/**
+ * Serialize a {@link BookmarksTree} using a compact binary format.
+ * <p>
+ * Property keys and repeated property values are written once in a string
+ * table. Base64 values (favicons for example) are stored as raw bytes.
+ * </p>
+ *
+ * @see BinarySerializerConstants
+ */
+public class BookmarksTreeBinarySerializer implements IBookmarksTreeSerializer {
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int MIN_BASE64_LENGTH = 32;
+
+	@Override
+	public void serialize(BookmarksTree bookmarksTree, BookmarkId bookmarkFolderId, OutputStream outputStream)
+			throws IOException {
+		BookmarkFolder bookmarkFolder = (BookmarkFolder) bookmarksTree.getBookmark(bookmarkFolderId);
+		Map<String, Integer> stringTable = createStringTable(bookmarksTree, bookmarkFolder);
+		BufferedOutputStream out = new BufferedOutputStream(outputStream, BUFFER_SIZE);
+		out.write(MAGIC);
+		writeVarint(out, VERSION_1);
+		writeVarint(out, stringTable.size());
+		for (String string : stringTable.keySet()) {
+			writeLiteral(out, string);
+		}
+		serializeBookmark(out, bookmarksTree, bookmarkFolder, stringTable);
+		// flush but do not close : the stream belongs to the caller
+		out.flush();
+	}
+
+	private Map<String, Integer> createStringTable(BookmarksTree bookmarksTree, BookmarkFolder bookmarkFolder) {
+		Map<String, Integer> keys = new LinkedHashMap<>();
+		Map<String, Integer> valuesCount = new HashMap<>();
+		countStrings(bookmarksTree, bookmarkFolder, keys, valuesCount);
+		Map<String, Integer> stringTable = new LinkedHashMap<>();
+		for (String key : keys.keySet()) {
+			stringTable.put(key, stringTable.size());
+		}
+		// only values used more than once are worth interning
+		valuesCount.forEach((value, count) -> {
+			if (count > 1) {
+				stringTable.putIfAbsent(value, stringTable.size());
+			}
+		});
+		return stringTable;
+	}
+
+	private void countStrings(BookmarksTree bookmarksTree, Bookmark bookmark, Map<String, Integer> keys,
+			Map<String, Integer> valuesCount) {
+		for (Map.Entry<String, String> entry : bookmark.getProperties().entrySet()) {
+			keys.putIfAbsent(entry.getKey(), keys.size());
+			valuesCount.merge(entry.getValue(), 1, Integer::sum);
+		}
+		if (bookmark instanceof BookmarkFolder) {
+			for (Bookmark child : bookmarksTree.getChildren(bookmark.getId())) {
+				countStrings(bookmarksTree, child, keys, valuesCount);
+			}
+		}
+	}
+
+	private void serializeBookmark(OutputStream out, BookmarksTree bookmarksTree, Bookmark bookmark,
+			Map<String, Integer> stringTable) throws IOException {
+		List<Bookmark> children = bookmark instanceof BookmarkFolder ? bookmarksTree.getChildren(bookmark.getId())
+				: List.of();
+		writeVarint(out, bookmark instanceof BookmarkFolder ? (children.size() << 1) | 1 : 0);
+		writeBytes(out, bookmark.getId().toString().getBytes(StandardCharsets.UTF_8));
+		Map<String, String> properties = bookmark.getProperties();
+		writeVarint(out, properties.size());
+		for (Map.Entry<String, String> entry : properties.entrySet()) {
+			writeVarint(out, stringTable.get(entry.getKey()));
+			Integer index = stringTable.get(entry.getValue());
+			if (index != null) {
+				writeVarint(out, (index << 2) | KIND_TABLE_REF);
+			} else {
+				writeLiteral(out, entry.getValue());
+			}
+		}
+		for (Bookmark child : children) {
+			serializeBookmark(out, bookmarksTree, child, stringTable);
+		}
+	}
+
+	private void writeLiteral(OutputStream out, String value) throws IOException {
+		byte[] bytes = decodeBase64(value);
+		int kind = KIND_BASE64;
+		if (bytes == null) {
+			bytes = value.getBytes(StandardCharsets.UTF_8);
+			kind = KIND_STRING;
+		}
+		writeVarint(out, (bytes.length << 2) | kind);
+		out.write(bytes);
+	}
+
+	/**
+	 * Decode the value if it is a base64 string that will be encoded back to the
+	 * exact same string
+	 *
+	 * @param value
+	 * @return the decoded bytes or null
+	 */
+	private byte[] decodeBase64(String value) {
+		if (value.length() < MIN_BASE64_LENGTH || value.length() % 4 != 0) {
+			return null;
+		}
+		try {
+			byte[] bytes = Base64.getDecoder().decode(value);
+			return Base64.getEncoder().encodeToString(bytes).equals(value) ? bytes : null;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private void writeBytes(OutputStream out, byte[] bytes) throws IOException {
+		writeVarint(out, bytes.length);
+		out.write(bytes);
+	}
+
+	private void writeVarint(OutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+}
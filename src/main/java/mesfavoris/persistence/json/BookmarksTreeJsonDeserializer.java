@@ -7,9 +7,12 @@ import static mesfavoris.persistence.json.JsonSerializerConstants.NAME_PROPERTIE
 import static mesfavoris.persistence.json.JsonSerializerConstants.NAME_VERSION;
 import static mesfavoris.persistence.json.JsonSerializerConstants.VERSION_1_0;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Map;
 import java.util.TreeMap;
@@ -28,14 +31,29 @@ import mesfavoris.persistence.IBookmarksTreeDeserializer;
  * @author cchabanois
  */
 public class BookmarksTreeJsonDeserializer implements IBookmarksTreeDeserializer {
+    private static final int BUFFER_SIZE = 64 * 1024;
 
-    @Override
+    /**
+     * Deserialize a {@link BookmarksTree} from json text. The reader is closed.
+     *
+     * @param reader
+     * @return
+     * @throws IOException
+     */
     public BookmarksTree deserialize(Reader reader) throws IOException {
         try (JsonReader jsonReader = new JsonReader(reader)) {
             return deserialize(jsonReader);
         }
     }
 
+    @Override
+    public BookmarksTree deserialize(InputStream inputStream) throws IOException {
+        // do not close : the stream belongs to the caller
+        JsonReader jsonReader = new JsonReader(
+                new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), BUFFER_SIZE));
+        return deserialize(jsonReader);
+    }
+
     private BookmarksTree deserialize(JsonReader reader) throws IOException {
         reader.beginObject();
         BookmarksTree bookmarksTree = null;
@@ -76,13 +94,13 @@ public class BookmarksTreeJsonDeserializer implements IBookmarksTreeDeserializer
             throw new IOException("Invalid format");
         }
         BookmarkFolder bookmarkFolder = new BookmarkFolder(id, properties);
-        BookmarksTree bookmarksTree = new BookmarksTree(bookmarkFolder);
-        bookmarksTree = deserializeBookmarksArray(reader, bookmarksTree, bookmarkFolder.getId());
+        BookmarksTree.Builder bookmarksTreeBuilder = BookmarksTree.builder(bookmarkFolder);
+        deserializeBookmarksArray(reader, bookmarksTreeBuilder, bookmarkFolder.getId());
         reader.endObject();
-        return bookmarksTree;
+        return bookmarksTreeBuilder.build();
     }
 
-    private BookmarksTree deserializeBookmark(JsonReader reader, BookmarksTree bookmarksTree, BookmarkId parentId) throws IOException {
+    private void deserializeBookmark(JsonReader reader, BookmarksTree.Builder bookmarksTreeBuilder, BookmarkId parentId) throws IOException {
         reader.beginObject();
         BookmarkId id = null;
         Map<String, String> properties = Collections.emptyMap();
@@ -103,23 +121,21 @@ public class BookmarksTreeJsonDeserializer implements IBookmarksTreeDeserializer
         }
         if (isFolder) {
             BookmarkFolder bookmarkFolder = new BookmarkFolder(id, properties);
-            bookmarksTree = bookmarksTree.addBookmarks(parentId, Arrays.<Bookmark>asList(bookmarkFolder));
-            bookmarksTree = deserializeBookmarksArray(reader, bookmarksTree, bookmarkFolder.getId());
+            bookmarksTreeBuilder.addBookmark(parentId, bookmarkFolder);
+            deserializeBookmarksArray(reader, bookmarksTreeBuilder, bookmarkFolder.getId());
         } else {
             Bookmark bookmark = new Bookmark(id, properties);
-            bookmarksTree = bookmarksTree.addBookmarks(parentId, Arrays.asList(bookmark));
+            bookmarksTreeBuilder.addBookmark(parentId, bookmark);
         }
         reader.endObject();
-        return bookmarksTree;
     }
 
-    private BookmarksTree deserializeBookmarksArray(JsonReader reader, BookmarksTree bookmarksTree, BookmarkId parentId) throws IOException {
+    private void deserializeBookmarksArray(JsonReader reader, BookmarksTree.Builder bookmarksTreeBuilder, BookmarkId parentId) throws IOException {
         reader.beginArray();
         while (reader.hasNext()) {
-            bookmarksTree = deserializeBookmark(reader, bookmarksTree, parentId);
+            deserializeBookmark(reader, bookmarksTreeBuilder, parentId);
         }
         reader.endArray();
-        return bookmarksTree;
     }
 
     private Map<String, String> deserializeProperties(JsonReader reader) throws IOException {
@@ -7,8 +7,12 @@ import mesfavoris.model.BookmarkId;
 import mesfavoris.model.BookmarksTree;
 import mesfavoris.persistence.IBookmarksTreeSerializer;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -21,23 +25,47 @@ import static mesfavoris.persistence.json.JsonSerializerConstants.*;
  *
  */
 public class BookmarksTreeJsonSerializer implements IBookmarksTreeSerializer {
+	private static final int BUFFER_SIZE = 64 * 1024;
 	private final boolean indent;
 
 	public BookmarksTreeJsonSerializer(boolean indent) {
 		this.indent = indent;
 	}
 
-	@Override
+	/**
+	 * Serialize the given bookmarks subTree as json text. The writer is closed.
+	 * 
+	 * @param bookmarksTree
+	 * @param bookmarkFolderId
+	 *            the subtree to serialize
+	 * @param writer
+	 * @throws IOException
+	 */
 	public void serialize(BookmarksTree bookmarksTree, BookmarkId bookmarkFolderId, Writer writer) throws IOException {
-		JsonWriter jsonWriter = new JsonWriter(writer);
+		JsonWriter jsonWriter = createJsonWriter(writer);
         try (jsonWriter) {
-            if (indent) {
-                jsonWriter.setIndent("  ");
-            }
             serialize(bookmarksTree, bookmarkFolderId, jsonWriter);
         }
 	}
 
+	@Override
+	public void serialize(BookmarksTree bookmarksTree, BookmarkId bookmarkFolderId, OutputStream outputStream)
+			throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+		JsonWriter jsonWriter = createJsonWriter(writer);
+		serialize(bookmarksTree, bookmarkFolderId, jsonWriter);
+		// flush but do not close : the stream belongs to the caller
+		jsonWriter.flush();
+	}
+
+	private JsonWriter createJsonWriter(Writer writer) {
+		JsonWriter jsonWriter = new JsonWriter(writer);
+		if (indent) {
+			jsonWriter.setIndent("  ");
+		}
+		return jsonWriter;
+	}
+
 	private void serialize(BookmarksTree bookmarksTree, BookmarkId bookmarkFolderId, JsonWriter writer) throws IOException {
 		writer.beginObject();
 		writer.name(NAME_VERSION).value(VERSION_1_0);
@@ -3,9 +3,14 @@ package mesfavoris.remote;
 import com.intellij.openapi.project.Project;
 import mesfavoris.model.BookmarkId;
 
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
 public abstract class AbstractRemoteBookmarksStore implements IRemoteBookmarksStore {
 	private final Project project;
 	private RemoteBookmarksStoreDescriptor descriptor;
+	private final Map<BookmarkId, String> lastKnownEtags = new ConcurrentHashMap<>();
 
 	public AbstractRemoteBookmarksStore(Project project) {
 		this.project = project;
@@ -45,6 +50,27 @@ public abstract class AbstractRemoteBookmarksStore implements IRemoteBookmarksSt
 				.remoteBookmarksTreeChanged(getDescriptor().id(), bookmarkFolderId);
 	}
 
+	@Override
+	public Optional<String> getLastKnownEtag(BookmarkId bookmarkFolderId) {
+		return Optional.ofNullable(lastKnownEtags.get(bookmarkFolderId));
+	}
+
+	/**
+	 * Keep the etag of a remote bookmarks tree that has just been loaded or
+	 * saved
+	 * 
+	 * @return the given remote bookmarks tree
+	 */
+	protected RemoteBookmarksTree keepEtag(RemoteBookmarksTree remoteBookmarksTree) {
+		BookmarkId bookmarkFolderId = remoteBookmarksTree.getBookmarksTree().getRootFolder().getId();
+		if (remoteBookmarksTree.getEtag() == null) {
+			lastKnownEtags.remove(bookmarkFolderId);
+		} else {
+			lastKnownEtags.put(bookmarkFolderId, remoteBookmarksTree.getEtag());
+		}
+		return remoteBookmarksTree;
+	}
+
 	@Override
 	public void dispose() {
 		// Default implementation does nothing
@@ -44,6 +44,17 @@ public interface IRemoteBookmarksStore extends Disposable {
     RemoteBookmarksTree save(BookmarksTree bookmarksTree, BookmarkId bookmarkFolderId, String etag,
                              ProgressIndicator progressIndicator) throws IOException, ConflictException;
 
+    /**
+     * Get the etag of the last version of the bookmark folder loaded from or saved to this store. It does not
+     * access the remote store.
+     *
+     * @param bookmarkFolderId
+     * @return the etag or empty if unknown
+     */
+    default Optional<String> getLastKnownEtag(BookmarkId bookmarkFolderId) {
+        return Optional.empty();
+    }
+
     /**
      * Delete stored credentials for this remote bookmarks store.
      *
@@ -0,0 +1,146 @@
+package mesfavoris.remote;
+
+import java.util.Set;
+
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.util.JImmutables;
+
+import mesfavoris.model.Bookmark;
+import mesfavoris.model.BookmarkFolder;
+import mesfavoris.model.BookmarkId;
+import mesfavoris.model.BookmarksTree;
+import mesfavoris.model.modification.BookmarkDeletedModification;
+import mesfavoris.model.modification.BookmarkPropertiesModification;
+import mesfavoris.model.modification.BookmarksAddedModification;
+import mesfavoris.model.modification.BookmarksBatchModification;
+import mesfavoris.model.modification.BookmarksModification;
+import mesfavoris.model.modification.BookmarksMovedModification;
+
+/**
+ * Immutable index giving, for each bookmark of a {@link BookmarksTree}, the id
+ * of the remote bookmark folder containing it.
+ * <p>
+ * Only bookmarks under a remote bookmark folder are indexed. The index for the
+ * target tree of a modification is derived from the index of its source tree
+ * by only visiting the modified bookmarks.
+ * </p>
+ */
+class RemoteBookmarkFoldersIndex {
+	private final BookmarksTree bookmarksTree;
+	private final Set<BookmarkId> remoteBookmarkFolderIds;
+	private final JImmutableMap<BookmarkId, BookmarkId> bookmarkToRemoteBookmarkFolder;
+
+	private RemoteBookmarkFoldersIndex(BookmarksTree bookmarksTree, Set<BookmarkId> remoteBookmarkFolderIds,
+			JImmutableMap<BookmarkId, BookmarkId> bookmarkToRemoteBookmarkFolder) {
+		this.bookmarksTree = bookmarksTree;
+		this.remoteBookmarkFolderIds = remoteBookmarkFolderIds;
+		this.bookmarkToRemoteBookmarkFolder = bookmarkToRemoteBookmarkFolder;
+	}
+
+	public static RemoteBookmarkFoldersIndex build(BookmarksTree bookmarksTree,
+			Set<BookmarkId> remoteBookmarkFolderIds) {
+		JImmutableMap<BookmarkId, BookmarkId> bookmarkToRemoteBookmarkFolder = JImmutables.map();
+		for (BookmarkId remoteBookmarkFolderId : remoteBookmarkFolderIds) {
+			if (bookmarksTree.getBookmark(remoteBookmarkFolderId) instanceof BookmarkFolder) {
+				bookmarkToRemoteBookmarkFolder = index(bookmarksTree, remoteBookmarkFolderIds,
+						bookmarkToRemoteBookmarkFolder, remoteBookmarkFolderId, remoteBookmarkFolderId);
+			}
+		}
+		return new RemoteBookmarkFoldersIndex(bookmarksTree, remoteBookmarkFolderIds, bookmarkToRemoteBookmarkFolder);
+	}
+
+	public BookmarksTree getBookmarksTree() {
+		return bookmarksTree;
+	}
+
+	public Set<BookmarkId> getRemoteBookmarkFolderIds() {
+		return remoteBookmarkFolderIds;
+	}
+
+	/**
+	 * Get the id of the remote bookmark folder containing the given bookmark
+	 *
+	 * @param bookmarkId
+	 * @return the remote bookmark folder id or null if the bookmark is not
+	 *         under a remote bookmark folder
+	 */
+	public BookmarkId getRemoteBookmarkFolderId(BookmarkId bookmarkId) {
+		return bookmarkToRemoteBookmarkFolder.get(bookmarkId);
+	}
+
+	/**
+	 * Get the index for the target tree of the given modification
+	 *
+	 * @param modification
+	 *            a modification whose source tree is the tree of this index
+	 * @return the new index
+	 */
+	public RemoteBookmarkFoldersIndex apply(BookmarksModification modification) {
+		if (modification.getSourceTree() != bookmarksTree) {
+			throw new IllegalArgumentException("Modification does not apply to this index");
+		}
+		JImmutableMap<BookmarkId, BookmarkId> newBookmarkToRemoteBookmarkFolder = apply(
+				bookmarkToRemoteBookmarkFolder, modification);
+		if (newBookmarkToRemoteBookmarkFolder == null) {
+			return build(modification.getTargetTree(), remoteBookmarkFolderIds);
+		}
+		return new RemoteBookmarkFoldersIndex(modification.getTargetTree(), remoteBookmarkFolderIds,
+				newBookmarkToRemoteBookmarkFolder);
+	}
+
+	private JImmutableMap<BookmarkId, BookmarkId> apply(JImmutableMap<BookmarkId, BookmarkId> index,
+			BookmarksModification modification) {
+		BookmarksTree targetTree = modification.getTargetTree();
+		if (modification instanceof BookmarksBatchModification batchModification) {
+			for (BookmarksModification innerModification : batchModification.getModifications()) {
+				index = apply(index, innerModification);
+				if (index == null) {
+					return null;
+				}
+			}
+			return index;
+		} else if (modification instanceof BookmarksAddedModification addedModification) {
+			BookmarkId remoteBookmarkFolderId = index.get(addedModification.getParentId());
+			for (Bookmark bookmark : addedModification.getBookmarks()) {
+				index = index(targetTree, remoteBookmarkFolderIds, index, bookmark.getId(), remoteBookmarkFolderId);
+			}
+			return index;
+		} else if (modification instanceof BookmarkDeletedModification deletedModification) {
+			for (Bookmark bookmark : deletedModification.getDeletedBookmarks()) {
+				index = index.delete(bookmark.getId());
+			}
+			return index;
+		} else if (modification instanceof BookmarksMovedModification movedModification) {
+			BookmarkId remoteBookmarkFolderId = index.get(movedModification.getNewParentId());
+			for (BookmarkId bookmarkId : movedModification.getBookmarkIds()) {
+				index = index(targetTree, remoteBookmarkFolderIds, index, bookmarkId, remoteBookmarkFolderId);
+			}
+			return index;
+		} else if (modification instanceof BookmarkPropertiesModification) {
+			return index;
+		}
+		// unknown modification
+		return null;
+	}
+
+	/**
+	 * Index the given bookmark and the bookmarks under it. Remote bookmark
+	 * folders under it are kept as they are.
+	 */
+	private static JImmutableMap<BookmarkId, BookmarkId> index(BookmarksTree bookmarksTree,
+			Set<BookmarkId> remoteBookmarkFolderIds, JImmutableMap<BookmarkId, BookmarkId> index,
+			BookmarkId bookmarkId, BookmarkId remoteBookmarkFolderId) {
+		if (remoteBookmarkFolderIds.contains(bookmarkId)) {
+			remoteBookmarkFolderId = bookmarkId;
+		}
+		index = remoteBookmarkFolderId == null ? index.delete(bookmarkId)
+				: index.assign(bookmarkId, remoteBookmarkFolderId);
+		if (bookmarksTree.getBookmark(bookmarkId) instanceof BookmarkFolder) {
+			for (Bookmark child : bookmarksTree.getChildren(bookmarkId)) {
+				index = index(bookmarksTree, remoteBookmarkFolderIds, index, child.getId(), remoteBookmarkFolderId);
+			}
+		}
+		return index;
+	}
+
+}
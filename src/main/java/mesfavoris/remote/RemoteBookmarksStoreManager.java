@@ -1,25 +1,35 @@
 package mesfavoris.remote;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.project.Project;
-import mesfavoris.model.Bookmark;
-import mesfavoris.model.BookmarkFolder;
 import mesfavoris.model.BookmarkId;
 import mesfavoris.model.BookmarksTree;
+import mesfavoris.model.IBookmarksListener;
+import mesfavoris.model.modification.BookmarksModification;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Manager for remote bookmarks stores.
  * This is a project-level service that provides access to all remote bookmarks stores.
  */
 @Service(Service.Level.PROJECT)
-public final class RemoteBookmarksStoreManager {
+public final class RemoteBookmarksStoreManager implements IBookmarksListener, Disposable {
+	private static final int MAX_INDEXES = 4;
 	private final Supplier<List<IRemoteBookmarksStore>> remoteBookmarksStoreProvider;
+	private final boolean listeningToMappings;
+	// indexes for the most recently used trees, most recently used first
+	private final Deque<RemoteBookmarkFoldersIndex> indexes = new ArrayDeque<>();
 
 	/**
 	 * Gets stores from the RemoteBookmarksStoreExtensionManager.
@@ -29,16 +39,46 @@ public final class RemoteBookmarksStoreManager {
 	public RemoteBookmarksStoreManager(@NotNull Project project) {
 		RemoteBookmarksStoreExtensionManager extensionManager = project.getService(RemoteBookmarksStoreExtensionManager.class);
 		this.remoteBookmarksStoreProvider = extensionManager::getStores;
+		this.listeningToMappings = true;
+		project.getMessageBus().connect(this).subscribe(RemoteBookmarksStoreListener.TOPIC,
+				new RemoteBookmarksStoreListener() {
+					@Override
+					public void remoteBookmarksStoreConnected(String remoteBookmarksStoreId) {
+						clearIndexes();
+					}
+
+					@Override
+					public void remoteBookmarksStoreDisconnected(String remoteBookmarksStoreId) {
+						clearIndexes();
+					}
+
+					@Override
+					public void mappingAdded(String remoteBookmarksStoreId, BookmarkId bookmarkFolderId) {
+						clearIndexes();
+					}
+
+					@Override
+					public void mappingRemoved(String remoteBookmarksStoreId, BookmarkId bookmarkFolderId) {
+						clearIndexes();
+					}
+
+					@Override
+					public void remoteBookmarksTreeChanged(String remoteBookmarksStoreId,
+							BookmarkId bookmarkFolderId) {
+					}
+				});
 	}
 
 	/**
 	 * Constructor for testing.
-	 * Allows providing a custom supplier of stores.
+	 * Allows providing a custom supplier of stores. Mapping events are not
+	 * received, so remote bookmark folders are checked on each lookup.
 	 *
 	 * @param remoteBookmarksStoreProvider Supplier that provides the list of remote bookmarks stores
 	 */
 	public RemoteBookmarksStoreManager(@NotNull Supplier<List<IRemoteBookmarksStore>> remoteBookmarksStoreProvider) {
 		this.remoteBookmarksStoreProvider = remoteBookmarksStoreProvider;
+		this.listeningToMappings = false;
 	}
 
 	public Collection<IRemoteBookmarksStore> getRemoteBookmarksStores() {
@@ -52,33 +92,99 @@ public final class RemoteBookmarksStoreManager {
 	}
 
 	public Optional<RemoteBookmarkFolder> getRemoteBookmarkFolderContaining(BookmarksTree bookmarksTree, BookmarkId bookmarkId) {
-		Bookmark bookmark = bookmarksTree.getBookmark(bookmarkId);
-		if (bookmark == null) {
+		if (bookmarksTree.getBookmark(bookmarkId) == null) {
 			return Optional.empty();
 		}
-		BookmarkFolder bookmarkFolder;
-		if (bookmark instanceof BookmarkFolder) {
-			bookmarkFolder = (BookmarkFolder) bookmark;
-		} else {
-			bookmarkFolder = bookmarksTree.getParentBookmark(bookmark.getId());
+		BookmarkId remoteBookmarkFolderId = getIndex(bookmarksTree).getRemoteBookmarkFolderId(bookmarkId);
+		if (remoteBookmarkFolderId == null) {
+			return Optional.empty();
 		}
-		return getRemoteBookmarkFolderContaining(bookmarksTree, bookmarkFolder);
+		return getRemoteBookmarkFolder(remoteBookmarkFolderId);
 	}
 
-	private Optional<RemoteBookmarkFolder> getRemoteBookmarkFolderContaining(BookmarksTree bookmarksTree,
-			BookmarkFolder bookmarkFolder) {
-		Optional<RemoteBookmarkFolder> remoteBookmarkFolder = getRemoteBookmarkFolder(bookmarkFolder.getId());
-		if (remoteBookmarkFolder.isPresent()) {
-			return remoteBookmarkFolder;
+	/**
+	 * Keep the index of the remote bookmark folders up to date with the
+	 * bookmarks tree
+	 */
+	@Override
+	public void bookmarksModified(List<BookmarksModification> modifications) {
+		for (BookmarksModification modification : modifications) {
+			indexModification(modification);
 		}
-		BookmarkFolder parent = bookmarksTree.getParentBookmark(bookmarkFolder.getId());
-		if (parent == null) {
-			return Optional.empty();
-		} else {
-			return getRemoteBookmarkFolderContaining(bookmarksTree, parent);
+	}
+
+	/**
+	 * Derive the index for the target tree of the given modification from the
+	 * index of its source tree, if there is one.
+	 * <p>
+	 * This lets a chain of modifications (the intermediate trees of a
+	 * {@link mesfavoris.model.modification.BookmarksTreeModifier}) be looked up
+	 * without building an index for each intermediate tree.
+	 * </p>
+	 *
+	 * @param modification
+	 */
+	public void indexModification(BookmarksModification modification) {
+		synchronized (indexes) {
+			RemoteBookmarkFoldersIndex index = findIndex(modification.getSourceTree());
+			if (index != null && findIndex(modification.getTargetTree()) == null) {
+				addIndex(index.apply(modification));
+			}
+		}
+	}
+
+	private RemoteBookmarkFoldersIndex getIndex(BookmarksTree bookmarksTree) {
+		Set<BookmarkId> remoteBookmarkFolderIds = listeningToMappings ? null : getRemoteBookmarkFolderIds();
+		synchronized (indexes) {
+			RemoteBookmarkFoldersIndex index = findIndex(bookmarksTree);
+			if (index != null && (remoteBookmarkFolderIds == null
+					|| remoteBookmarkFolderIds.equals(index.getRemoteBookmarkFolderIds()))) {
+				return index;
+			}
+			if (index != null) {
+				indexes.clear();
+			}
+			if (remoteBookmarkFolderIds == null) {
+				remoteBookmarkFolderIds = getRemoteBookmarkFolderIds();
+			}
+			index = RemoteBookmarkFoldersIndex.build(bookmarksTree, remoteBookmarkFolderIds);
+			addIndex(index);
+			return index;
 		}
 	}
 
+	private RemoteBookmarkFoldersIndex findIndex(BookmarksTree bookmarksTree) {
+		Iterator<RemoteBookmarkFoldersIndex> iterator = indexes.iterator();
+		while (iterator.hasNext()) {
+			RemoteBookmarkFoldersIndex index = iterator.next();
+			if (index.getBookmarksTree() == bookmarksTree) {
+				// keep the most recently used first
+				iterator.remove();
+				indexes.addFirst(index);
+				return index;
+			}
+		}
+		return null;
+	}
+
+	private void addIndex(RemoteBookmarkFoldersIndex index) {
+		indexes.addFirst(index);
+		if (indexes.size() > MAX_INDEXES) {
+			indexes.removeLast();
+		}
+	}
+
+	private void clearIndexes() {
+		synchronized (indexes) {
+			indexes.clear();
+		}
+	}
+
+	private Set<BookmarkId> getRemoteBookmarkFolderIds() {
+		return getRemoteBookmarksStores().stream().flatMap(store -> store.getRemoteBookmarkFolders().stream())
+				.map(RemoteBookmarkFolder::getBookmarkFolderId).collect(Collectors.toSet());
+	}
+
 	public Optional<RemoteBookmarkFolder> getRemoteBookmarkFolder(BookmarkId bookmarkFolderId) {
 		for (IRemoteBookmarksStore store : getRemoteBookmarksStores()) {
 			Optional<RemoteBookmarkFolder> remoteBookmarkFolder = store.getRemoteBookmarkFolder(bookmarkFolderId);
@@ -89,4 +195,9 @@ public final class RemoteBookmarksStoreManager {
 		return Optional.empty();
 	}
 
+	@Override
+	public void dispose() {
+		clearIndexes();
+	}
+
 }
@@ -167,6 +167,16 @@ public interface IBookmarksService {
      */
     void modifyBookmark(BookmarkId bookmarkId, Map<String, String> changedProperties) throws BookmarksException;
 
+    /**
+     * Modify several bookmarks by merging the given properties into the existing ones of each bookmark.
+     * All bookmarks are modified in a single modification.
+     *
+     * @param bookmarkIds       the bookmark IDs
+     * @param changedProperties the properties to update
+     * @throws BookmarksException if one of the bookmarks cannot be modified
+     */
+    void modifyBookmarks(List<BookmarkId> bookmarkIds, Map<String, String> changedProperties) throws BookmarksException;
+
     /**
      * Copy bookmarks to clipboard
      *
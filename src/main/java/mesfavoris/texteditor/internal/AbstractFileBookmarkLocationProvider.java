@@ -6,6 +6,10 @@ import com.intellij.openapi.util.TextRange;
 import mesfavoris.bookmarktype.IBookmarkLocationProvider;
 import mesfavoris.model.Bookmark;
 import mesfavoris.texteditor.text.matching.DocumentFuzzySearcher;
+import mesfavoris.texteditor.text.matching.DocumentFuzzySearcher.LineSearch;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import static mesfavoris.texteditor.TextEditorBookmarkProperties.PROP_LINE_NUMBER;
 
@@ -23,12 +27,7 @@ public abstract class AbstractFileBookmarkLocationProvider implements IBookmarkL
 									ProgressIndicator progress) {
 		try {
 			DocumentFuzzySearcher searcher = new DocumentFuzzySearcher(document);
-			TextRange region;
-			if (expectedLineNumber == null) {
-				region = new TextRange(0, document.getTextLength());
-			} else {
-				region = getRegionAround(document, expectedLineNumber, 1000);
-			}
+			TextRange region = getRegion(document, expectedLineNumber);
 			int lineNumber = searcher.findLineNumber(region, expectedLineNumber == null ? -1 : expectedLineNumber,
 					lineContent, progress);
 			if (lineNumber == -1) {
@@ -40,6 +39,48 @@ public abstract class AbstractFileBookmarkLocationProvider implements IBookmarkL
 		}
 	}
 	
+	/**
+	 * Get the line numbers of several line contents in the same document
+	 * 
+	 * @param document
+	 * @param expectedLineNumbers
+	 *            the expected line number of each line content, or null
+	 * @param lineContents
+	 * @param progress
+	 * @return the line number of each line content, or null if not found
+	 */
+	protected List<Integer> getLineNumbers(Document document, List<Integer> expectedLineNumbers,
+			List<String> lineContents, ProgressIndicator progress) {
+		List<Integer> lineNumbers = new ArrayList<>(lineContents.size());
+		List<LineSearch> lineSearches = new ArrayList<>(lineContents.size());
+		try {
+			for (int i = 0; i < lineContents.size(); i++) {
+				Integer expectedLineNumber = expectedLineNumbers.get(i);
+				lineSearches.add(new LineSearch(getRegion(document, expectedLineNumber),
+						expectedLineNumber == null ? -1 : expectedLineNumber, lineContents.get(i)));
+			}
+		} catch (IndexOutOfBoundsException e) {
+			// expected line numbers are out of the document : search one by one
+			for (int i = 0; i < lineContents.size(); i++) {
+				lineNumbers.add(getLineNumber(document, expectedLineNumbers.get(i), lineContents.get(i), progress));
+			}
+			return lineNumbers;
+		}
+		int[] foundLineNumbers = new DocumentFuzzySearcher(document).findLineNumbers(lineSearches, progress);
+		for (int foundLineNumber : foundLineNumbers) {
+			lineNumbers.add(foundLineNumber == -1 ? null : foundLineNumber);
+		}
+		return lineNumbers;
+	}
+
+	private TextRange getRegion(Document document, Integer expectedLineNumber) throws IndexOutOfBoundsException {
+		if (expectedLineNumber == null) {
+			return new TextRange(0, document.getTextLength());
+		} else {
+			return getRegionAround(document, expectedLineNumber, 1000);
+		}
+	}
+
 	private TextRange getRegionAround(Document document, int lineNumber, int linesAround) throws IndexOutOfBoundsException {
 		int firstLine = lineNumber - linesAround;
 		if (firstLine < 0) {
@@ -1,6 +1,5 @@
 package mesfavoris.texteditor.internal;
 
-import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.module.Module;
@@ -9,7 +8,9 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.ProjectFileIndex;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFileSystemItem;
+import mesfavoris.commons.ReadActions;
 import mesfavoris.model.Bookmark;
+import mesfavoris.model.BookmarkId;
 import mesfavoris.path.internal.resource.PathDistanceComputer;
 import mesfavoris.path.resource.FuzzyResourceFinder;
 import mesfavoris.path.resource.IPathDistanceComputer;
@@ -17,6 +18,11 @@ import mesfavoris.texteditor.TextEditorBookmarkProperties;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static mesfavoris.texteditor.TextEditorBookmarkProperties.PROP_WORKSPACE_PATH;
@@ -31,30 +37,84 @@ public class WorkspaceFileBookmarkLocationProvider extends AbstractFileBookmarkL
 
     @Override
     public WorkspaceFileBookmarkLocation getBookmarkLocation(Project project, Bookmark bookmark, ProgressIndicator monitor) {
-        return ReadAction.compute(() -> {
-            Optional<VirtualFile> workspaceFile = getWorkspaceFile(project, bookmark, monitor);
-            if (workspaceFile.isEmpty()) {
-                return null;
+        return getBookmarkLocations(project, List.of(bookmark), monitor).get(bookmark.getId());
+    }
+
+    /**
+     * Get the locations of the given bookmarks. The file of bookmarks with the same workspace path is only searched
+     * once and all their lines are searched together, in a non-blocking read action that does not delay write
+     * actions.
+     */
+    @Override
+    public Map<BookmarkId, WorkspaceFileBookmarkLocation> getBookmarkLocations(Project project, List<Bookmark> bookmarks, ProgressIndicator monitor) {
+        Map<String, List<Bookmark>> bookmarksByWorkspacePath = new LinkedHashMap<>();
+        for (Bookmark bookmark : bookmarks) {
+            String workspacePath = bookmark.getPropertyValue(PROP_WORKSPACE_PATH);
+            if (workspacePath != null) {
+                bookmarksByWorkspacePath.computeIfAbsent(workspacePath, path -> new ArrayList<>()).add(bookmark);
             }
-            String lineContent = bookmark.getPropertyValue(TextEditorBookmarkProperties.PROP_LINE_CONTENT);
+        }
+        Map<BookmarkId, WorkspaceFileBookmarkLocation> bookmarkLocations = new HashMap<>();
+        for (Map.Entry<String, List<Bookmark>> entry : bookmarksByWorkspacePath.entrySet()) {
+            monitor.checkCanceled();
+            // the read action is restarted if a write action arrives, so the file is searched again
+            bookmarkLocations.putAll(ReadActions.computeCancellable(project, monitor, readActionProgress -> {
+                Optional<VirtualFile> workspaceFile = getWorkspaceFile(project, entry.getKey(), readActionProgress);
+                return workspaceFile.map(file -> getBookmarkLocations(file, entry.getValue(), readActionProgress))
+                        .orElse(Map.of());
+            }));
+        }
+        return bookmarkLocations;
+    }
+
+    private Map<BookmarkId, WorkspaceFileBookmarkLocation> getBookmarkLocations(VirtualFile workspaceFile, List<Bookmark> bookmarks, ProgressIndicator monitor) {
+        Document document = fileDocumentManager.getDocument(workspaceFile);
+        List<Integer> lineNumbers = new ArrayList<>(bookmarks.size());
+        List<Integer> searchedLineNumbers = new ArrayList<>();
+        List<String> searchedLineContents = new ArrayList<>();
+        for (Bookmark bookmark : bookmarks) {
             Integer lineNumber = getExpectedLineNumber(bookmark);
-            Integer lineOffset = null;
-            Document document = fileDocumentManager.getDocument(workspaceFile.get());
+            String lineContent = bookmark.getPropertyValue(TextEditorBookmarkProperties.PROP_LINE_CONTENT);
+            lineNumbers.add(lineNumber);
             if (lineContent != null && document != null) {
-                lineNumber = getLineNumber(document, lineNumber, lineContent, monitor);
+                searchedLineNumbers.add(lineNumber);
+                searchedLineContents.add(lineContent);
             }
+        }
+        if (!searchedLineContents.isEmpty()) {
+            List<Integer> foundLineNumbers = getLineNumbers(document, searchedLineNumbers, searchedLineContents, monitor);
+            int searchIndex = 0;
+            for (int i = 0; i < bookmarks.size(); i++) {
+                if (bookmarks.get(i).getPropertyValue(TextEditorBookmarkProperties.PROP_LINE_CONTENT) != null) {
+                    lineNumbers.set(i, foundLineNumbers.get(searchIndex++));
+                }
+            }
+        }
+        Map<BookmarkId, WorkspaceFileBookmarkLocation> bookmarkLocations = new HashMap<>();
+        for (int i = 0; i < bookmarks.size(); i++) {
+            Integer lineNumber = lineNumbers.get(i);
+            Integer lineOffset = null;
             if (document != null && lineNumber != null) {
                 lineOffset = getLineOffset(document, lineNumber);
             }
-            return new WorkspaceFileBookmarkLocation(workspaceFile.get(), lineNumber, lineOffset);
-        });
+            bookmarkLocations.put(bookmarks.get(i).getId(), new WorkspaceFileBookmarkLocation(workspaceFile, lineNumber, lineOffset));
+        }
+        return bookmarkLocations;
     }
 
-    private Optional<VirtualFile> getWorkspaceFile(Project project, Bookmark bookmark, ProgressIndicator progress) {
-        String workspacePath = bookmark.getPropertyValue(PROP_WORKSPACE_PATH);
-        if (workspacePath == null) {
-            return Optional.empty();
+    private Optional<VirtualFile> getWorkspaceFile(Project project, String workspacePath, ProgressIndicator progress) {
+        ProjectFileIndex projectFileIndex = ProjectFileIndex.getInstance(project);
+        WorkspaceFileCache workspaceFileCache = WorkspaceFileCache.getInstance(project);
+        Optional<VirtualFile> cachedFile = workspaceFileCache.get(workspacePath);
+        if (cachedFile.isPresent() && projectFileIndex.isInContent(cachedFile.get())) {
+            return cachedFile;
         }
+        Optional<VirtualFile> workspaceFile = findWorkspaceFile(project, workspacePath, progress);
+        workspaceFile.ifPresent(file -> workspaceFileCache.put(workspacePath, file));
+        return workspaceFile;
+    }
+
+    private Optional<VirtualFile> findWorkspaceFile(Project project, String workspacePath, ProgressIndicator progress) {
         Path expectedPath = Paths.get(workspacePath);
         ProjectFileIndex projectFileIndex = ProjectFileIndex.getInstance(project);
         FuzzyResourceFinder.FileSystemItemPathProvider fileSystemItemPathProvider = (item) -> {
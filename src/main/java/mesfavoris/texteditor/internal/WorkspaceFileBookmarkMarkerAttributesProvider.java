@@ -1,14 +1,15 @@
 package mesfavoris.texteditor.internal;
 
-import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
 import mesfavoris.bookmarktype.BookmarkMarker;
 import mesfavoris.bookmarktype.IBookmarkMarkerAttributesProvider;
 import mesfavoris.bookmarktype.IFileBookmarkLocation;
 import mesfavoris.model.Bookmark;
+import mesfavoris.model.BookmarkId;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -27,7 +28,24 @@ public class WorkspaceFileBookmarkMarkerAttributesProvider implements IBookmarkM
 
 	@Override
 	public BookmarkMarker getMarkerDescriptor(Project project, Bookmark bookmark, Optional<IFileBookmarkLocation> fileBookmarkLocation, ProgressIndicator monitor) {
-		IFileBookmarkLocation location = fileBookmarkLocation.orElseGet(() -> ReadAction.compute(() -> workspaceFileBookmarkLocationProvider.getBookmarkLocation(project, bookmark, monitor)));
+		IFileBookmarkLocation location = fileBookmarkLocation.orElseGet(() -> workspaceFileBookmarkLocationProvider.getBookmarkLocation(project, bookmark, monitor));
+		return getMarkerDescriptor(bookmark, location);
+	}
+
+	@Override
+	public Map<BookmarkId, BookmarkMarker> getMarkerDescriptors(Project project, List<Bookmark> bookmarks, ProgressIndicator monitor) {
+		Map<BookmarkId, WorkspaceFileBookmarkLocation> locations = workspaceFileBookmarkLocationProvider.getBookmarkLocations(project, bookmarks, monitor);
+		Map<BookmarkId, BookmarkMarker> bookmarkMarkers = new HashMap<>();
+		for (Bookmark bookmark : bookmarks) {
+			BookmarkMarker bookmarkMarker = getMarkerDescriptor(bookmark, locations.get(bookmark.getId()));
+			if (bookmarkMarker != null) {
+				bookmarkMarkers.put(bookmark.getId(), bookmarkMarker);
+			}
+		}
+		return bookmarkMarkers;
+	}
+
+	private BookmarkMarker getMarkerDescriptor(Bookmark bookmark, IFileBookmarkLocation location) {
 		if (location == null) {
 			return null;
 		}
@@ -0,0 +1,208 @@
+package mesfavoris.texteditor.internal;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.util.xmlb.annotations.MapAnnotation;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the files resolved for workspace paths (see
+ * {@link mesfavoris.texteditor.TextEditorBookmarkProperties#PROP_WORKSPACE_PATH}), so that the file index does not
+ * need to be searched again for the same workspace path.
+ * <p>
+ * An entry is removed when its file is moved, renamed or deleted, or when a file with the same name is created,
+ * because the file could then be a better match. Files created with a directory do not get their own events, so
+ * creating or copying a directory in the project content removes the entries under it. The cache is persisted in the
+ * workspace file.
+ * </p>
+ */
+@Service(Service.Level.PROJECT)
+@State(name = "WorkspaceFileCache", storages = @Storage(StoragePathMacros.WORKSPACE_FILE))
+public final class WorkspaceFileCache implements PersistentStateComponent<WorkspaceFileCache.State>, Disposable {
+    private final Project project;
+    private final Map<String, String> fileUrls = new ConcurrentHashMap<>();
+
+    public WorkspaceFileCache(@NotNull Project project) {
+        this.project = project;
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new FileChangesListener());
+    }
+
+    public static WorkspaceFileCache getInstance(Project project) {
+        return project.getService(WorkspaceFileCache.class);
+    }
+
+    /**
+     * Get the cached file for the given workspace path
+     *
+     * @param workspacePath
+     * @return the file or empty if not cached or no longer valid
+     */
+    public Optional<VirtualFile> get(String workspacePath) {
+        String fileUrl = fileUrls.get(workspacePath);
+        if (fileUrl == null) {
+            return Optional.empty();
+        }
+        VirtualFile file = VirtualFileManager.getInstance().findFileByUrl(fileUrl);
+        if (file == null || !file.isValid()) {
+            fileUrls.remove(workspacePath, fileUrl);
+            return Optional.empty();
+        }
+        return Optional.of(file);
+    }
+
+    public void put(String workspacePath, VirtualFile file) {
+        fileUrls.put(workspacePath, file.getUrl());
+    }
+
+    public void clear() {
+        fileUrls.clear();
+    }
+
+    @Override
+    public State getState() {
+        State state = new State();
+        state.fileUrls = new TreeMap<>(fileUrls);
+        return state;
+    }
+
+    @Override
+    public void loadState(@NotNull State state) {
+        fileUrls.clear();
+        fileUrls.putAll(state.fileUrls);
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    private void invalidate(List<? extends VFileEvent> events) {
+        Set<String> fileUrlsToRemove = new HashSet<>();
+        Set<String> fileNames = new HashSet<>();
+        Set<Path> directoryWorkspacePaths = new HashSet<>();
+        for (VFileEvent event : events) {
+            if (event instanceof VFileCreateEvent createEvent) {
+                if (createEvent.isDirectory()) {
+                    addDirectory(createEvent.getParent(), createEvent.getChildName(), fileUrlsToRemove,
+                            directoryWorkspacePaths);
+                } else {
+                    fileNames.add(createEvent.getChildName());
+                }
+            } else if (event instanceof VFileCopyEvent copyEvent) {
+                if (copyEvent.getFile().isDirectory()) {
+                    addDirectory(copyEvent.getNewParent(), copyEvent.getNewChildName(), fileUrlsToRemove,
+                            directoryWorkspacePaths);
+                } else {
+                    fileNames.add(copyEvent.getNewChildName());
+                }
+            } else if (event instanceof VFilePropertyChangeEvent propertyChangeEvent && propertyChangeEvent.isRename()) {
+                fileUrlsToRemove.add(propertyChangeEvent.getFile().getUrl());
+                fileNames.add((String) propertyChangeEvent.getNewValue());
+            } else if (event instanceof VFileMoveEvent moveEvent) {
+                fileUrlsToRemove.add(moveEvent.getFile().getUrl());
+            } else if (event instanceof VFileDeleteEvent deleteEvent) {
+                fileUrlsToRemove.add(deleteEvent.getFile().getUrl());
+            }
+        }
+        if (fileUrlsToRemove.isEmpty() && fileNames.isEmpty() && directoryWorkspacePaths.isEmpty()) {
+            return;
+        }
+        fileUrls.entrySet().removeIf(entry -> fileNames.contains(getFileName(entry.getKey()))
+                || isSameOrDescendant(entry.getValue(), fileUrlsToRemove)
+                || isUnder(entry.getKey(), directoryWorkspacePaths));
+    }
+
+    /**
+     * Add the url and the workspace path of a created directory, unless it is outside the project content
+     */
+    private void addDirectory(VirtualFile parent, String directoryName, Set<String> fileUrlsToRemove,
+            Set<Path> directoryWorkspacePaths) {
+        if (parent == null || !parent.isValid()) {
+            return;
+        }
+        ProjectFileIndex projectFileIndex = ProjectFileIndex.getInstance(project);
+        if (!projectFileIndex.isInContent(parent)) {
+            return;
+        }
+        fileUrlsToRemove.add(parent.getUrl() + "/" + directoryName);
+        // workspace paths are relative to the content root
+        VirtualFile contentRoot = projectFileIndex.getContentRootForFile(parent);
+        if (contentRoot != null) {
+            directoryWorkspacePaths.add(Paths.get(contentRoot.getPath()).relativize(Paths.get(parent.getPath()))
+                    .resolve(directoryName));
+        }
+    }
+
+    private static String getFileName(String workspacePath) {
+        Path fileName = Paths.get(workspacePath).getFileName();
+        return fileName == null ? null : fileName.toString();
+    }
+
+    private static boolean isUnder(String workspacePath, Set<Path> directoryWorkspacePaths) {
+        if (directoryWorkspacePaths.isEmpty()) {
+            return false;
+        }
+        Path path = Paths.get(workspacePath);
+        for (Path directoryWorkspacePath : directoryWorkspacePaths) {
+            if (path.startsWith(directoryWorkspacePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSameOrDescendant(String fileUrl, Set<String> ancestorUrls) {
+        for (String ancestorUrl : ancestorUrls) {
+            if (fileUrl.equals(ancestorUrl) || fileUrl.startsWith(ancestorUrl + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static class State {
+        @MapAnnotation(surroundWithTag = false, entryTagName = "file", keyAttributeName = "workspacePath", valueAttributeName = "url")
+        public Map<String, String> fileUrls = new TreeMap<>();
+    }
+
+    private class FileChangesListener implements BulkFileListener {
+
+        @Override
+        public void before(@NotNull List<? extends VFileEvent> events) {
+            // urls of moved, renamed and deleted files are only known before the change
+            invalidate(events);
+        }
+
+        @Override
+        public void after(@NotNull List<? extends VFileEvent> events) {
+            // a file may have been resolved between before and after
+            invalidate(events);
+        }
+
+    }
+
+}
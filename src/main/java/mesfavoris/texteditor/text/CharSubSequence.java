@@ -58,7 +58,7 @@ public class CharSubSequence implements CharSequence {
 		if (end > length) {
 			throw new IndexOutOfBoundsException("end must be smaller or equal than length");
 		}
-		return new CharSubSequence(parent, offset + start, end - start + 1);
+		return new CharSubSequence(parent, offset + start, offset + end);
 	}
 
 	@Override
@@ -1,61 +1,57 @@
 package mesfavoris.texteditor.text;
 
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.Arrays;
 
 /**
- * A partial view from a CharSequence. The parent {@link CharSequence} is
+ * A partial copy from a CharSequence. The parent {@link CharSequence} is
  * filtered using {@link ICharSequenceFilter}
+ * <p>
+ * The filtered chars are copied in a single pass, with the index of each one
+ * in the parent, so that {@link #charAt(int)} and {@link #getParentIndex(int)}
+ * are constant-time.
+ * </p>
  * 
  * @author cchabanois
  *
  */
 public class FilteredCharSequence implements CharSequence {
-	private final CharSequence parent;
-	private final TreeMap<Integer, CharSubSequence> subSequences;
+	private final int parentLength;
+	private final char[] chars;
+	private final int[] parentIndexes;
 	private final int length;
 
 	public FilteredCharSequence(CharSequence parent, ICharSequenceFilter filter) {
-		this.parent = parent;
-		this.subSequences = getSubSequences(parent, filter);
-		Map.Entry<Integer, CharSubSequence> entry = subSequences.floorEntry(Integer.MAX_VALUE);
-		if (entry == null) {
-			this.length = 0;
-		} else {
-			this.length = entry.getKey() + entry.getValue().length();
-		}
+		this(parent, filter, false);
 	}
 
-	private TreeMap<Integer, CharSubSequence> getSubSequences(CharSequence parent, ICharSequenceFilter filter) {
-		TreeMap<Integer, CharSubSequence> subSequences = new TreeMap<>();
-		int lengthSource = parent.length();
+	/**
+	 * 
+	 * @param parent
+	 * @param filter
+	 * @param lowerCase
+	 *            true to also convert the filtered chars to lower case
+	 */
+	public FilteredCharSequence(CharSequence parent, ICharSequenceFilter filter, boolean lowerCase) {
+		this.parentLength = parent.length();
+		this.chars = new char[parentLength];
+		this.parentIndexes = new int[parentLength];
 		int indexSource = 0;
 		int indexTarget = 0;
-		int subSequenceStartIndexSource = -1;
-		int subSequenceStartIndexTarget = -1;
-		while (indexSource < lengthSource) {
+		while (indexSource < parentLength) {
 			int previousIndexSource = indexSource;
 			indexSource = filter.nextCharIndex(parent, indexSource);
 			if (indexSource < previousIndexSource) {
 				throw new IllegalStateException("filter is not valid");
 			}
-			if (subSequenceStartIndexSource == -1) {
-				subSequenceStartIndexSource = indexSource;
-				subSequenceStartIndexTarget = indexTarget;
-			} else if (indexSource != previousIndexSource) {
-				subSequences.put(subSequenceStartIndexTarget,
-						new CharSubSequence(parent, subSequenceStartIndexSource, previousIndexSource));
-				subSequenceStartIndexSource = indexSource;
-				subSequenceStartIndexTarget = indexTarget;
+			if (indexSource < parentLength) {
+				char c = parent.charAt(indexSource);
+				chars[indexTarget] = lowerCase ? Character.toLowerCase(c) : c;
+				parentIndexes[indexTarget] = indexSource;
+				indexTarget++;
 			}
 			indexSource++;
-			indexTarget++;
 		}
-		if (subSequenceStartIndexSource != lengthSource) {
-			subSequences.put(subSequenceStartIndexTarget,
-					new CharSubSequence(parent, subSequenceStartIndexSource, lengthSource));
-		}
-		return subSequences;
+		this.length = indexTarget;
 	}
 
 	@Override
@@ -66,14 +62,16 @@ public class FilteredCharSequence implements CharSequence {
 	@Override
 	public char charAt(int index) {
 		checkIndexValidity(index);
-		Map.Entry<Integer, CharSubSequence> entry = subSequences.floorEntry(index);
-		return entry.getValue().charAt(index - entry.getKey());
+		return chars[index];
+	}
+
+	public int getParentLength() {
+		return parentLength;
 	}
 
 	public int getParentIndex(int index) {
 		checkIndexValidity(index);
-		Map.Entry<Integer, CharSubSequence> entry = subSequences.floorEntry(index);
-		return entry.getValue().getParentIndex(index - entry.getKey());
+		return parentIndexes[index];
 	}
 
 	/**
@@ -85,25 +83,16 @@ public class FilteredCharSequence implements CharSequence {
 		if (parentIndex < 0) {
 			throw new IndexOutOfBoundsException("index must be larger than 0");
 		}
-		if (parentIndex >= parent.length()) {
+		if (parentIndex >= parentLength) {
 			throw new IndexOutOfBoundsException("index must be smaller than length");
 		}
-		// use binary search
-		int low = 0;
-		int high = length - 1;
-		while (low <= high) {
-			int mid = (low + high) >>> 1;
-			int midVal = getParentIndex(mid);
-			if (midVal < parentIndex)
-				low = mid + 1;
-			else if (midVal > parentIndex)
-				high = mid - 1;
-			else
-				return mid;
+		int index = Arrays.binarySearch(parentIndexes, 0, length, parentIndex);
+		if (index < 0) {
+			// parent char filtered
+			// we return the insertion point
+			index = -(index + 1);
 		}
-		// parent char filtered
-		// we return the insertion point
-		return low;
+		return index;
 	}
 	
 	private void checkIndexValidity(int index) throws IndexOutOfBoundsException {
@@ -122,9 +111,7 @@ public class FilteredCharSequence implements CharSequence {
 
 	@Override
 	public String toString() {
-		StringBuilder sb = new StringBuilder(length);
-		sb.append(this);
-		return sb.toString();
+		return new String(chars, 0, length);
 	}
 
 }
@@ -0,0 +1,164 @@
+package mesfavoris.texteditor.text.matching;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+
+/**
+ * Use the bitap algorithm to find a fuzzy match.
+ *
+ * This version can use a pattern of any length. Bit vectors are stored in
+ * several longs (least significant word first) and nothing is allocated per
+ * character, unlike {@link BitapBigIntegerStringMatcher}.
+ *
+ * This is a modified version of the bitap java implementation from
+ * http://code.google.com/p/google-diff-match-patch/ as starting point (Apache
+ * License, Version 2.0)
+ *
+ */
+public class BitapMultiWordStringMatcher implements IFuzzyStringMatcher {
+	private final float matchThreshold;
+	private final IMatchScoreComputer matchScoreComputer;
+
+	public BitapMultiWordStringMatcher(IMatchScoreComputer matchScoreComputer) {
+		this(0.5f, matchScoreComputer);
+	}
+
+	/**
+	 *
+	 * @param matchThreshold
+	 *            At what point is no match declared (0.0 = perfection, 1.0 =
+	 *            very loose)
+	 * @param matchScoreComputer
+	 */
+	public BitapMultiWordStringMatcher(float matchThreshold, IMatchScoreComputer matchScoreComputer) {
+		this.matchThreshold = matchThreshold;
+		this.matchScoreComputer = matchScoreComputer;
+	}
+
+	/**
+	 * Locate the best instance of 'pattern' in 'text' near 'expectedLocation'.
+	 * Returns -1 if no match found.
+	 *
+	 * @param text
+	 *            The text to search.
+	 * @param pattern
+	 *            The pattern to search for.
+	 * @param expectedLocation
+	 *            The location to search around.
+	 * @return Best match index or -1.
+	 */
+	public int find(CharSequence text, String pattern, int expectedLocation, ProgressIndicator progress) {
+		FuzzyMatch match = findBestMatch(text, pattern, expectedLocation, progress);
+		return match == null ? -1 : match.location();
+	}
+
+	/**
+	 * Same as {@link #find(CharSequence, String, int, ProgressIndicator)} but
+	 * also returns the score of the match.
+	 *
+	 * @return the best match or null if no match found
+	 */
+	FuzzyMatch findBestMatch(CharSequence text, String pattern, int expectedLocation, ProgressIndicator progress) {
+		progress.setIndeterminate(false);
+		progress.setText("Searching pattern");
+		int words = (pattern.length() + 63) / 64;
+		// Initialise the alphabet.
+		PatternAlphabet alphabet = new PatternAlphabet(pattern);
+		long[] charMasks = charMasks(pattern, alphabet, words);
+
+		// Highest score beyond which we give up.
+		double scoreThreshold = matchThreshold;
+		int bestLocation = -1;
+
+		// Initialise the bit arrays.
+		int matchWord = (pattern.length() - 1) / 64;
+		long matchMask = 1L << ((pattern.length() - 1) % 64);
+
+		int startLocation = 1;
+		int textLength = text.length();
+		int finishLocation = textLength + pattern.length();
+		// row j of the bitap table is stored in [j * words, (j + 1) * words[
+		long[] rd = new long[(finishLocation + 2) * words];
+		long[] last_rd = new long[(finishLocation + 2) * words];
+		int[] textCharIndexes = new int[textLength];
+		for (int i = 0; i < textLength; i++) {
+			textCharIndexes[i] = alphabet.indexOf(text.charAt(i));
+		}
+		for (int passNumber = 0; passNumber < pattern.length(); passNumber++) {
+			progress.checkCanceled();
+			// Scan for the best match; each iteration allows for one more
+			// error.
+			setLowBits(rd, (finishLocation + 1) * words, words, passNumber);
+			for (int j = finishLocation; j >= startLocation; j--) {
+				int row = j * words;
+				int nextRow = row + words;
+				int charIndex = textLength <= j - 1 ? -1 : textCharIndexes[j - 1];
+				// carries of the left shifts. The first one is the "| 1"
+				long rdCarry = 1L;
+				long lastRdCarry = 1L;
+				for (int w = 0; w < words; w++) {
+					long next = rd[nextRow + w];
+					long charMatch = charIndex == -1 ? 0 : charMasks[charIndex * words + w];
+					long value = ((next << 1) | rdCarry) & charMatch;
+					rdCarry = next >>> 63;
+					if (passNumber != 0) {
+						// Subsequent passes: fuzzy match.
+						long lastNext = last_rd[nextRow + w];
+						long last = lastNext | last_rd[row + w];
+						value |= ((last << 1) | lastRdCarry) | lastNext;
+						lastRdCarry = last >>> 63;
+					}
+					rd[row + w] = value;
+				}
+				if ((rd[row + matchWord] & matchMask) != 0) {
+					double score = matchScoreComputer.score(passNumber, j - 1, expectedLocation, pattern);
+					// This match will almost certainly be better than any
+					// existing match. But check anyway.
+					if (score <= scoreThreshold) {
+						// Told you so.
+						scoreThreshold = score;
+						bestLocation = j - 1;
+					}
+				}
+			}
+			if (matchScoreComputer.score(passNumber + 1, expectedLocation, expectedLocation,
+					pattern) > scoreThreshold) {
+				// No hope for a (better) match at greater error levels.
+				break;
+			}
+			long[] previous = last_rd;
+			last_rd = rd;
+			rd = previous;
+			progress.setFraction((passNumber+1)/pattern.length());
+		}
+		progress.setFraction(1);
+		return bestLocation == -1 ? null : new FuzzyMatch(bestLocation, scoreThreshold);
+	}
+
+	private void setLowBits(long[] bits, int offset, int words, int count) {
+		for (int w = 0; w < words; w++) {
+			int bitsInWord = Math.max(0, Math.min(64, count - w * 64));
+			bits[offset + w] = bitsInWord == 64 ? -1L : (1L << bitsInWord) - 1;
+		}
+	}
+
+	/**
+	 * Initialise the alphabet for the Bitap algorithm.
+	 *
+	 * @param pattern
+	 *            The text to encode.
+	 * @param alphabet
+	 *            the alphabet of the pattern
+	 * @param words
+	 *            number of longs for each mask
+	 * @return the bit masks of each character of the alphabet
+	 */
+	private long[] charMasks(String pattern, PatternAlphabet alphabet, int words) {
+		long[] charMasks = new long[alphabet.size() * words];
+		for (int i = 0; i < pattern.length(); i++) {
+			int bit = pattern.length() - i - 1;
+			charMasks[alphabet.indexOf(pattern.charAt(i)) * words + bit / 64] |= 1L << (bit % 64);
+		}
+		return charMasks;
+	}
+
+}
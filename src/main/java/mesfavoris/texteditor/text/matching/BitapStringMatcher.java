@@ -2,8 +2,7 @@ package mesfavoris.texteditor.text.matching;
 
 import com.intellij.openapi.progress.ProgressIndicator;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Use the bitap algorithm to find a fuzzy match.
@@ -18,7 +17,10 @@ import java.util.Map;
 public class BitapStringMatcher implements IFuzzyStringMatcher {
 
 	// The number of bits in a long.
-	private final short maxBits = 64;
+	private static final int MAX_BITS = 64;
+	// larger buffers are not kept between searches
+	private static final int MAX_RETAINED_BUFFER_LENGTH = 256 * 1024;
+	private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
 
 	private final float matchThreshold;
 	private final IMatchScoreComputer matchScoreComputer;
@@ -52,12 +54,41 @@ public class BitapStringMatcher implements IFuzzyStringMatcher {
 	 * @return Best match index or -1.
 	 */
 	public int find(CharSequence text, String pattern, int expectedLocation, ProgressIndicator progress) {
-		if (pattern.length() > maxBits) {
+		FuzzyMatch match = findBestMatch(text, pattern, expectedLocation, progress);
+		return match == null ? -1 : match.location();
+	}
+
+	/**
+	 * Same as {@link #find(CharSequence, String, int, ProgressIndicator)} but
+	 * also returns the score of the match.
+	 *
+	 * @return the best match or null if no match found
+	 */
+	FuzzyMatch findBestMatch(CharSequence text, String pattern, int expectedLocation, ProgressIndicator progress) {
+		if (pattern.length() > MAX_BITS) {
 			throw new IllegalArgumentException("Pattern too long.");
 		}
+		Buffers buffers = BUFFERS.get();
+		if (buffers.inUse) {
+			// reentrant search : do not share the buffers of the outer one
+			buffers = new Buffers();
+		}
+		buffers.inUse = true;
+		try {
+			return findBestMatch(text, pattern, expectedLocation, progress, buffers);
+		} finally {
+			buffers.release();
+			buffers.inUse = false;
+		}
+	}
+
+	private FuzzyMatch findBestMatch(CharSequence text, String pattern, int expectedLocation,
+			ProgressIndicator progress, Buffers buffers) {
 		progress.setText("Searching pattern");
 		// Initialise the alphabet.
-		Map<Character, Long> alphabet = alphabet(pattern);
+		PatternAlphabet alphabet = buffers.alphabet;
+		alphabet.reset(pattern);
+		long[] charMasks = charMasks(pattern, alphabet, buffers.charMasks);
 
 		// Highest score beyond which we give up.
 		double scoreThreshold = matchThreshold;
@@ -67,22 +98,32 @@ public class BitapStringMatcher implements IFuzzyStringMatcher {
 		long matchMask = 1L << (pattern.length() - 1);
 
         int startLocation = 1;
-		int finishLocation = text.length() + pattern.length();
-		// Empty initialization added to appease Java compiler.
-		long[] last_rd = new long[0];
+		int textLength = text.length();
+		int finishLocation = textLength + pattern.length();
+		// only two rows are needed : the current one and the one of the previous
+		// pass. Every cell read in a pass has been written before, so the rows
+		// do not need to be cleared.
+		long[] rd = buffers.rd = buffer(buffers.rd, finishLocation + 2);
+		long[] last_rd = buffers.lastRd = buffer(buffers.lastRd, finishLocation + 2);
+		// the bit mask of each character of the text is computed once for all the
+		// passes
+		long[] textMasks = buffers.textMasks = buffer(buffers.textMasks, textLength);
+		for (int i = 0; i < textLength; i++) {
+			int charIndex = alphabet.indexOf(text.charAt(i));
+			textMasks[i] = charIndex == -1 ? 0 : charMasks[charIndex];
+		}
 		for (int passNumber = 0; passNumber < pattern.length(); passNumber++) {
 			progress.checkCanceled();
 			// Scan for the best match; each iteration allows for one more
 			// error.
-			long[] rd = new long[finishLocation + 2];
 			rd[finishLocation + 1] = (1 << passNumber) - 1;
 			for (int j = finishLocation; j >= startLocation; j--) {
 				long charMatch;
-				if (text.length() <= j - 1 || !alphabet.containsKey(text.charAt(j - 1))) {
+				if (textLength <= j - 1) {
 					// Out of range.
 					charMatch = 0;
 				} else {
-					charMatch = alphabet.get(text.charAt(j - 1));
+					charMatch = textMasks[j - 1];
 				}
 				if (passNumber == 0) {
 					// First pass: exact match.
@@ -108,11 +149,17 @@ public class BitapStringMatcher implements IFuzzyStringMatcher {
 				// No hope for a (better) match at greater error levels.
 				break;
 			}
+			long[] previous = last_rd;
 			last_rd = rd;
+			rd = previous;
 			progress.setFraction((passNumber+1)/pattern.length());
 		}
 		progress.setFraction(1);
-		return bestLocation;
+		return bestLocation == -1 ? null : new FuzzyMatch(bestLocation, scoreThreshold);
+	}
+
+	private static long[] buffer(long[] buffer, int length) {
+		return buffer.length >= length ? buffer : new long[length];
 	}
 
 	/**
@@ -120,20 +167,44 @@ public class BitapStringMatcher implements IFuzzyStringMatcher {
 	 * 
 	 * @param pattern
 	 *            The text to encode.
-	 * @return Hash of character locations.
+	 * @param alphabet
+	 *            the alphabet of the pattern
+	 * @param charMasks
+	 *            the array to fill, at least as large as the alphabet
+	 * @return the bit mask of each character of the alphabet
 	 */
-	private Map<Character, Long> alphabet(String pattern) {
-		Map<Character, Long> alphabet = new HashMap<Character, Long>();
-		char[] patternChars = pattern.toCharArray();
-		for (char c : patternChars) {
-			alphabet.put(c, 0L);
+	private long[] charMasks(String pattern, PatternAlphabet alphabet, long[] charMasks) {
+		Arrays.fill(charMasks, 0, alphabet.size(), 0);
+		for (int i = 0; i < pattern.length(); i++) {
+			charMasks[alphabet.indexOf(pattern.charAt(i))] |= 1L << (pattern.length() - i - 1);
 		}
-		int i = 0;
-		for (char c : patternChars) {
-			alphabet.put(c, alphabet.get(c) | (1L << (pattern.length() - i - 1)));
-			i++;
+		return charMasks;
+	}
+
+	/**
+	 * The buffers used by the searches of a thread. They only grow, so that
+	 * searches do not allocate once the buffers are large enough.
+	 */
+	private static final class Buffers {
+		private final PatternAlphabet alphabet = new PatternAlphabet(MAX_BITS);
+		private final long[] charMasks = new long[MAX_BITS];
+		private long[] rd = new long[0];
+		private long[] lastRd = new long[0];
+		private long[] textMasks = new long[0];
+		private boolean inUse;
+
+		/**
+		 * Do not keep the buffers of a search in a very large text
+		 */
+		private void release() {
+			if (rd.length > MAX_RETAINED_BUFFER_LENGTH) {
+				rd = new long[0];
+				lastRd = new long[0];
+			}
+			if (textMasks.length > MAX_RETAINED_BUFFER_LENGTH) {
+				textMasks = new long[0];
+			}
 		}
-		return alphabet;
 	}
 
 }
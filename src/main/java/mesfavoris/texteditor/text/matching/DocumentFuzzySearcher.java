@@ -1,23 +1,69 @@
 package mesfavoris.texteditor.text.matching;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.util.TextRange;
 import mesfavoris.texteditor.text.CharSubSequence;
-import mesfavoris.texteditor.text.LowerCaseCharSequence;
+import mesfavoris.texteditor.text.FilteredCharSequence;
+import mesfavoris.texteditor.text.ICharSequenceFilter;
 import mesfavoris.texteditor.text.RemoveExtraWhitespacesSequenceFilter;
+import mesfavoris.texteditor.text.matching.LineSearchMetrics.Resolution;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Find the line of a document that best matches a line content.
+ * <p>
+ * The document text is lower-cased and its extra whitespaces removed once
+ * for each modification stamp. The result is shared by all searches in the
+ * same document. Only the most recently searched documents are kept, and the
+ * cache does not keep documents alive.
+ * </p>
+ * <p>
+ * The line content is usually unchanged and at the expected line or a few
+ * lines away. So the expected line is checked first, then the lines at most
+ * {@value #NEARBY_LINES} lines around it are compared using their hash. The
+ * fuzzy search is only used if both fail : an identical line further away is
+ * left to the fuzzy search, which weights matches by their distance from the
+ * expected line. How each search is resolved is recorded in
+ * {@link LineSearchMetrics}.
+ * </p>
+ * <p>
+ * When there is no expected line, large regions are searched in parallel
+ * using a {@link ParallelFuzzyStringMatcher}.
+ * </p>
+ */
 public class DocumentFuzzySearcher {
+	private static final int MAX_FILTERED_DOCUMENTS = 8;
+	// weak keys : documents are compared by identity and entries are released with their document
+	private static final Cache<Document, FilteredDocumentText> FILTERED_DOCUMENT_TEXTS = CacheBuilder.newBuilder()
+			.weakKeys().maximumSize(MAX_FILTERED_DOCUMENTS).build();
+	private static final ICharSequenceFilter FILTER = new RemoveExtraWhitespacesSequenceFilter();
+	private static final Logger LOG = Logger.getInstance(DocumentFuzzySearcher.class);
+	private static final int NEARBY_LINES = 20;
 	private final float matchThreshold;
 	private final Document document;
+	private final LineSearchMetrics metrics;
 
 	public DocumentFuzzySearcher(Document document) {
 		this(document, 0.5f);
 	}
 
 	public DocumentFuzzySearcher(Document document, float matchThreshold) {
+		this(document, matchThreshold, LineSearchMetrics.getInstance());
+	}
+
+	public DocumentFuzzySearcher(Document document, float matchThreshold, LineSearchMetrics metrics) {
 		this.document = document;
 		this.matchThreshold = matchThreshold;
+		this.metrics = metrics;
 	}
 
 	public int findLineNumber(String lineContent, ProgressIndicator monitor) {
@@ -34,38 +80,209 @@ public class DocumentFuzzySearcher {
 
 	public int findLineNumber(TextRange region, int expectedLineNumber, String lineContent, ProgressIndicator monitor) {
 		try {
-			CharSubSequence charSubSequence = new CharSubSequence(document.getCharsSequence(), region);
-			CharSequence lowerCharSubSequence = new LowerCaseCharSequence(charSubSequence);
-			int expectedLocationInSubSequence;
-			if (expectedLineNumber == -1) {
-				expectedLocationInSubSequence = -1;
-			} else {
-				int minLineNumber = document.getLineNumber(region.getStartOffset());
-				int maxLineNumber = document.getLineNumber(region.getStartOffset()+region.getLength()-1);
-				if (expectedLineNumber < minLineNumber) {
-					expectedLineNumber = minLineNumber;
-				}
-				if (expectedLineNumber > maxLineNumber) {
-					expectedLineNumber = maxLineNumber;
+			FilteredDocumentText filteredDocumentText = getFilteredDocumentText(document);
+			NormalizedLineSearch search = normalize(new LineSearch(region, expectedLineNumber, lineContent));
+			int sameLineNumber = search.pattern().isEmpty() ? -1
+					: findSameLineNumber(filteredDocumentText.lines(), search);
+			return findLineNumber(filteredDocumentText, search, sameLineNumber, monitor);
+		} catch (IndexOutOfBoundsException e) {
+			record(Resolution.NOT_FOUND);
+			return -1;
+		}
+	}
+
+	/**
+	 * Find the line numbers of several line contents in the same document.
+	 * <p>
+	 * The document is filtered once and then shared by all the searches. The
+	 * lines that can be identical to a line content are scanned once for all
+	 * the searches, looking up each line hash among the hashes of the
+	 * normalized line contents. Only the line contents not found this way fall
+	 * back to a fuzzy search, one by one. Each line number is the same as the
+	 * one found by {@link #findLineNumber(TextRange, int, String, ProgressIndicator)}.
+	 * </p>
+	 *
+	 * @param lineSearches
+	 * @param monitor
+	 * @return the line number for each search, or -1 if not found
+	 */
+	public int[] findLineNumbers(List<LineSearch> lineSearches, ProgressIndicator monitor) {
+		int[] lineNumbers = new int[lineSearches.size()];
+		Arrays.fill(lineNumbers, -1);
+		FilteredDocumentText filteredDocumentText = getFilteredDocumentText(document);
+		NormalizedLineSearch[] searches = new NormalizedLineSearch[lineSearches.size()];
+		for (int i = 0; i < lineSearches.size(); i++) {
+			try {
+				searches[i] = normalize(lineSearches.get(i));
+			} catch (IndexOutOfBoundsException e) {
+				searches[i] = null;
+			}
+		}
+		findSameLineNumbers(filteredDocumentText.lines(), searches, lineNumbers, monitor);
+		for (int i = 0; i < searches.length; i++) {
+			monitor.checkCanceled();
+			if (searches[i] == null) {
+				record(Resolution.NOT_FOUND);
+				continue;
+			}
+			try {
+				lineNumbers[i] = findLineNumber(filteredDocumentText, searches[i], lineNumbers[i], monitor);
+			} catch (IndexOutOfBoundsException e) {
+				record(Resolution.NOT_FOUND);
+				lineNumbers[i] = -1;
+			}
+		}
+		return lineNumbers;
+	}
+
+	private int findLineNumber(FilteredDocumentText filteredDocumentText, NormalizedLineSearch search,
+			int sameLineNumber, ProgressIndicator monitor) throws IndexOutOfBoundsException {
+		if (sameLineNumber != -1) {
+			record(sameLineNumber == search.expectedLineNumber() ? Resolution.EXPECTED_LINE : Resolution.NEARBY_LINE);
+			return sameLineNumber;
+		}
+		int lineNumber = findLineNumberUsingFuzzySearch(filteredDocumentText.text(), search.region(),
+				search.expectedLineNumber(), search.pattern(), monitor);
+		record(lineNumber == -1 ? Resolution.NOT_FOUND : Resolution.FUZZY_SEARCH);
+		return lineNumber;
+	}
+
+	private NormalizedLineSearch normalize(LineSearch lineSearch) throws IndexOutOfBoundsException {
+		TextRange region = lineSearch.region();
+		String pattern = new FilteredCharSequence(lineSearch.lineContent(), FILTER, true).toString();
+		int minLineNumber = document.getLineNumber(region.getStartOffset());
+		int maxLineNumber = document.getLineNumber(region.getStartOffset() + region.getLength() - 1);
+		int expectedLineNumber = lineSearch.expectedLineNumber();
+		if (expectedLineNumber != -1) {
+			if (expectedLineNumber < minLineNumber) {
+				expectedLineNumber = minLineNumber;
+			}
+			if (expectedLineNumber > maxLineNumber) {
+				expectedLineNumber = maxLineNumber;
+			}
+		}
+		return new NormalizedLineSearch(region, expectedLineNumber, pattern, minLineNumber, maxLineNumber);
+	}
+
+	/**
+	 * Find the line whose normalized content is the pattern. Lines are
+	 * compared from the expected line outward, up to {@link #NEARBY_LINES}
+	 * lines away, or from the first line of the region if there is no expected
+	 * line.
+	 */
+	private int findSameLineNumber(NormalizedDocumentLines lines, NormalizedLineSearch search) {
+		String pattern = search.pattern();
+		int expectedLineNumber = search.expectedLineNumber();
+		if (expectedLineNumber == -1) {
+			for (int lineNumber = search.firstCandidateLineNumber(); lineNumber <= search
+					.lastCandidateLineNumber(); lineNumber++) {
+				if (lines.lineEquals(lineNumber, pattern)) {
+					return lineNumber;
 				}
-				expectedLocationInSubSequence = document.getLineStartOffset(expectedLineNumber) - region.getStartOffset();
 			}
-			IMatchScoreComputer matchScoreComputer = getMatchScoreComputer(document, region, expectedLineNumber);
-			String pattern = new LowerCaseCharSequence(lineContent).toString();
-
-			FuzzyFilteredStringMatcher fuzzyFilteredStringMatcher = new FuzzyFilteredStringMatcher(
-					new FuzzyStringMatcher(matchThreshold, matchScoreComputer),
-					new RemoveExtraWhitespacesSequenceFilter());
-			int matchPositionInSubSequence = fuzzyFilteredStringMatcher.find(lowerCharSubSequence, pattern,
-					expectedLocationInSubSequence, monitor);
-			if (matchPositionInSubSequence == -1) {
-				return -1;
+			return -1;
+		}
+		for (int distance = 0; distance <= NEARBY_LINES; distance++) {
+			int lineNumber = expectedLineNumber - distance;
+			if (lineNumber >= search.firstCandidateLineNumber() && lines.lineEquals(lineNumber, pattern)) {
+				return lineNumber;
 			}
-			int matchPosition = charSubSequence.getParentIndex(matchPositionInSubSequence);
-			return document.getLineNumber(matchPosition);
-		} catch (IndexOutOfBoundsException e) {
+			lineNumber = expectedLineNumber + distance;
+			if (lineNumber <= search.lastCandidateLineNumber() && lines.lineEquals(lineNumber, pattern)) {
+				return lineNumber;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Same as {@link #findSameLineNumber(NormalizedDocumentLines, NormalizedLineSearch)}
+	 * for several searches, with a single scan of the candidate lines of all the
+	 * searches
+	 */
+	private void findSameLineNumbers(NormalizedDocumentLines lines, NormalizedLineSearch[] searches,
+			int[] lineNumbers, ProgressIndicator monitor) {
+		Map<Integer, List<Integer>> searchIndexesByHash = new HashMap<>();
+		int firstLineNumber = Integer.MAX_VALUE;
+		int lastLineNumber = -1;
+		for (int i = 0; i < searches.length; i++) {
+			NormalizedLineSearch search = searches[i];
+			if (search != null && !search.pattern().isEmpty()) {
+				searchIndexesByHash.computeIfAbsent(search.pattern().hashCode(), hash -> new ArrayList<>()).add(i);
+				firstLineNumber = Math.min(firstLineNumber, search.firstCandidateLineNumber());
+				lastLineNumber = Math.max(lastLineNumber, search.lastCandidateLineNumber());
+			}
+		}
+		for (int lineNumber = firstLineNumber; lineNumber <= lastLineNumber; lineNumber++) {
+			List<Integer> searchIndexes = searchIndexesByHash.get(lines.getHash(lineNumber));
+			if (searchIndexes == null) {
+				continue;
+			}
+			monitor.checkCanceled();
+			for (int searchIndex : searchIndexes) {
+				NormalizedLineSearch search = searches[searchIndex];
+				// lines are scanned in ascending order : on a tie, the line before the
+				// expected line is kept, as in findSameLineNumber
+				if (search.isCandidate(lineNumber) && search.isNearer(lineNumber, lineNumbers[searchIndex])
+						&& lines.lineEquals(lineNumber, search.pattern())) {
+					lineNumbers[searchIndex] = lineNumber;
+				}
+			}
+		}
+	}
+
+	private int findLineNumberUsingFuzzySearch(FilteredCharSequence filteredText, TextRange region,
+			int expectedLineNumber, String pattern, ProgressIndicator monitor) throws IndexOutOfBoundsException {
+		int startIndex = getFilteredIndex(filteredText, region.getStartOffset());
+		int endIndex = getFilteredIndex(filteredText, region.getEndOffset());
+		CharSubSequence filteredRegion = new CharSubSequence(filteredText, startIndex, endIndex);
+		int expectedLocationInRegion;
+		if (expectedLineNumber == -1) {
+			expectedLocationInRegion = -1;
+		} else {
+			expectedLocationInRegion = Math.min(
+					getFilteredIndex(filteredText, document.getLineStartOffset(expectedLineNumber)),
+					endIndex - 1) - startIndex;
+		}
+		IMatchScoreComputer matchScoreComputer = getMatchScoreComputer(document, region, expectedLineNumber);
+		// without an expected line, the whole region is searched : large regions are
+		// split in chunks searched in parallel
+		IFuzzyStringMatcher fuzzyStringMatcher = expectedLineNumber == -1
+				? new ParallelFuzzyStringMatcher(matchThreshold, matchScoreComputer)
+				: new FuzzyStringMatcher(matchThreshold, matchScoreComputer);
+		int matchPositionInRegion = fuzzyStringMatcher.find(filteredRegion, pattern, expectedLocationInRegion,
+				monitor);
+		if (matchPositionInRegion == -1) {
 			return -1;
 		}
+		int matchPosition = filteredText.getParentIndex(filteredRegion.getParentIndex(matchPositionInRegion));
+		return document.getLineNumber(matchPosition);
+	}
+
+	private void record(Resolution resolution) {
+		metrics.record(resolution);
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Line search resolved : " + resolution + ". " + metrics);
+		}
+	}
+
+	private static FilteredDocumentText getFilteredDocumentText(Document document) {
+		long modificationStamp = document.getModificationStamp();
+		FilteredDocumentText filteredDocumentText = FILTERED_DOCUMENT_TEXTS.getIfPresent(document);
+		if (filteredDocumentText == null || filteredDocumentText.modificationStamp() != modificationStamp) {
+			FilteredCharSequence filteredText = new FilteredCharSequence(document.getCharsSequence(), FILTER, true);
+			filteredDocumentText = new FilteredDocumentText(modificationStamp, filteredText,
+					new NormalizedDocumentLines(document, filteredText));
+			FILTERED_DOCUMENT_TEXTS.put(document, filteredDocumentText);
+		}
+		return filteredDocumentText;
+	}
+
+	private static int getFilteredIndex(FilteredCharSequence filteredText, int offset) {
+		if (offset >= filteredText.getParentLength()) {
+			return filteredText.length();
+		}
+		return filteredText.getIndex(offset);
 	}
 
 	private IMatchScoreComputer getMatchScoreComputer(Document document, TextRange region, int expectedLineNumber)
@@ -79,4 +296,57 @@ public class DocumentFuzzySearcher {
 		}
 	}
 
+	/**
+	 * A line content to search in a region of the document
+	 *
+	 * @param region
+	 * @param expectedLineNumber
+	 *            the expected line number or -1
+	 * @param lineContent
+	 */
+	public record LineSearch(TextRange region, int expectedLineNumber, String lineContent) {
+	}
+
+	private record FilteredDocumentText(long modificationStamp, FilteredCharSequence text,
+			NormalizedDocumentLines lines) {
+	}
+
+	/**
+	 * A line search once its line content is normalized and its expected line
+	 * number is bounded by the lines of its region
+	 */
+	private record NormalizedLineSearch(TextRange region, int expectedLineNumber, String pattern,
+			int minLineNumber, int maxLineNumber) {
+
+		/**
+		 * @return the first line that can be returned without a fuzzy search
+		 */
+		int firstCandidateLineNumber() {
+			return expectedLineNumber == -1 ? minLineNumber
+					: Math.max(minLineNumber, expectedLineNumber - NEARBY_LINES);
+		}
+
+		/**
+		 * @return the last line that can be returned without a fuzzy search
+		 */
+		int lastCandidateLineNumber() {
+			return expectedLineNumber == -1 ? maxLineNumber
+					: Math.min(maxLineNumber, expectedLineNumber + NEARBY_LINES);
+		}
+
+		boolean isCandidate(int lineNumber) {
+			return lineNumber >= firstCandidateLineNumber() && lineNumber <= lastCandidateLineNumber();
+		}
+
+		boolean isNearer(int lineNumber, int currentLineNumber) {
+			if (currentLineNumber == -1) {
+				return true;
+			}
+			if (expectedLineNumber == -1) {
+				return false;
+			}
+			return Math.abs(lineNumber - expectedLineNumber) < Math.abs(currentLineNumber - expectedLineNumber);
+		}
+	}
+
 }
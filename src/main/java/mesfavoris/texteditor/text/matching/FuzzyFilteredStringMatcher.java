@@ -14,16 +14,31 @@ import mesfavoris.texteditor.text.ICharSequenceFilter;
 public class FuzzyFilteredStringMatcher implements IFuzzyStringMatcher {
 	private final ICharSequenceFilter filter;
 	private final IFuzzyStringMatcher fuzzyStringMatcher;
+	private final boolean lowerCase;
 
 	public FuzzyFilteredStringMatcher(IFuzzyStringMatcher fuzzyStringMatcher, ICharSequenceFilter filter) {
+		this(fuzzyStringMatcher, filter, false);
+	}
+
+	/**
+	 * 
+	 * @param fuzzyStringMatcher
+	 * @param filter
+	 * @param lowerCase
+	 *            true to convert the text and the pattern to lower case while
+	 *            filtering them
+	 */
+	public FuzzyFilteredStringMatcher(IFuzzyStringMatcher fuzzyStringMatcher, ICharSequenceFilter filter,
+			boolean lowerCase) {
 		this.filter = filter;
 		this.fuzzyStringMatcher = fuzzyStringMatcher;
+		this.lowerCase = lowerCase;
 	}
 
 	@Override
 	public int find(CharSequence text, String pattern, int expectedLocation, ProgressIndicator progress) {
-		FilteredCharSequence filteredCharSequence = new FilteredCharSequence(text, filter);
-		String filteredPattern = new FilteredCharSequence(pattern, filter).toString();
+		FilteredCharSequence filteredCharSequence = new FilteredCharSequence(text, filter, lowerCase);
+		String filteredPattern = new FilteredCharSequence(pattern, filter, lowerCase).toString();
 		int filteredExpectedLocation;
 		if (expectedLocation < 0) {
 			filteredExpectedLocation = -1;
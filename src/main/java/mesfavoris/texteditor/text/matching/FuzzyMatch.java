@@ -0,0 +1,13 @@
+package mesfavoris.texteditor.text.matching;
+
+/**
+ * The best match found by a bitap matcher
+ *
+ * @param location
+ *            location of the match in the text
+ * @param score
+ *            score of the match (0.0 = good, 1.0 = bad)
+ */
+record FuzzyMatch(int location, double score) {
+
+}
@@ -4,11 +4,11 @@ import com.intellij.openapi.progress.ProgressIndicator;
 
 public class FuzzyStringMatcher implements IFuzzyStringMatcher {
 	private final BitapStringMatcher bitapStringMatcher;
-	private final BitapBigIntegerStringMatcher bitapBigIntegerStringMatcher;
+	private final BitapMultiWordStringMatcher bitapMultiWordStringMatcher;
 
 	public FuzzyStringMatcher(float matchThreshold, IMatchScoreComputer matchScoreComputer) {
 		this.bitapStringMatcher = new BitapStringMatcher(matchThreshold, matchScoreComputer);
-		this.bitapBigIntegerStringMatcher = new BitapBigIntegerStringMatcher(matchThreshold, matchScoreComputer);
+		this.bitapMultiWordStringMatcher = new BitapMultiWordStringMatcher(matchThreshold, matchScoreComputer);
 	}
 
 	@Override
@@ -39,7 +39,7 @@ public class FuzzyStringMatcher implements IFuzzyStringMatcher {
 		if (pattern.length() <= 64) {
 			return bitapStringMatcher;
 		} else {
-			return bitapBigIntegerStringMatcher;
+			return bitapMultiWordStringMatcher;
 		}
 	}
 
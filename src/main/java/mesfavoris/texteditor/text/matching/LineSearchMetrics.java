@@ -0,0 +1,56 @@
+package mesfavoris.texteditor.text.matching;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count how line searches of {@link DocumentFuzzySearcher} are resolved, to
+ * know how often the expensive fuzzy search is used
+ */
+public class LineSearchMetrics {
+	private static final LineSearchMetrics INSTANCE = new LineSearchMetrics();
+	private final Map<Resolution, LongAdder> counts = new EnumMap<>(Resolution.class);
+
+	public enum Resolution {
+		/** the line content is still at the expected line */
+		EXPECTED_LINE,
+		/** the line content is on a line near the expected line */
+		NEARBY_LINE,
+		/** the line was found using a fuzzy search */
+		FUZZY_SEARCH,
+		/** the line was not found */
+		NOT_FOUND
+	}
+
+	public LineSearchMetrics() {
+		for (Resolution resolution : Resolution.values()) {
+			counts.put(resolution, new LongAdder());
+		}
+	}
+
+	public static LineSearchMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	public void record(Resolution resolution) {
+		counts.get(resolution).increment();
+	}
+
+	public long getCount(Resolution resolution) {
+		return counts.get(resolution).sum();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("LineSearchMetrics [");
+		for (Resolution resolution : Resolution.values()) {
+			if (resolution.ordinal() > 0) {
+				sb.append(", ");
+			}
+			sb.append(resolution).append('=').append(getCount(resolution));
+		}
+		return sb.append(']').toString();
+	}
+
+}
@@ -0,0 +1,83 @@
+package mesfavoris.texteditor.text.matching;
+
+import com.intellij.openapi.editor.Document;
+import mesfavoris.texteditor.text.FilteredCharSequence;
+
+/**
+ * The normalized content (lower-cased and without extra whitespaces) of each
+ * line of a document, with its hash.
+ * <p>
+ * Lines are not copied : the content of each line is a range of the filtered
+ * document text.
+ * </p>
+ */
+final class NormalizedDocumentLines {
+	private final FilteredCharSequence filteredText;
+	private final int[] starts;
+	private final int[] ends;
+	private final int[] hashes;
+
+	/**
+	 * @param document
+	 * @param filteredText
+	 *            the filtered text of the document
+	 */
+	public NormalizedDocumentLines(Document document, FilteredCharSequence filteredText) {
+		this.filteredText = filteredText;
+		int lineCount = document.getLineCount();
+		this.starts = new int[lineCount];
+		this.ends = new int[lineCount];
+		this.hashes = new int[lineCount];
+		int length = filteredText.length();
+		int lineStart = 0;
+		int hash = 0;
+		for (int i = 0; i <= length; i++) {
+			char c = i < length ? filteredText.charAt(i) : '\n';
+			if (c != '\n') {
+				hash = 31 * hash + c;
+				continue;
+			}
+			if (i > lineStart) {
+				int lineNumber = document.getLineNumber(filteredText.getParentIndex(lineStart));
+				starts[lineNumber] = lineStart;
+				ends[lineNumber] = i;
+				hashes[lineNumber] = hash;
+			}
+			lineStart = i + 1;
+			hash = 0;
+		}
+	}
+
+	public int getLineCount() {
+		return starts.length;
+	}
+
+	/**
+	 * @param lineNumber
+	 * @return the hash of the normalized content of the line, as computed by
+	 *         {@link String#hashCode()}
+	 */
+	public int getHash(int lineNumber) {
+		return hashes[lineNumber];
+	}
+
+	/**
+	 * @param lineNumber
+	 * @param normalizedContent
+	 *            the normalized content to compare with
+	 * @return true if the normalized content of the line is the given one
+	 */
+	public boolean lineEquals(int lineNumber, String normalizedContent) {
+		if (hashes[lineNumber] != normalizedContent.hashCode()
+				|| ends[lineNumber] - starts[lineNumber] != normalizedContent.length()) {
+			return false;
+		}
+		for (int i = 0; i < normalizedContent.length(); i++) {
+			if (filteredText.charAt(starts[lineNumber] + i) != normalizedContent.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
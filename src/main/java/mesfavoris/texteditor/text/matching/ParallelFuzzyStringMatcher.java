@@ -0,0 +1,212 @@
+package mesfavoris.texteditor.text.matching;
+
+import com.intellij.ide.util.DelegatingProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A fuzzy matcher that splits large texts into overlapping chunks and searches
+ * them in parallel on a fork/join pool.
+ * <p>
+ * Two consecutive chunks overlap by the pattern length plus the maximum number
+ * of errors, so that any match starting in a chunk is entirely contained in
+ * it. Each chunk is searched using the bitap algorithm and the best match of
+ * all the chunks is kept, using the scores given by the
+ * {@link IMatchScoreComputer}. Small texts are searched using a
+ * {@link FuzzyStringMatcher}.
+ * </p>
+ */
+public class ParallelFuzzyStringMatcher implements IFuzzyStringMatcher {
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+	private final float matchThreshold;
+	private final IMatchScoreComputer matchScoreComputer;
+	private final int chunkSize;
+	private final ForkJoinPool forkJoinPool;
+	private final FuzzyStringMatcher fuzzyStringMatcher;
+
+	public ParallelFuzzyStringMatcher(float matchThreshold, IMatchScoreComputer matchScoreComputer) {
+		this(matchThreshold, matchScoreComputer, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 *
+	 * @param matchThreshold
+	 *            At what point is no match declared (0.0 = perfection, 1.0 =
+	 *            very loose)
+	 * @param matchScoreComputer
+	 * @param chunkSize
+	 *            number of match locations searched by each chunk. Texts that
+	 *            are not longer are searched sequentially
+	 * @param forkJoinPool
+	 */
+	public ParallelFuzzyStringMatcher(float matchThreshold, IMatchScoreComputer matchScoreComputer, int chunkSize,
+			ForkJoinPool forkJoinPool) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Invalid chunk size");
+		}
+		this.matchThreshold = matchThreshold;
+		this.matchScoreComputer = matchScoreComputer;
+		this.chunkSize = chunkSize;
+		this.forkJoinPool = forkJoinPool;
+		this.fuzzyStringMatcher = new FuzzyStringMatcher(matchThreshold, matchScoreComputer);
+	}
+
+	@Override
+	public int find(CharSequence text, String pattern, int expectedLocation, ProgressIndicator progress) {
+		if (text == null || pattern == null) {
+			throw new IllegalArgumentException("Null inputs");
+		}
+		if (text.length() <= chunkSize || pattern.isEmpty()) {
+			return fuzzyStringMatcher.find(text, pattern, expectedLocation, progress);
+		}
+		expectedLocation = Math.max(0, Math.min(expectedLocation, text.length()));
+		if (expectedLocation + pattern.length() <= text.length()
+				&& text.subSequence(expectedLocation, expectedLocation + pattern.length()).toString().equals(pattern)) {
+			// Perfect match at the perfect spot!
+			return expectedLocation;
+		}
+		progress.setText("Searching pattern");
+		int overlap = pattern.length() + getMaxErrors(pattern, expectedLocation);
+		int chunksCount = (text.length() + chunkSize - 1) / chunkSize;
+		ChunksSearchTask task = new ChunksSearchTask(text, pattern, expectedLocation, overlap, 0, chunksCount,
+				new ChunkProgressIndicator(progress));
+		FuzzyMatch match = forkJoinPool.invoke(task);
+		progress.setFraction(1);
+		return match == null ? -1 : match.location();
+	}
+
+	/**
+	 * Get the maximum number of errors of a match whose score is under the
+	 * threshold
+	 */
+	private int getMaxErrors(String pattern, int expectedLocation) {
+		int maxErrors = 0;
+		while (maxErrors < pattern.length() && matchScoreComputer.score(maxErrors + 1, expectedLocation,
+				expectedLocation, pattern) <= matchThreshold) {
+			maxErrors++;
+		}
+		return maxErrors;
+	}
+
+	private FuzzyMatch findInChunk(CharSequence text, String pattern, int expectedLocation, int overlap,
+			int chunkIndex, ProgressIndicator progress) {
+		int start = chunkIndex * chunkSize;
+		int end = Math.min(text.length(), start + chunkSize + overlap);
+		IMatchScoreComputer chunkMatchScoreComputer = new ShiftedMatchScoreComputer(matchScoreComputer, start);
+		CharSequence chunk = text.subSequence(start, end);
+		FuzzyMatch match;
+		if (pattern.length() <= 64) {
+			match = new BitapStringMatcher(matchThreshold, chunkMatchScoreComputer).findBestMatch(chunk, pattern,
+					expectedLocation - start, progress);
+		} else {
+			match = new BitapMultiWordStringMatcher(matchThreshold, chunkMatchScoreComputer).findBestMatch(chunk,
+					pattern, expectedLocation - start, progress);
+		}
+		return match == null ? null : new FuzzyMatch(match.location() + start, match.score());
+	}
+
+	private static FuzzyMatch best(FuzzyMatch match1, FuzzyMatch match2) {
+		if (match1 == null) {
+			return match2;
+		}
+		if (match2 == null) {
+			return match1;
+		}
+		if (match1.score() != match2.score()) {
+			return match1.score() < match2.score() ? match1 : match2;
+		}
+		return match1.location() <= match2.location() ? match1 : match2;
+	}
+
+	/**
+	 * Search the chunks in [fromChunk, toChunk[, splitting the range until a
+	 * single chunk is left
+	 */
+	private class ChunksSearchTask extends RecursiveTask<FuzzyMatch> {
+		private final CharSequence text;
+		private final String pattern;
+		private final int expectedLocation;
+		private final int overlap;
+		private final int fromChunk;
+		private final int toChunk;
+		private final ProgressIndicator progress;
+
+		public ChunksSearchTask(CharSequence text, String pattern, int expectedLocation, int overlap, int fromChunk,
+				int toChunk, ProgressIndicator progress) {
+			this.text = text;
+			this.pattern = pattern;
+			this.expectedLocation = expectedLocation;
+			this.overlap = overlap;
+			this.fromChunk = fromChunk;
+			this.toChunk = toChunk;
+			this.progress = progress;
+		}
+
+		@Override
+		protected FuzzyMatch compute() {
+			progress.checkCanceled();
+			if (toChunk - fromChunk == 1) {
+				return findInChunk(text, pattern, expectedLocation, overlap, fromChunk, progress);
+			}
+			int middleChunk = (fromChunk + toChunk) >>> 1;
+			ChunksSearchTask left = new ChunksSearchTask(text, pattern, expectedLocation, overlap, fromChunk,
+					middleChunk, progress);
+			ChunksSearchTask right = new ChunksSearchTask(text, pattern, expectedLocation, overlap, middleChunk,
+					toChunk, progress);
+			left.fork();
+			FuzzyMatch rightMatch = right.compute();
+			return best(left.join(), rightMatch);
+		}
+	}
+
+	/**
+	 * Scores matches in a chunk as if they were in the whole text, so that the
+	 * matches of all the chunks can be compared
+	 */
+	private static class ShiftedMatchScoreComputer implements IMatchScoreComputer {
+		private final IMatchScoreComputer matchScoreComputer;
+		private final int offset;
+
+		public ShiftedMatchScoreComputer(IMatchScoreComputer matchScoreComputer, int offset) {
+			this.matchScoreComputer = matchScoreComputer;
+			this.offset = offset;
+		}
+
+		@Override
+		public double score(int errorsCount, int matchLocation, int expectedLocation, String pattern) {
+			return matchScoreComputer.score(errorsCount, matchLocation + offset, expectedLocation + offset, pattern);
+		}
+
+	}
+
+	/**
+	 * The chunks share the cancellation of the parent indicator but do not
+	 * report their text and fraction
+	 */
+	private static class ChunkProgressIndicator extends DelegatingProgressIndicator {
+
+		public ChunkProgressIndicator(ProgressIndicator progress) {
+			super(progress);
+		}
+
+		@Override
+		public void setText(String text) {
+		}
+
+		@Override
+		public void setText2(String text) {
+		}
+
+		@Override
+		public void setFraction(double fraction) {
+		}
+
+		@Override
+		public void setIndeterminate(boolean indeterminate) {
+		}
+
+	}
+
+}
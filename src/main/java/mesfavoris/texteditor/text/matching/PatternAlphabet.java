@@ -0,0 +1,108 @@
+package mesfavoris.texteditor.text.matching;
+
+import java.util.Arrays;
+
+/**
+ * The distinct characters of a pattern, each one associated with an index.
+ * <p>
+ * Used by the bitap matchers to get the bit mask of a character without
+ * boxing : ASCII characters are looked up in an array, other characters in a
+ * small open-addressing hash table.
+ * </p>
+ */
+final class PatternAlphabet {
+	private static final int ASCII_SIZE = 128;
+	private static final char FREE = 0;
+	private final int[] asciiIndexes = new int[ASCII_SIZE];
+	private final char[] keys;
+	private final int[] indexes;
+	private final int mask;
+	private int size;
+
+	public PatternAlphabet(CharSequence pattern) {
+		this(pattern.length());
+		reset(pattern);
+	}
+
+	/**
+	 * Create an empty alphabet that can be {@link #reset(CharSequence) reset}
+	 * with patterns of up to maxPatternLength characters
+	 * 
+	 * @param maxPatternLength
+	 */
+	public PatternAlphabet(int maxPatternLength) {
+		Arrays.fill(asciiIndexes, -1);
+		int capacity = Integer.highestOneBit(Math.max(maxPatternLength, 1) * 2 - 1) << 1;
+		this.keys = new char[capacity];
+		this.indexes = new int[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Replace the characters of this alphabet with the ones of the given
+	 * pattern, without allocating
+	 * 
+	 * @param pattern
+	 */
+	public void reset(CharSequence pattern) {
+		if (pattern.length() > keys.length / 2) {
+			throw new IllegalArgumentException("Pattern too long.");
+		}
+		if (size > 0) {
+			Arrays.fill(asciiIndexes, -1);
+			Arrays.fill(keys, FREE);
+			size = 0;
+		}
+		for (int i = 0; i < pattern.length(); i++) {
+			add(pattern.charAt(i));
+		}
+	}
+
+	private void add(char c) {
+		if (c < ASCII_SIZE) {
+			if (asciiIndexes[c] == -1) {
+				asciiIndexes[c] = size++;
+			}
+			return;
+		}
+		int slot = hash(c) & mask;
+		while (keys[slot] != FREE) {
+			if (keys[slot] == c) {
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = c;
+		indexes[slot] = size++;
+	}
+
+	/**
+	 * @param c
+	 * @return the index of the character or -1 if it is not in the pattern
+	 */
+	public int indexOf(char c) {
+		if (c < ASCII_SIZE) {
+			return asciiIndexes[c];
+		}
+		int slot = hash(c) & mask;
+		while (keys[slot] != FREE) {
+			if (keys[slot] == c) {
+				return indexes[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the number of distinct characters
+	 */
+	public int size() {
+		return size;
+	}
+
+	private static int hash(char c) {
+		return c * 0x9E3779B1 >>> 16;
+	}
+
+}
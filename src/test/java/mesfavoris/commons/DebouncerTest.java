@@ -0,0 +1,61 @@
+package mesfavoris.commons;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DebouncerTest {
+    private ScheduledExecutorService scheduledExecutorService;
+    private Debouncer<String> debouncer;
+    private final List<String> runTasks = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+        debouncer = new Debouncer<>(scheduledExecutorService, Duration.ofMillis(100));
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        scheduledExecutorService.shutdown();
+        scheduledExecutorService.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testOnlyLastTaskForKeyIsRun() throws InterruptedException {
+        // Given
+        debouncer.debounce("key", () -> runTasks.add("task1"));
+        debouncer.debounce("key", () -> runTasks.add("task2"));
+        debouncer.debounce("otherKey", () -> runTasks.add("task3"));
+
+        // When
+        Thread.sleep(500);
+
+        // Then
+        assertThat(runTasks).containsExactlyInAnyOrder("task2", "task3");
+        assertThat(debouncer.isPending("key")).isFalse();
+    }
+
+    @Test
+    public void testCancelAll() throws InterruptedException {
+        // Given
+        debouncer.debounce("key", () -> runTasks.add("task1"));
+
+        // When
+        debouncer.cancelAll();
+        Thread.sleep(300);
+
+        // Then
+        assertThat(runTasks).isEmpty();
+    }
+
+}
@@ -10,8 +10,11 @@ import mesfavoris.model.BookmarkId;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.Mockito.*;
 
 public class BookmarkLocationProviderTest {
@@ -71,4 +74,33 @@ public class BookmarkLocationProviderTest {
         verify(bookmarkLocationProvider2, never()).getBookmarkLocation(any(Project.class), eq(bookmark), any(ProgressIndicator.class));
     }
 
+    @Test
+    public void testReturnBestLocationForEachBookmark() {
+        // Given
+        Bookmark bookmark1 = new Bookmark(new BookmarkId());
+        Bookmark bookmark2 = new Bookmark(new BookmarkId());
+        IBookmarkLocationProvider bookmarkLocationProvider1 = mock(IBookmarkLocationProvider.class);
+        IBookmarkLocationProvider bookmarkLocationProvider2 = mock(IBookmarkLocationProvider.class);
+        IBookmarkLocation bookmarkLocation1 = mock(IBookmarkLocation.class);
+        IBookmarkLocation bookmarkLocation2 = mock(IBookmarkLocation.class);
+        IBookmarkLocation bookmarkLocation3 = mock(IBookmarkLocation.class);
+        when(bookmarkLocation1.getScore()).thenReturn(1.0f);
+        when(bookmarkLocation2.getScore()).thenReturn(0.5f);
+        when(bookmarkLocation3.getScore()).thenReturn(0.75f);
+        doReturn(Map.of(bookmark1.getId(), bookmarkLocation1, bookmark2.getId(), bookmarkLocation2))
+                .when(bookmarkLocationProvider1).getBookmarkLocations(any(Project.class), eq(List.of(bookmark1, bookmark2)), any(ProgressIndicator.class));
+        doReturn(Map.of(bookmark2.getId(), bookmarkLocation3))
+                .when(bookmarkLocationProvider2).getBookmarkLocations(any(Project.class), eq(List.of(bookmark2)), any(ProgressIndicator.class));
+        BookmarkLocationProvider bookmarkLocationProvider = new BookmarkLocationProvider(
+                Arrays.asList(bookmarkLocationProvider1, bookmarkLocationProvider2));
+
+        // When
+        Map<BookmarkId, IBookmarkLocation> bookmarkLocations = bookmarkLocationProvider.getBookmarkLocations(
+                mock(Project.class), List.of(bookmark1, bookmark2), mock(ProgressIndicator.class));
+
+        // Then
+        assertThat(bookmarkLocations).containsOnly(entry(bookmark1.getId(), bookmarkLocation1),
+                entry(bookmark2.getId(), bookmarkLocation3));
+    }
+
 }
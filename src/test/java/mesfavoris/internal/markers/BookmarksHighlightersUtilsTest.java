@@ -1,6 +1,7 @@
 package mesfavoris.internal.markers;
 
 import com.google.common.collect.ImmutableMap;
+import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.editor.Document;
 import com.intellij.testFramework.fixtures.BasePlatformTestCase;
 import mesfavoris.internal.markers.highlighters.BookmarksHighlighters;
@@ -161,6 +162,25 @@ public class BookmarksHighlightersUtilsTest extends BasePlatformTestCase {
         assertThat(bookmarkIds).containsExactlyInAnyOrder(bookmarkId1, bookmarkId2);
     }
 
+    @Test
+    public void testFindBookmarksAtLineAfterDocumentModification() throws Exception {
+        // Given
+        myFixture.configureByText("test.txt", "first line\nsecond line\nthird line");
+        Document document = myFixture.getEditor().getDocument();
+
+        BookmarkId bookmarkId = new BookmarkId();
+        Bookmark bookmark = createBookmark(bookmarkId, "test.txt", 1);
+        addBookmark(bookmark);
+        BookmarkHighlightersTestUtils.waitUntilBookmarkHighlighterAtLine(getProject(), document, bookmarkId, 1);
+
+        // When
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> document.insertString(0, "new line\n"));
+
+        // Then
+        assertThat(BookmarksHighlightersUtils.findBookmarksAtLine(getProject(), document, 1)).isEmpty();
+        assertThat(BookmarksHighlightersUtils.findBookmarksAtLine(getProject(), document, 2)).containsExactly(bookmarkId);
+    }
+
     // Helper methods
 
     private Bookmark createBookmark(BookmarkId bookmarkId, String fileName, int lineNumber) {
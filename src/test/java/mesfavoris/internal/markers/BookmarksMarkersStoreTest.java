@@ -147,6 +147,40 @@ public class BookmarksMarkersStoreTest extends BasePlatformTestCase {
         assertThat(bookmarksMarkersStore.get(file)).containsExactly(marker2); // Old marker is removed, only new one remains
     }
 
+    public void testPutMovesMarkerToAnotherFile() {
+        // Given
+        VirtualFile file1 = myFixture.getTempDirFixture().createFile("test1.txt");
+        VirtualFile file2 = myFixture.getTempDirFixture().createFile("test2.txt");
+        BookmarkId bookmarkId = new BookmarkId("bookmark1");
+        BookmarkMarker marker1 = new BookmarkMarker(file1, bookmarkId, Map.of(BookmarkMarker.LINE_NUMBER, "10"));
+        BookmarkMarker marker2 = new BookmarkMarker(file2, bookmarkId, Map.of(BookmarkMarker.LINE_NUMBER, "20"));
+        bookmarksMarkersStore.put(marker1);
+
+        // When
+        bookmarksMarkersStore.put(marker2);
+
+        // Then
+        assertThat(bookmarksMarkersStore.get(file1)).isEmpty();
+        assertThat(bookmarksMarkersStore.get(file2)).containsExactly(marker2);
+    }
+
+    public void testMarkersOfFileAreNotModifiedByLaterChanges() {
+        // Given
+        VirtualFile file = myFixture.getTempDirFixture().createFile("test.txt");
+        BookmarkMarker marker1 = new BookmarkMarker(file, new BookmarkId("bookmark1"), Map.of(BookmarkMarker.LINE_NUMBER, "10"));
+        BookmarkMarker marker2 = new BookmarkMarker(file, new BookmarkId("bookmark2"), Map.of(BookmarkMarker.LINE_NUMBER, "20"));
+        bookmarksMarkersStore.put(marker1);
+        List<BookmarkMarker> markers = bookmarksMarkersStore.get(file);
+
+        // When
+        bookmarksMarkersStore.put(marker2);
+        bookmarksMarkersStore.remove(marker1.getBookmarkId());
+
+        // Then
+        assertThat(markers).containsExactly(marker1);
+        assertThat(bookmarksMarkersStore.get(file)).containsExactly(marker2);
+    }
+
     public void testGetStateAndLoadState() {
         // Given
         VirtualFile file1 = myFixture.getTempDirFixture().createFile("test1.txt");
@@ -185,6 +219,78 @@ public class BookmarksMarkersStoreTest extends BasePlatformTestCase {
         assertThat(retrievedMarker2.getLineNumber()).isEqualTo(20);
     }
 
+    public void testLoadedMarkersAreResolvedWhenMarkersOfFileAreRequested() {
+        // Given
+        VirtualFile file = myFixture.getTempDirFixture().createFile("test.txt");
+        BookmarkMarker marker1 = new BookmarkMarker(file, new BookmarkId("bookmark1"), Map.of(BookmarkMarker.LINE_NUMBER, "10"));
+        BookmarkMarker marker2 = new BookmarkMarker(file, new BookmarkId("bookmark2"), Map.of(BookmarkMarker.LINE_NUMBER, "20"));
+        bookmarksMarkersStore.put(marker1);
+        bookmarksMarkersStore.put(marker2);
+        BookmarksMarkersStore newStore = new BookmarksMarkersStore();
+        newStore.loadState(bookmarksMarkersStore.getState());
+
+        // When
+        List<BookmarkMarker> markers = newStore.get(file);
+
+        // Then
+        assertThat(markers).containsExactlyInAnyOrder(marker1, marker2);
+        assertThat(markers).allMatch(marker -> marker.getResource().equals(file));
+        assertThat(newStore.get(marker1.getBookmarkId()).getLineNumber()).isEqualTo(10);
+    }
+
+    public void testPutReplacesLoadedMarker() {
+        // Given
+        VirtualFile file = myFixture.getTempDirFixture().createFile("test.txt");
+        BookmarkId bookmarkId = new BookmarkId("bookmark1");
+        bookmarksMarkersStore.put(new BookmarkMarker(file, bookmarkId, Map.of(BookmarkMarker.LINE_NUMBER, "10")));
+        BookmarksMarkersStore newStore = new BookmarksMarkersStore();
+        newStore.loadState(bookmarksMarkersStore.getState());
+        BookmarkMarker marker = new BookmarkMarker(file, bookmarkId, Map.of(BookmarkMarker.LINE_NUMBER, "20"));
+
+        // When
+        BookmarkMarker previous = newStore.put(marker);
+
+        // Then
+        assertThat(previous).isNotNull();
+        assertThat(previous.getLineNumber()).isEqualTo(10);
+        assertThat(newStore.get(file)).containsExactly(marker);
+        assertThat(newStore.get(file).get(0).getLineNumber()).isEqualTo(20);
+    }
+
+    public void testRemoveLoadedMarker() {
+        // Given
+        VirtualFile file = myFixture.getTempDirFixture().createFile("test.txt");
+        BookmarkId bookmarkId = new BookmarkId("bookmark1");
+        bookmarksMarkersStore.put(new BookmarkMarker(file, bookmarkId, Map.of(BookmarkMarker.LINE_NUMBER, "10")));
+        BookmarksMarkersStore newStore = new BookmarksMarkersStore();
+        newStore.loadState(bookmarksMarkersStore.getState());
+
+        // When
+        newStore.remove(bookmarkId);
+
+        // Then
+        assertThat(newStore.get(file)).isEmpty();
+        assertThat(newStore.get(bookmarkId)).isNull();
+        assertThat(newStore.getState().getChildren()).isEmpty();
+    }
+
+    public void testLoadedMarkersOfNonExistentFilesAreRemoved() {
+        // Given
+        Element state = new Element("BookmarkMarkers");
+        Element bookmarkMarkerElement = new Element("bookmarkMarker");
+        bookmarkMarkerElement.setAttribute("url", "file:///nonexistent/test.txt");
+        bookmarkMarkerElement.setAttribute("bookmarkId", "bookmark1");
+        state.addContent(bookmarkMarkerElement);
+        bookmarksMarkersStore.loadState(state);
+
+        // When
+        bookmarksMarkersStore.removeUnresolvableMarkers();
+
+        // Then
+        assertThat(bookmarksMarkersStore.get(new BookmarkId("bookmark1"))).isNull();
+        assertThat(bookmarksMarkersStore.getState().getChildren()).isEmpty();
+    }
+
     public void testGetStateWithEmptyMap() {
         // When
         Element state = bookmarksMarkersStore.getState();
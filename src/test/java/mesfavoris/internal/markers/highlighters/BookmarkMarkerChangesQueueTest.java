@@ -0,0 +1,94 @@
+package mesfavoris.internal.markers.highlighters;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import mesfavoris.bookmarktype.BookmarkMarker;
+import mesfavoris.internal.markers.highlighters.BookmarkMarkerChangesQueue.MarkerChange;
+import mesfavoris.model.BookmarkId;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookmarkMarkerChangesQueueTest {
+    private final List<Runnable> scheduledFlushes = new ArrayList<>();
+    private final List<Map<VirtualFile, List<MarkerChange>>> appliedChanges = new ArrayList<>();
+    private BookmarkMarkerChangesQueue queue;
+
+    @Before
+    public void setUp() {
+        queue = new BookmarkMarkerChangesQueue(scheduledFlushes::add, appliedChanges::add);
+    }
+
+    @Test
+    public void testSingleFlushScheduledForSeveralChanges() {
+        // Given
+        BookmarkMarker marker1 = marker(new BookmarkId(), 1);
+        BookmarkMarker marker2 = marker(new BookmarkId(), 2);
+
+        // When
+        queue.markerAdded(marker1);
+        queue.markerAdded(marker2);
+
+        // Then
+        assertThat(scheduledFlushes).hasSize(1);
+        assertThat(queue.getPendingChangesCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testChangesToSameBookmarkAreMerged() {
+        // Given
+        BookmarkId bookmarkId = new BookmarkId();
+        BookmarkMarker marker1 = marker(bookmarkId, 1);
+        BookmarkMarker marker2 = marker(bookmarkId, 2);
+        BookmarkMarker marker3 = marker(bookmarkId, 3);
+
+        // When
+        queue.markerUpdated(marker1, marker2);
+        queue.markerUpdated(marker2, marker3);
+        scheduledFlushes.get(0).run();
+
+        // Then
+        assertThat(appliedChanges).hasSize(1);
+        List<MarkerChange> changes = appliedChanges.get(0).get(null);
+        assertThat(changes).hasSize(1);
+        assertThat(changes.get(0).previous().getLineNumber()).isEqualTo(1);
+        assertThat(changes.get(0).current().getLineNumber()).isEqualTo(3);
+        assertThat(queue.getPendingChangesCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testAddedThenDeletedMarkerIsDropped() {
+        // Given
+        BookmarkMarker marker = marker(new BookmarkId(), 1);
+
+        // When
+        queue.markerAdded(marker);
+        queue.markerDeleted(marker);
+        scheduledFlushes.get(0).run();
+
+        // Then
+        assertThat(appliedChanges).isEmpty();
+    }
+
+    @Test
+    public void testNewFlushScheduledAfterFlush() {
+        // Given
+        queue.markerAdded(marker(new BookmarkId(), 1));
+        scheduledFlushes.get(0).run();
+
+        // When
+        queue.markerAdded(marker(new BookmarkId(), 2));
+
+        // Then
+        assertThat(scheduledFlushes).hasSize(2);
+    }
+
+    private BookmarkMarker marker(BookmarkId bookmarkId, int lineNumber) {
+        return new BookmarkMarker(null, bookmarkId, Map.of(BookmarkMarker.LINE_NUMBER, Integer.toString(lineNumber)));
+    }
+
+}
@@ -788,6 +788,44 @@ class MesFavorisBookmarksMcpToolsetTest : BasePlatformTestCase() {
         }
     }
 
+    // --- modify_bookmarks ---
+
+    @Test
+    fun testModifyBookmarksUpdatesAllBookmarks() {
+        runBlocking {
+            toolset.modify_bookmarks(
+                ids = listOf(taskBookmarkId.toString(), projectBookmarkId.toString()),
+                properties = mapOf("comment" to "updated"))
+
+            val tree = bookmarkDatabase.getBookmarksTree()
+            assertThat(tree.getBookmark(taskBookmarkId)?.getPropertyValue("comment")).isEqualTo("updated")
+            assertThat(tree.getBookmark(projectBookmarkId)?.getPropertyValue("comment")).isEqualTo("updated")
+        }
+    }
+
+    @Test
+    fun testModifyBookmarksPreservesOtherProperties() {
+        runBlocking {
+            val nameBefore = bookmarkDatabase.getBookmarksTree().getBookmark(projectBookmarkId)?.getPropertyValue("name")
+            toolset.modify_bookmarks(
+                ids = listOf(taskBookmarkId.toString(), projectBookmarkId.toString()),
+                properties = mapOf("comment" to "new comment"))
+
+            val bookmark = bookmarkDatabase.getBookmarksTree().getBookmark(projectBookmarkId)
+            assertThat(bookmark?.getPropertyValue("name")).isEqualTo(nameBefore)
+        }
+    }
+
+    @Test
+    fun testModifyBookmarksWithInvalidIdFails() {
+        assertMcpFails("not found") {
+            runBlocking {
+                toolset.modify_bookmarks(ids = listOf(taskBookmarkId.toString(), "nonexistent"), properties = mapOf("comment" to "x"))
+            }
+        }
+        assertThat(bookmarkDatabase.getBookmarksTree().getBookmark(taskBookmarkId)?.getPropertyValue("comment")).isNotEqualTo("x")
+    }
+
     // --- update_bookmark ---
 
     @Test
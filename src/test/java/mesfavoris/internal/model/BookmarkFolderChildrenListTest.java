@@ -4,6 +4,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -92,4 +94,150 @@ public class BookmarkFolderChildrenListTest {
 		assertEquals(Lists.newArrayList(bookmark1, bookmark3), bookmarkFolderChildrenList.getBookmarks());
 	}
 
+	@Test
+	public void testRemoveSeveralBookmarks() {
+		// Given
+
+		// When
+		bookmarkFolderChildrenList = bookmarkFolderChildrenList
+				.remove(Lists.newArrayList(bookmark3, new BookmarkId("unknown"), bookmark1));
+
+		// Then
+		assertEquals(Lists.newArrayList(bookmark2), bookmarkFolderChildrenList.getBookmarks());
+	}
+
+	@Test
+	public void testMoveBefore() {
+		// Given
+
+		// When
+		bookmarkFolderChildrenList = bookmarkFolderChildrenList.moveBefore(Lists.newArrayList(bookmark3), bookmark1);
+
+		// Then
+		assertEquals(Lists.newArrayList(bookmark3, bookmark1, bookmark2), bookmarkFolderChildrenList.getBookmarks());
+	}
+
+	@Test
+	public void testMoveAfter() {
+		// Given
+
+		// When
+		bookmarkFolderChildrenList = bookmarkFolderChildrenList.moveAfter(Lists.newArrayList(bookmark1), bookmark3);
+
+		// Then
+		assertEquals(Lists.newArrayList(bookmark2, bookmark3, bookmark1), bookmarkFolderChildrenList.getBookmarks());
+	}
+
+	@Test
+	public void testMoveToSamePlace() {
+		// Given
+		BookmarkFolderChildrenList initialList = bookmarkFolderChildrenList;
+
+		// When
+		bookmarkFolderChildrenList = bookmarkFolderChildrenList
+				.moveBefore(Lists.newArrayList(bookmark1, bookmark2), bookmark3)
+				.moveAfter(Lists.newArrayList(bookmark2, bookmark3), bookmark1)
+				.moveBefore(Lists.newArrayList(bookmark3), null)
+				.moveAfter(Lists.newArrayList(bookmark1), null);
+
+		// Then
+		assertSame(initialList, bookmarkFolderChildrenList);
+	}
+
+	@Test
+	public void testRemoveNothing() {
+		// Given
+		BookmarkFolderChildrenList initialList = bookmarkFolderChildrenList;
+
+		// When
+		bookmarkFolderChildrenList = bookmarkFolderChildrenList.remove(Lists.newArrayList(new BookmarkId("unknown")));
+
+		// Then
+		assertSame(initialList, bookmarkFolderChildrenList);
+	}
+
+	@Test
+	public void testIndexOf() {
+		// Given
+
+		// When
+		int index = bookmarkFolderChildrenList.indexOf(bookmark3);
+
+		// Then
+		assertEquals(2, index);
+		assertEquals(-1, bookmarkFolderChildrenList.indexOf(new BookmarkId("unknown")));
+	}
+
+	@Test
+	public void testAddManyTimesAtSamePosition() {
+		// Given
+		List<BookmarkId> expected = Lists.newArrayList(bookmark1, bookmark2, bookmark3);
+
+		// When
+		for (int i = 0; i < 100; i++) {
+			BookmarkId bookmarkId = new BookmarkId("new" + i);
+			bookmarkFolderChildrenList = bookmarkFolderChildrenList.addBefore(Lists.newArrayList(bookmarkId),
+					bookmark2);
+			expected.add(expected.indexOf(bookmark2), bookmarkId);
+		}
+
+		// Then
+		assertEquals(expected, bookmarkFolderChildrenList.getBookmarks());
+	}
+
+	@Test
+	public void testAddManyTimesAfterSameBookmark() {
+		// Given
+		List<BookmarkId> expected = Lists.newArrayList(bookmark1, bookmark2, bookmark3);
+
+		// When
+		for (int i = 0; i < 5000; i++) {
+			BookmarkId bookmarkId = new BookmarkId("new" + i);
+			bookmarkFolderChildrenList = bookmarkFolderChildrenList.addAfter(Lists.newArrayList(bookmarkId),
+					bookmark1);
+			expected.add(1, bookmarkId);
+		}
+
+		// Then
+		assertEquals(expected, bookmarkFolderChildrenList.getBookmarks());
+		assertEquals(5001, bookmarkFolderChildrenList.indexOf(bookmark2));
+	}
+
+	@Test
+	public void testRandomModifications() {
+		// Given
+		Random random = new Random(42);
+		List<BookmarkId> expected = Lists.newArrayList(bookmark1, bookmark2, bookmark3);
+
+		// When
+		for (int i = 0; i < 2000; i++) {
+			BookmarkId bookmarkId = new BookmarkId("new" + i);
+			BookmarkId existingBookmark = expected.isEmpty() ? bookmark1
+					: expected.get(random.nextInt(expected.size()));
+			switch (random.nextInt(4)) {
+			case 0:
+				bookmarkFolderChildrenList = bookmarkFolderChildrenList.add(Lists.newArrayList(bookmarkId));
+				expected.add(bookmarkId);
+				break;
+			case 1:
+				bookmarkFolderChildrenList = bookmarkFolderChildrenList.addBefore(Lists.newArrayList(bookmarkId),
+						existingBookmark);
+				expected.add(expected.isEmpty() ? 0 : expected.indexOf(existingBookmark), bookmarkId);
+				break;
+			case 2:
+				bookmarkFolderChildrenList = bookmarkFolderChildrenList.addAfter(Lists.newArrayList(bookmarkId),
+						existingBookmark);
+				expected.add(expected.isEmpty() ? 0 : expected.indexOf(existingBookmark) + 1, bookmarkId);
+				break;
+			default:
+				bookmarkFolderChildrenList = bookmarkFolderChildrenList.remove(Lists.newArrayList(existingBookmark));
+				expected.remove(existingBookmark);
+			}
+			assertEquals(expected.indexOf(existingBookmark), bookmarkFolderChildrenList.indexOf(existingBookmark));
+		}
+
+		// Then
+		assertEquals(expected, bookmarkFolderChildrenList.getBookmarks());
+	}
+
 }
@@ -54,7 +54,7 @@ public class BookmarksAutoSaverTest extends BasePlatformTestCase {
                 Duration.ofMillis(5000));
 
         // Then
-        verify(localBookmarksSaver, atLeastOnce()).saveBookmarks(any(BookmarksTree.class));
+        verify(localBookmarksSaver, atLeastOnce()).saveModifications(anyList());
     }
 
     public void testDirtyBookmarks() throws Exception {
@@ -0,0 +1,131 @@
+package mesfavoris.internal.persistence;
+
+import mesfavoris.model.Bookmark;
+import mesfavoris.model.BookmarkId;
+import mesfavoris.model.BookmarksTree;
+import mesfavoris.model.modification.BookmarksTreeModifier;
+import mesfavoris.persistence.json.BookmarksTreeJsonDeserializer;
+import mesfavoris.persistence.json.BookmarksTreeJsonSerializer;
+import mesfavoris.tests.commons.bookmarks.BookmarksTreeGenerator;
+import mesfavoris.tests.commons.bookmarks.IncrementalIDGenerator;
+import mesfavoris.tests.commons.bookmarks.RandomModificationApplier;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookmarksJournalTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private final IncrementalIDGenerator idGenerator = new IncrementalIDGenerator();
+    private File snapshotFile;
+    private BookmarksJournal bookmarksJournal;
+    private BookmarksTree snapshotTree;
+
+    @Before
+    public void setUp() throws IOException {
+        snapshotFile = temporaryFolder.newFile("bookmarks.json");
+        bookmarksJournal = new BookmarksJournal(new File(temporaryFolder.getRoot(), "bookmarks.journal"));
+        snapshotTree = new BookmarksTreeGenerator(idGenerator, 5, 3, 2).build();
+        writeSnapshot(snapshotTree);
+        bookmarksJournal.reset(BookmarksJournal.getChecksum(snapshotFile.toPath()));
+    }
+
+    @Test
+    public void testReplayJournal() throws IOException {
+        // Given
+        BookmarksTree bookmarksTree = snapshotTree;
+        int modificationsCount = 0;
+        RandomModificationApplier randomModificationApplier = new RandomModificationApplier(idGenerator);
+        for (int i = 0; i < 100; i++) {
+            BookmarksTreeModifier bookmarksTreeModifier = new BookmarksTreeModifier(bookmarksTree);
+            randomModificationApplier.applyRandomModification(bookmarksTreeModifier,
+                    new PrintWriter(new StringWriter()));
+            bookmarksJournal.append(bookmarksTreeModifier.getModifications());
+            modificationsCount += bookmarksTreeModifier.getModifications().size();
+            bookmarksTree = bookmarksTreeModifier.getCurrentTree();
+        }
+
+        // When
+        BookmarksTree replayedTree = bookmarksJournal.replay(readSnapshot(), snapshotFile.toPath());
+
+        // Then
+        assertThat(replayedTree.toString()).isEqualTo(bookmarksTree.toString());
+        assertThat(bookmarksJournal.getRecordsCount()).isEqualTo(modificationsCount);
+    }
+
+    @Test
+    public void testReplayJournalWithPropertiesModification() throws IOException {
+        // Given
+        BookmarkId bookmarkId = snapshotTree.getChildren(snapshotTree.getRootFolder().getId()).get(0).getId();
+        BookmarksTreeModifier bookmarksTreeModifier = new BookmarksTreeModifier(snapshotTree);
+        bookmarksTreeModifier.setPropertyValue(bookmarkId, Bookmark.PROPERTY_COMMENT, "my comment");
+        bookmarksTreeModifier.setPropertyValue(bookmarkId, Bookmark.PROPERTY_NAME, null);
+        bookmarksJournal.append(bookmarksTreeModifier.getModifications());
+
+        // When
+        BookmarksTree replayedTree = bookmarksJournal.replay(readSnapshot(), snapshotFile.toPath());
+
+        // Then
+        assertThat(replayedTree.getBookmark(bookmarkId).getProperties())
+                .isEqualTo(bookmarksTreeModifier.getCurrentTree().getBookmark(bookmarkId).getProperties());
+    }
+
+    @Test
+    public void testObsoleteJournalIsIgnored() throws IOException {
+        // Given
+        BookmarksTreeModifier bookmarksTreeModifier = new BookmarksTreeModifier(snapshotTree);
+        bookmarksTreeModifier.deleteBookmark(
+                snapshotTree.getChildren(snapshotTree.getRootFolder().getId()).get(0).getId(), true);
+        bookmarksJournal.append(bookmarksTreeModifier.getModifications());
+        // snapshot written but journal not reset yet
+        writeSnapshot(bookmarksTreeModifier.getCurrentTree());
+
+        // When
+        BookmarksTree replayedTree = bookmarksJournal.replay(readSnapshot(), snapshotFile.toPath());
+
+        // Then
+        assertThat(replayedTree.toString()).isEqualTo(bookmarksTreeModifier.getCurrentTree().toString());
+        assertThat(bookmarksJournal.getRecordsCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testPartiallyWrittenRecordIsIgnored() throws IOException {
+        // Given
+        BookmarksTreeModifier bookmarksTreeModifier = new BookmarksTreeModifier(snapshotTree);
+        bookmarksTreeModifier.deleteBookmark(
+                snapshotTree.getChildren(snapshotTree.getRootFolder().getId()).get(0).getId(), true);
+        bookmarksJournal.append(bookmarksTreeModifier.getModifications());
+        Files.writeString(temporaryFolder.getRoot().toPath().resolve("bookmarks.journal"), "{\"op\":\"del",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        // When
+        BookmarksTree replayedTree = bookmarksJournal.replay(readSnapshot(), snapshotFile.toPath());
+
+        // Then
+        assertThat(replayedTree.toString()).isEqualTo(bookmarksTreeModifier.getCurrentTree().toString());
+        assertThat(bookmarksJournal.getRecordsCount()).isEqualTo(1);
+    }
+
+    private void writeSnapshot(BookmarksTree bookmarksTree) throws IOException {
+        StringWriter writer = new StringWriter();
+        new BookmarksTreeJsonSerializer(true).serialize(bookmarksTree, bookmarksTree.getRootFolder().getId(), writer);
+        Files.writeString(snapshotFile.toPath(), writer.toString(), StandardCharsets.UTF_8);
+    }
+
+    private BookmarksTree readSnapshot() throws IOException {
+        return new BookmarksTreeJsonDeserializer()
+                .deserialize(Files.newBufferedReader(snapshotFile.toPath(), StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,53 @@
+package mesfavoris.internal.persistence;
+
+import mesfavoris.persistence.BookmarksTreeFormat;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookmarksTreeFormatsStoreTest {
+    private final BookmarksTreeFormatsStore store = new BookmarksTreeFormatsStore();
+
+    @Test
+    public void testStoresUseJsonByDefault() {
+        assertThat(store.getFormat(BookmarksTreeFormatsStore.LOCAL_STORE_ID)).isEqualTo(BookmarksTreeFormat.JSON);
+        assertThat(store.getFormat("gdrive")).isEqualTo(BookmarksTreeFormat.JSON);
+    }
+
+    @Test
+    public void testFormatIsSetPerStore() {
+        // When
+        store.setFormat("gdrive", BookmarksTreeFormat.BINARY);
+
+        // Then
+        assertThat(store.getFormat("gdrive")).isEqualTo(BookmarksTreeFormat.BINARY);
+        assertThat(store.getFormat(BookmarksTreeFormatsStore.LOCAL_STORE_ID)).isEqualTo(BookmarksTreeFormat.JSON);
+    }
+
+    @Test
+    public void testFormatIsRestoredFromState() {
+        // Given
+        store.setFormat(BookmarksTreeFormatsStore.LOCAL_STORE_ID, BookmarksTreeFormat.BINARY);
+        BookmarksTreeFormatsStore otherStore = new BookmarksTreeFormatsStore();
+
+        // When
+        otherStore.loadState(store.getState());
+
+        // Then
+        assertThat(otherStore.getFormat(BookmarksTreeFormatsStore.LOCAL_STORE_ID))
+                .isEqualTo(BookmarksTreeFormat.BINARY);
+    }
+
+    @Test
+    public void testUnknownFormatFallsBackToJson() {
+        // Given
+        BookmarksTreeFormatsStore.State state = new BookmarksTreeFormatsStore.State();
+        state.formats.put("gdrive", "XML");
+
+        // When
+        store.loadState(state);
+
+        // Then
+        assertThat(store.getFormat("gdrive")).isEqualTo(BookmarksTreeFormat.JSON);
+    }
+}
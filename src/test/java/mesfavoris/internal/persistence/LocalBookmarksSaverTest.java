@@ -11,13 +11,17 @@ import mesfavoris.model.Bookmark;
 import mesfavoris.model.BookmarkFolder;
 import mesfavoris.model.BookmarkId;
 import mesfavoris.model.BookmarksTree;
+import mesfavoris.persistence.BookmarksTreeFormat;
+import mesfavoris.persistence.FormatDetectingBookmarksTreeDeserializer;
 import mesfavoris.persistence.json.BookmarksTreeJsonSerializer;
 import mesfavoris.tests.commons.waits.Waiter;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -132,5 +136,68 @@ public class LocalBookmarksSaverTest extends BasePlatformTestCase {
         assertThat(content).contains("root");
     }
 
+    public void testSaveBookmarksDoesNotLeaveTemporaryFile() throws Exception {
+        // Given
+        BookmarksTree originalTree = createBookmarksTree();
+        VirtualFile virtualFile = myFixture.getTempDirFixture().createFile("test-bookmarks.json");
+        File file = new File(virtualFile.getPath());
+        LocalBookmarksSaver saver = new LocalBookmarksSaver(file, new BookmarksTreeJsonSerializer(true));
+
+        // When
+        saver.saveBookmarks(originalTree);
+
+        // Then
+        assertThat(file).exists();
+        assertThat(new File(file.getPath() + ".tmp")).doesNotExist();
+    }
+
+    public void testSaveSameBookmarksTreeDoesNotRewriteFile() throws Exception {
+        // Given
+        BookmarksTree originalTree = createBookmarksTree();
+        VirtualFile virtualFile = myFixture.getTempDirFixture().createFile("test-bookmarks.json");
+        File file = new File(virtualFile.getPath());
+        LocalBookmarksSaver saver = new LocalBookmarksSaver(file, new BookmarksTreeJsonSerializer(true));
+        saver.saveBookmarks(originalTree);
+        Files.writeString(file.toPath(), "modified content");
+
+        // When
+        saver.saveBookmarks(originalTree);
+
+        // Then
+        assertThat(Files.readString(file.toPath())).isEqualTo("modified content");
+    }
+
+    public void testSaveBookmarksUsesSuppliedFormat() throws Exception {
+        // Given
+        BookmarksTree originalTree = createBookmarksTree();
+        VirtualFile virtualFile = myFixture.getTempDirFixture().createFile("test-bookmarks.json");
+        File file = new File(virtualFile.getPath());
+        AtomicReference<BookmarksTreeFormat> format = new AtomicReference<>(BookmarksTreeFormat.JSON);
+        LocalBookmarksSaver saver = new LocalBookmarksSaver(file, () -> format.get().createSerializer(), null);
+        saver.saveBookmarks(originalTree);
+        format.set(BookmarksTreeFormat.BINARY);
+
+        // When
+        BookmarksTree modifiedTree = originalTree.setPropertyValue(new BookmarkId("test"), Bookmark.PROPERTY_NAME,
+                "Modified Bookmark");
+        saver.saveBookmarks(modifiedTree);
+
+        // Then
+        byte[] content = Files.readAllBytes(file.toPath());
+        assertThat(BookmarksTreeFormat.detect(content, content.length)).isEqualTo(BookmarksTreeFormat.BINARY);
+        BookmarksTree loadedTree = new FormatDetectingBookmarksTreeDeserializer()
+                .deserialize(new ByteArrayInputStream(content));
+        assertThat(loadedTree.getBookmark(new BookmarkId("test")).getPropertyValue(Bookmark.PROPERTY_NAME))
+                .isEqualTo("Modified Bookmark");
+    }
+
+    private BookmarksTree createBookmarksTree() {
+        BookmarkFolder rootFolder = new BookmarkFolder(new BookmarkId("root"), "Root");
+        BookmarksTree bookmarksTree = new BookmarksTree(rootFolder);
+        Map<String, String> bookmarkProperties = new HashMap<>();
+        bookmarkProperties.put(Bookmark.PROPERTY_NAME, "Test Bookmark");
+        Bookmark bookmark = new Bookmark(new BookmarkId("test"), bookmarkProperties);
+        return bookmarksTree.addBookmarks(rootFolder.getId(), asList(bookmark));
+    }
 
 }
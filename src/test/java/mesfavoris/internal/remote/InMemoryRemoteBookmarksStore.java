@@ -8,6 +8,7 @@ import mesfavoris.model.BookmarkId;
 import mesfavoris.model.BookmarksTree;
 import mesfavoris.model.IBookmarksListener;
 import mesfavoris.model.modification.BookmarkDeletedModification;
+import mesfavoris.model.modification.BookmarksBatchModification;
 import mesfavoris.model.modification.BookmarksModification;
 import mesfavoris.remote.*;
 
@@ -63,7 +64,7 @@ public class InMemoryRemoteBookmarksStore extends AbstractRemoteBookmarksStore i
 		BookmarksTree subTree = bookmarksTree.subTree(bookmarkFolderId);
 		inMemoryRemoteBookmarksTrees.put(bookmarkFolderId, new InMemoryRemoteBookmarksTree(subTree, etag));
 		remoteBookmarkFolderProperties.put(bookmarkFolderId, new ConcurrentHashMap<>());
-		return new RemoteBookmarksTree(this, subTree, etag);
+		return keepEtag(new RemoteBookmarksTree(this, subTree, etag));
 	}
 
 	public void addRemoteBookmarkFolderProperty(BookmarkId bookmarkId, String key, String value) {
@@ -108,8 +109,8 @@ public class InMemoryRemoteBookmarksStore extends AbstractRemoteBookmarksStore i
 		if (inMemoryRemoteBookmarksTree == null) {
 			throw new IllegalArgumentException();
 		}
-		return new RemoteBookmarksTree(this, inMemoryRemoteBookmarksTree.bookmarksTree,
-				inMemoryRemoteBookmarksTree.etag);
+		return keepEtag(new RemoteBookmarksTree(this, inMemoryRemoteBookmarksTree.bookmarksTree,
+				inMemoryRemoteBookmarksTree.etag));
 	}
 
 	@Override
@@ -129,7 +130,7 @@ public class InMemoryRemoteBookmarksStore extends AbstractRemoteBookmarksStore i
 				newInMemoryRemoteBookmarksTree)) {
 			throw new ConflictException();
 		}
-		return new RemoteBookmarksTree(this, subTree, etag);
+		return keepEtag(new RemoteBookmarksTree(this, subTree, etag));
 	}
 
 	@Override
@@ -151,7 +152,7 @@ public class InMemoryRemoteBookmarksStore extends AbstractRemoteBookmarksStore i
 	}
 
 	private List<BookmarkId> getDeletedMappedBookmarkFolders(List<BookmarksModification> events) {
-		return events.stream().filter(p -> p instanceof BookmarkDeletedModification)
+		return BookmarksBatchModification.expand(events).stream().filter(p -> p instanceof BookmarkDeletedModification)
 				.map(p -> (BookmarkDeletedModification) p)
 				.filter(p -> inMemoryRemoteBookmarksTrees.containsKey(p.getBookmarkId())).map(BookmarkDeletedModification::getBookmarkId)
 				.collect(Collectors.toList());
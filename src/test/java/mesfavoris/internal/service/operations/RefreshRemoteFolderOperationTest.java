@@ -9,8 +9,11 @@ import mesfavoris.model.BookmarkId;
 import mesfavoris.model.BookmarksTree;
 import mesfavoris.persistence.IBookmarksDirtyStateTracker;
 import mesfavoris.remote.RemoteBookmarksStoreManager;
+import mesfavoris.remote.RemoteBookmarksTree;
 import mesfavoris.tests.commons.bookmarks.BookmarksTreeBuilder;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static mesfavoris.tests.commons.bookmarks.BookmarkBuilder.bookmark;
 import static mesfavoris.tests.commons.bookmarks.BookmarkBuilder.bookmarkFolder;
 import static mesfavoris.tests.commons.bookmarks.BookmarksTreeBuilder.bookmarksTree;
@@ -62,6 +65,23 @@ public class RefreshRemoteFolderOperationTest extends BasePlatformTestCase {
 				bookmarkDatabase.getBookmarksTree().subTree(new BookmarkId("bookmarkFolder2")).toString());
 	}
 
+	public void testRefreshSeveralRemoteFoldersOfStore() throws Exception {
+		// Given
+		remoteBookmarksStore.add(getRemoteBookmarkFolder1(), new BookmarkId("bookmarkFolder1"),
+				new EmptyProgressIndicator());
+		remoteBookmarksStore.add(getRemoteBookmarkFolder2(), new BookmarkId("bookmarkFolder2"),
+				new EmptyProgressIndicator());
+
+		// When
+		refreshRemoteFolderOperation.refresh(remoteBookmarksStore.getDescriptor().id(), new EmptyProgressIndicator());
+
+		// Then
+		assertEquals(getRemoteBookmarkFolder1().toString(),
+				bookmarkDatabase.getBookmarksTree().subTree(new BookmarkId("bookmarkFolder1")).toString());
+		assertEquals(getRemoteBookmarkFolder2().toString(),
+				bookmarkDatabase.getBookmarksTree().subTree(new BookmarkId("bookmarkFolder2")).toString());
+	}
+
 	public void testRefreshRemoteFolderWaitsUntilNotDirty() throws Exception {
 		// Given
 		remoteBookmarksStore.add(getRemoteBookmarkFolder2(), new BookmarkId("bookmarkFolder2"),
@@ -78,6 +98,47 @@ public class RefreshRemoteFolderOperationTest extends BasePlatformTestCase {
 
 	}
 
+	public void testRefreshRemoteFolderDoesNotWaitIfNothingToMerge() throws Exception {
+		// Given
+		BookmarksTree remoteBookmarkFolder2 = bookmarkDatabase.getBookmarksTree()
+				.subTree(new BookmarkId("bookmarkFolder2"));
+		remoteBookmarksStore.add(remoteBookmarkFolder2, new BookmarkId("bookmarkFolder2"),
+				new EmptyProgressIndicator());
+		when(bookmarksDirtyStateTracker.isDirty()).thenReturn(true);
+
+		// When
+		refreshRemoteFolderOperation.refresh(new BookmarkId("bookmarkFolder2"), new EmptyProgressIndicator());
+
+		// Then
+		assertEquals(remoteBookmarkFolder2.toString(),
+				bookmarkDatabase.getBookmarksTree().subTree(new BookmarkId("bookmarkFolder2")).toString());
+		verify(bookmarksDirtyStateTracker, never()).isDirty();
+	}
+
+	public void testRefreshRemoteFolderLoadsAgainIfSavedWhileDirty() throws Exception {
+		// Given
+		BookmarkId bookmarkFolderId = new BookmarkId("bookmarkFolder2");
+		RemoteBookmarksTree remoteBookmarksTree = remoteBookmarksStore.add(getRemoteBookmarkFolder2(),
+				bookmarkFolderId, new EmptyProgressIndicator());
+		AtomicBoolean saved = new AtomicBoolean();
+		when(bookmarksDirtyStateTracker.isDirty()).thenAnswer(invocation -> {
+			if (saved.compareAndSet(false, true)) {
+				// local modifications saved to the remote store while the database is dirty
+				remoteBookmarksStore.save(getModifiedRemoteBookmarkFolder2(), bookmarkFolderId,
+						remoteBookmarksTree.getEtag(), new EmptyProgressIndicator());
+				return true;
+			}
+			return false;
+		});
+
+		// When
+		refreshRemoteFolderOperation.refresh(bookmarkFolderId, new EmptyProgressIndicator());
+
+		// Then
+		assertEquals(getModifiedRemoteBookmarkFolder2().toString(),
+				bookmarkDatabase.getBookmarksTree().subTree(bookmarkFolderId).toString());
+	}
+
 	private BookmarksTree getInitialTree() {
 		BookmarksTreeBuilder bookmarksTreeBuilder = bookmarksTree("rootFolder");
 		bookmarksTreeBuilder.addBookmarks("rootFolder", bookmarkFolder("bookmarkFolder1"),
@@ -87,6 +148,12 @@ public class RefreshRemoteFolderOperationTest extends BasePlatformTestCase {
 		return bookmarksTreeBuilder.build();
 	}
 
+	private BookmarksTree getRemoteBookmarkFolder1() {
+		BookmarksTreeBuilder bookmarksTreeBuilder = bookmarksTree("bookmarkFolder1");
+		bookmarksTreeBuilder.addBookmarks("bookmarkFolder1", bookmark("bookmark2"), bookmark("bookmark6"));
+		return bookmarksTreeBuilder.build();
+	}
+
 	private BookmarksTree getRemoteBookmarkFolder2() {
 		BookmarksTreeBuilder bookmarksTreeBuilder = bookmarksTree("bookmarkFolder2");
 		bookmarksTreeBuilder.addBookmarks("bookmarkFolder2", bookmark("bookmark3"), bookmark("bookmark4"),
@@ -94,4 +161,11 @@ public class RefreshRemoteFolderOperationTest extends BasePlatformTestCase {
 		return bookmarksTreeBuilder.build();
 	}
 
+	private BookmarksTree getModifiedRemoteBookmarkFolder2() {
+		BookmarksTreeBuilder bookmarksTreeBuilder = bookmarksTree("bookmarkFolder2");
+		bookmarksTreeBuilder.addBookmarks("bookmarkFolder2", bookmark("bookmark3"), bookmark("bookmark5"),
+				bookmark("bookmark6"));
+		return bookmarksTreeBuilder.build();
+	}
+
 }
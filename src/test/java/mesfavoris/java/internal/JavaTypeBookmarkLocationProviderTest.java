@@ -1,11 +1,18 @@
 package mesfavoris.java.internal;
 
 import com.google.common.collect.ImmutableMap;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
 import com.intellij.testFramework.fixtures.BasePlatformTestCase;
 import mesfavoris.model.Bookmark;
 import mesfavoris.model.BookmarkId;
 
+import java.util.List;
+import java.util.Map;
+
 import static mesfavoris.java.JavaBookmarkProperties.*;
 import static mesfavoris.texteditor.TextEditorBookmarkProperties.PROP_LINE_CONTENT;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -113,4 +120,50 @@ public class JavaTypeBookmarkLocationProviderTest extends BasePlatformTestCase {
 		assertThat(location.getLineNumber()).isEqualTo(146);
 	}
 
+	public void testFindLocationsOfBookmarksInSameFile() {
+		// Given
+		Bookmark bookmark1 = new Bookmark(new BookmarkId(), ImmutableMap.of(PROP_JAVA_DECLARING_TYPE,
+				"org.apache.commons.cli.DefaultParser", PROP_JAVA_ELEMENT_KIND, KIND_METHOD, PROP_JAVA_ELEMENT_NAME,
+				"handleProperties", PROP_LINE_CONTENT,
+				"for (Enumeration<?> enumeration = properties.propertyNames(); enumeration.hasMoreElements();)"));
+		Bookmark bookmark2 = new Bookmark(new BookmarkId(),
+				ImmutableMap.of(PROP_JAVA_DECLARING_TYPE, "org.apache.commons.cli.DefaultParser",
+						PROP_JAVA_ELEMENT_KIND, KIND_METHOD, PROP_JAVA_ELEMENT_NAME, "parse",
+						PROP_JAVA_METHOD_SIGNATURE, "CommandLine parse(Options,String[],Properties,boolean)"));
+		Bookmark bookmark3 = new Bookmark(new BookmarkId(),
+				ImmutableMap.of(PROP_JAVA_TYPE, "org.apache.commons.cli.DoesNotExist"));
+
+		// When
+		Map<BookmarkId, JavaTypeMemberBookmarkLocation> locations = javaBookmarkLocationProvider
+				.getBookmarkLocations(getProject(), List.of(bookmark1, bookmark2, bookmark3),
+						new EmptyProgressIndicator());
+
+		// Then
+		assertThat(locations).containsOnlyKeys(bookmark1.getId(), bookmark2.getId());
+		assertThat(locations.get(bookmark1.getId()).getLineNumber()).isEqualTo(146);
+		assertThat(locations.get(bookmark2.getId()).getLineNumber()).isEqualTo(98);
+	}
+
+	public void testFindLocationAfterFileModification() {
+		// Given
+		Bookmark bookmark = new Bookmark(new BookmarkId(),
+				ImmutableMap.of(PROP_JAVA_TYPE, "org.apache.commons.cli.DefaultParser"));
+		javaBookmarkLocationProvider.getBookmarkLocation(getProject(), bookmark, new EmptyProgressIndicator());
+		PsiFile psiFile = myFixture.configureFromTempProjectFile(
+				"commons-cli/src/main/java/org/apache/commons/cli/DefaultParser.java");
+		Document document = PsiDocumentManager.getInstance(getProject()).getDocument(psiFile);
+
+		// When
+		WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+			document.insertString(0, "\n\n");
+			PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+		});
+		JavaTypeMemberBookmarkLocation location = javaBookmarkLocationProvider.getBookmarkLocation(
+				getProject(), bookmark, new EmptyProgressIndicator());
+
+		// Then
+		assertThat(location).isNotNull();
+		assertThat(location.getLineNumber()).isEqualTo(32);
+	}
+
 }
@@ -337,6 +337,61 @@ public class BookmarksTreeTest {
 		assertThat(thrown).isInstanceOf(IllegalStateException.class);
 	}
 
+	@Test
+	public void testSetPropertiesOfSeveralBookmarks() {
+		// Given
+		Map<BookmarkId, Map<String, String>> bookmarksProperties = Maps.newHashMap();
+		bookmarksProperties.put(bookmark1.getId(), Map.of("prop1", "value1"));
+		bookmarksProperties.put(bookmark4.getId(), Map.of("prop1", "value4"));
+
+		// When
+		bookmarksTree = bookmarksTree.setProperties(bookmarksProperties);
+
+		// Then
+		assertEquals("value1", bookmarksTree.getBookmark(bookmark1.getId()).getPropertyValue("prop1"));
+		assertEquals("value4", bookmarksTree.getBookmark(bookmark4.getId()).getPropertyValue("prop1"));
+	}
+
+	@Test
+	public void testDeleteBookmarks() {
+		// Given
+
+		// When
+		bookmarksTree = bookmarksTree.deleteBookmarks(
+				Lists.newArrayList(bookmark1.getId(), bookmark3.getId(), bookmarkFolder2.getId()), true);
+
+		// Then
+		assertEquals(Lists.newArrayList(bookmark2), bookmarksTree.getChildren(bookmarkFolder1.getId()));
+		assertEquals(Lists.newArrayList(bookmarkFolder1), bookmarksTree.getChildren(rootFolder.getId()));
+		assertNull(bookmarksTree.getBookmark(bookmark4.getId()));
+		assertEquals(3, bookmarksTree.size());
+	}
+
+	@Test
+	public void testDeleteBookmarksFolderWithAllItsChildren() {
+		// Given
+
+		// When
+		bookmarksTree = bookmarksTree.deleteBookmarks(Lists.newArrayList(bookmarkFolder2.getId(), bookmark4.getId(),
+				bookmark5.getId(), bookmark6.getId()), false);
+
+		// Then
+		assertNull(bookmarksTree.getBookmark(bookmarkFolder2.getId()));
+		assertEquals(Lists.newArrayList(bookmarkFolder1), bookmarksTree.getChildren(rootFolder.getId()));
+	}
+
+	@Test
+	public void testCannotDeleteBookmarksWithNonEmptyBookmarkFolder() {
+		// When
+		Throwable thrown = catchThrowable(() -> {
+			bookmarksTree = bookmarksTree
+					.deleteBookmarks(Lists.newArrayList(bookmarkFolder2.getId(), bookmark4.getId()), false);
+		});
+
+		// Then
+		assertThat(thrown).isInstanceOf(IllegalStateException.class);
+	}
+
 	@Test
 	public void testSubTree() {
 		// Given
@@ -346,6 +401,69 @@ public class BookmarksTreeTest {
 
 		// Then
 		assertEquals(bookmarkFolder1, subTree.getRootFolder());
+		assertEquals(4, subTree.size());
+		assertEquals(Lists.newArrayList(bookmark1, bookmark2, bookmark3), subTree.getChildren(bookmarkFolder1.getId()));
+		assertNull(subTree.getParentBookmark(bookmarkFolder1.getId()));
+		assertNull(subTree.getBookmark(bookmark4.getId()));
+	}
+
+	@Test
+	public void testSubTreeOfRootFolder() {
+		// Given
+
+		// When
+		BookmarksTree subTree = bookmarksTree.subTree(rootFolder.getId());
+
+		// Then
+		assertSame(bookmarksTree, subTree);
+	}
+
+	@Test
+	public void testBuilder() {
+		// Given
+		BookmarksTree.Builder builder = BookmarksTree.builder(rootFolder);
+
+		// When
+		builder.addBookmarks(rootFolder.getId(), Lists.newArrayList(bookmarkFolder1, bookmarkFolder2));
+		builder.addBookmarks(bookmarkFolder1.getId(), Lists.newArrayList(bookmark1, bookmark2, bookmark3));
+		builder.addBookmarks(bookmarkFolder2.getId(), Lists.newArrayList(bookmark4, bookmark5, bookmark6));
+		BookmarksTree builtBookmarksTree = builder.build();
+
+		// Then
+		assertEquals(bookmarksTree.toString(), builtBookmarksTree.toString());
+		assertEquals(bookmarksTree.size(), builtBookmarksTree.size());
+		assertEquals(bookmarkFolder2, builtBookmarksTree.getParentBookmark(bookmark6.getId()));
+		assertNull(builtBookmarksTree.getParentBookmark(rootFolder.getId()));
+	}
+
+	@Test
+	public void testBuilderCannotAddBookmarkTwice() {
+		// Given
+		BookmarksTree.Builder builder = BookmarksTree.builder(rootFolder);
+		builder.addBookmarks(rootFolder.getId(), Lists.newArrayList(bookmark1));
+
+		// When
+		Throwable thrown = catchThrowable(() -> {
+			builder.addBookmarks(rootFolder.getId(), Lists.newArrayList(bookmark1));
+		});
+
+		// Then
+		assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testBuilderCannotAddBookmarkUnderBookmark() {
+		// Given
+		BookmarksTree.Builder builder = BookmarksTree.builder(rootFolder);
+		builder.addBookmarks(rootFolder.getId(), Lists.newArrayList(bookmark1));
+
+		// When
+		Throwable thrown = catchThrowable(() -> {
+			builder.addBookmarks(bookmark1.getId(), Lists.newArrayList(bookmark2));
+		});
+
+		// Then
+		assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
 	}
 
 }
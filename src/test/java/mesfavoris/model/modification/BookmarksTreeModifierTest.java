@@ -0,0 +1,67 @@
+package mesfavoris.model.modification;
+
+import mesfavoris.model.Bookmark;
+import mesfavoris.model.BookmarkId;
+import mesfavoris.model.BookmarksTree;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static mesfavoris.tests.commons.bookmarks.BookmarkBuilder.bookmark;
+import static mesfavoris.tests.commons.bookmarks.BookmarkBuilder.bookmarkFolder;
+import static mesfavoris.tests.commons.bookmarks.BookmarksTreeBuilder.bookmarksTree;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookmarksTreeModifierTest {
+	private BookmarksTree bookmarksTree;
+
+	@Before
+	public void setUp() {
+		bookmarksTree = bookmarksTree("root").addBookmarks("root", bookmarkFolder("folder1"), bookmarkFolder("folder2"))
+				.addBookmarks("folder1", bookmark("bookmark11"), bookmark("bookmark12"))
+				.addBookmarks("folder2", bookmark("bookmark21"), bookmark("bookmark22")).build();
+	}
+
+	@Test
+	public void testSetPropertiesOfSeveralBookmarks() {
+		// Given
+		BookmarksTreeModifier bookmarksTreeModifier = new BookmarksTreeModifier(bookmarksTree);
+
+		// When
+		bookmarksTreeModifier.setProperties(Map.of(new BookmarkId("bookmark11"),
+				Map.of(Bookmark.PROPERTY_NAME, "bookmark11", "tags", "tag1"), new BookmarkId("bookmark21"),
+				Map.of(Bookmark.PROPERTY_NAME, "bookmark21", "tags", "tag1"), new BookmarkId("bookmark22"),
+				bookmarksTree.getBookmark(new BookmarkId("bookmark22")).getProperties()));
+
+		// Then
+		List<BookmarksModification> modifications = bookmarksTreeModifier.getModifications();
+		assertThat(modifications).hasSize(1).first().isInstanceOf(BookmarksBatchModification.class);
+		assertThat(BookmarksBatchModification.expand(modifications)).hasSize(2)
+				.allSatisfy(modification -> assertThat(modification).isInstanceOf(BookmarkPropertiesModification.class)
+						.extracting(m -> ((BookmarkPropertiesModification) m).getAddedProperties())
+						.isEqualTo(Set.of("tags")));
+	}
+
+	@Test
+	public void testDeleteBookmarks() {
+		// Given
+		BookmarksTreeModifier bookmarksTreeModifier = new BookmarksTreeModifier(bookmarksTree);
+
+		// When
+		bookmarksTreeModifier.deleteBookmarks(List.of(new BookmarkId("bookmark11"), new BookmarkId("folder2"),
+				new BookmarkId("bookmark21"), new BookmarkId("unknown")), true);
+
+		// Then
+		List<BookmarksModification> modifications = bookmarksTreeModifier.getModifications();
+		assertThat(modifications).hasSize(1);
+		assertThat(modifications.get(0).getTargetTree().size()).isEqualTo(3);
+		List<BookmarksModification> deletedModifications = BookmarksBatchModification.expand(modifications);
+		assertThat(deletedModifications).extracting(m -> ((BookmarkDeletedModification) m).getBookmarkId())
+				.containsExactly(new BookmarkId("bookmark11"), new BookmarkId("folder2"));
+		assertThat(((BookmarkDeletedModification) deletedModifications.get(1)).getDeletedBookmarks()).hasSize(3);
+	}
+
+}
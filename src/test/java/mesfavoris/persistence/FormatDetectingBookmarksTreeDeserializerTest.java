@@ -0,0 +1,40 @@
+package mesfavoris.persistence;
+
+import mesfavoris.model.BookmarksTree;
+import mesfavoris.tests.commons.bookmarks.BookmarksTreeGenerator;
+import mesfavoris.tests.commons.bookmarks.IncrementalIDGenerator;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class FormatDetectingBookmarksTreeDeserializerTest {
+	private final FormatDetectingBookmarksTreeDeserializer deserializer = new FormatDetectingBookmarksTreeDeserializer();
+
+	@Test
+	public void testDeserializeJson() throws IOException {
+		testDeserialize(BookmarksTreeFormat.JSON);
+	}
+
+	@Test
+	public void testDeserializeBinary() throws IOException {
+		testDeserialize(BookmarksTreeFormat.BINARY);
+	}
+
+	private void testDeserialize(BookmarksTreeFormat format) throws IOException {
+		// Given
+		BookmarksTree bookmarksTree = new BookmarksTreeGenerator(new IncrementalIDGenerator(), 3, 3, 2).build();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		format.createSerializer().serialize(bookmarksTree, bookmarksTree.getRootFolder().getId(), outputStream);
+
+		// When
+		BookmarksTree result = deserializer.deserialize(new ByteArrayInputStream(outputStream.toByteArray()));
+
+		// Then
+		assertEquals(bookmarksTree.toString(), result.toString());
+	}
+
+}
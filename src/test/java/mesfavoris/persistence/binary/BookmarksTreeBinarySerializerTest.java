@@ -0,0 +1,116 @@
+package mesfavoris.persistence.binary;
+
+import mesfavoris.model.BookmarkFolder;
+import mesfavoris.model.BookmarkId;
+import mesfavoris.model.BookmarksTree;
+import mesfavoris.persistence.json.BookmarksTreeJsonSerializer;
+import mesfavoris.tests.commons.bookmarks.BookmarksTreeGenerator;
+import mesfavoris.tests.commons.bookmarks.IncrementalIDGenerator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+import static mesfavoris.tests.commons.bookmarks.BookmarkBuilder.bookmark;
+import static mesfavoris.tests.commons.bookmarks.BookmarksTreeBuilder.bookmarksTree;
+import static mesfavoris.tests.commons.bookmarks.BookmarksTreeTestUtil.getBookmarkFolder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.Assert.assertEquals;
+
+public class BookmarksTreeBinarySerializerTest {
+	private BookmarksTreeBinarySerializer bookmarksTreeBinarySerializer;
+
+	@Before
+	public void setUp() {
+		bookmarksTreeBinarySerializer = new BookmarksTreeBinarySerializer();
+	}
+
+	@Test
+	public void testSerializeBookmarksTree() throws IOException {
+		// Given
+		BookmarksTree bookmarksTree = new BookmarksTreeGenerator(new IncrementalIDGenerator(), 5, 3, 2).build();
+
+		// When
+		byte[] result = serialize(bookmarksTree, bookmarksTree.getRootFolder().getId());
+
+		// Then
+		assertEquals(bookmarksTree.toString(), deserialize(result).toString());
+	}
+
+	@Test
+	public void testSerializeBookmarksSubTree() throws IOException {
+		// Given
+		BookmarksTree bookmarksTree = new BookmarksTreeGenerator(new IncrementalIDGenerator(), 5, 3, 2).build();
+		BookmarkFolder parentFolder = getBookmarkFolder(bookmarksTree, 0, 0);
+
+		// When
+		byte[] result = serialize(bookmarksTree, parentFolder.getId());
+
+		// Then
+		assertEquals(bookmarksTree.subTree(parentFolder.getId()).toString(), deserialize(result).toString());
+	}
+
+	@Test
+	public void testSerializeBase64Properties() throws IOException {
+		// Given
+		String icon = Base64.getEncoder().encodeToString(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14,
+				15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30 });
+		BookmarksTree bookmarksTree = bookmarksTree("root")
+				.addBookmarks("root", bookmark("bookmark1").withProperty("icon", icon),
+						bookmark("bookmark2").withProperty("icon", icon),
+						bookmark("bookmark3").withProperty("icon", icon + "===="),
+						bookmark("bookmark4").withProperty("comment", "été"))
+				.build();
+
+		// When
+		byte[] result = serialize(bookmarksTree, bookmarksTree.getRootFolder().getId());
+
+		// Then
+		assertEquals(bookmarksTree.toString(), deserialize(result).toString());
+	}
+
+	@Test
+	public void testBinaryFormatIsSmallerThanJson() throws IOException {
+		// Given
+		BookmarksTree bookmarksTree = new BookmarksTreeGenerator(new IncrementalIDGenerator(), 5, 3, 2).build();
+		ByteArrayOutputStream jsonOutputStream = new ByteArrayOutputStream();
+		new BookmarksTreeJsonSerializer(true).serialize(bookmarksTree, bookmarksTree.getRootFolder().getId(),
+				jsonOutputStream);
+
+		// When
+		byte[] result = serialize(bookmarksTree, bookmarksTree.getRootFolder().getId());
+
+		// Then
+		assertThat(result.length).isLessThan(jsonOutputStream.size() / 2);
+	}
+
+	@Test
+	public void testCannotDeserializeBookmarksTreeWithNewerVersion() throws IOException {
+		// Given
+		BookmarksTree bookmarksTree = new BookmarksTreeGenerator(new IncrementalIDGenerator(), 5, 3, 2).build();
+		byte[] result = serialize(bookmarksTree, bookmarksTree.getRootFolder().getId());
+		result[BinarySerializerConstants.MAGIC.length] = 99;
+
+		// When
+		Throwable thrown = catchThrowable(() -> deserialize(result));
+
+		// Then
+		assertThat(thrown).isInstanceOf(IOException.class).hasMessage("Invalid format : unknown version");
+	}
+
+	private byte[] serialize(BookmarksTree bookmarksTree, BookmarkId bookmarkFolderId) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		bookmarksTreeBinarySerializer.serialize(bookmarksTree, bookmarkFolderId, outputStream);
+		return outputStream.toByteArray();
+	}
+
+	private BookmarksTree deserialize(byte[] serializedBookmarks) throws IOException {
+		BookmarksTreeBinaryDeserializer deserializer = new BookmarksTreeBinaryDeserializer();
+		return deserializer.deserialize(new ByteArrayInputStream(serializedBookmarks));
+	}
+
+}
@@ -8,9 +8,11 @@ import mesfavoris.tests.commons.bookmarks.IncrementalIDGenerator;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 
 import static mesfavoris.tests.commons.bookmarks.BookmarksTreeTestUtil.getBookmarkFolder;
 import static org.junit.Assert.assertEquals;
@@ -48,6 +50,20 @@ public class BookmarksTreeJsonSerializerTest {
 		assertEquals(bookmarksTree.subTree(parentFolder.getId()).toString(), deserialize(result).toString());
 	}
 
+	@Test
+	public void testSerializeBookmarksTreeToOutputStream() throws IOException {
+		// Given
+		BookmarksTree bookmarksTree = new BookmarksTreeGenerator(new IncrementalIDGenerator(), 5, 3, 2).build();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		// When
+		bookmarksTreeJsonSerializer.serialize(bookmarksTree, bookmarksTree.getRootFolder().getId(), outputStream);
+
+		// Then
+		String result = outputStream.toString(StandardCharsets.UTF_8);
+		assertEquals(serialize(bookmarksTree, bookmarksTree.getRootFolder().getId()), result);
+	}
+
 	private String serialize(BookmarksTree bookmarksTree, BookmarkId bookmarkFolderId) throws IOException {
 		StringWriter writer = new StringWriter();
 		bookmarksTreeJsonSerializer.serialize(bookmarksTree, bookmarkFolderId, writer);
@@ -0,0 +1,112 @@
+package mesfavoris.remote;
+
+import static mesfavoris.tests.commons.bookmarks.BookmarkBuilder.bookmark;
+import static mesfavoris.tests.commons.bookmarks.BookmarkBuilder.bookmarkFolder;
+import static mesfavoris.tests.commons.bookmarks.BookmarksTreeBuilder.bookmarksTree;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import mesfavoris.model.Bookmark;
+import mesfavoris.model.BookmarkFolder;
+import mesfavoris.model.BookmarkId;
+import mesfavoris.model.BookmarksTree;
+import mesfavoris.model.modification.BookmarksModification;
+import mesfavoris.model.modification.BookmarksTreeModifier;
+import mesfavoris.tests.commons.bookmarks.BookmarksTreeGenerator;
+import mesfavoris.tests.commons.bookmarks.IncrementalIDGenerator;
+import mesfavoris.tests.commons.bookmarks.RandomModificationApplier;
+
+public class RemoteBookmarkFoldersIndexTest {
+	private BookmarksTree bookmarksTree;
+	private RemoteBookmarkFoldersIndex index;
+
+	@Before
+	public void setUp() {
+		bookmarksTree = bookmarksTree("root").addBookmarks("root", bookmarkFolder("folder1"), bookmarkFolder("folder2"))
+				.addBookmarks("folder1", bookmark("bookmark11"), bookmarkFolder("folder11"))
+				.addBookmarks("folder11", bookmark("bookmark111"))
+				.addBookmarks("folder2", bookmark("bookmark21")).build();
+		index = RemoteBookmarkFoldersIndex.build(bookmarksTree, Set.of(new BookmarkId("folder1")));
+	}
+
+	@Test
+	public void testGetRemoteBookmarkFolderId() {
+		assertThat(index.getRemoteBookmarkFolderId(new BookmarkId("folder1"))).isEqualTo(new BookmarkId("folder1"));
+		assertThat(index.getRemoteBookmarkFolderId(new BookmarkId("bookmark111")))
+				.isEqualTo(new BookmarkId("folder1"));
+		assertThat(index.getRemoteBookmarkFolderId(new BookmarkId("bookmark21"))).isNull();
+		assertThat(index.getRemoteBookmarkFolderId(new BookmarkId("root"))).isNull();
+	}
+
+	@Test
+	public void testMoveBookmarksOutOfRemoteBookmarkFolder() {
+		// Given
+		BookmarksTreeModifier bookmarksTreeModifier = new BookmarksTreeModifier(bookmarksTree);
+		bookmarksTreeModifier.move(List.of(new BookmarkId("folder11")), new BookmarkId("folder2"));
+
+		// When
+		index = index.apply(bookmarksTreeModifier.getModifications().get(0));
+
+		// Then
+		assertThat(index.getBookmarksTree()).isSameAs(bookmarksTreeModifier.getCurrentTree());
+		assertThat(index.getRemoteBookmarkFolderId(new BookmarkId("folder11"))).isNull();
+		assertThat(index.getRemoteBookmarkFolderId(new BookmarkId("bookmark111"))).isNull();
+	}
+
+	@Test
+	public void testAddBookmarksToRemoteBookmarkFolder() {
+		// Given
+		BookmarksTreeModifier bookmarksTreeModifier = new BookmarksTreeModifier(bookmarksTree);
+		bookmarksTreeModifier.addBookmarks(new BookmarkId("folder11"),
+				List.of(new Bookmark(new BookmarkId("bookmark112"))));
+
+		// When
+		index = index.apply(bookmarksTreeModifier.getModifications().get(0));
+
+		// Then
+		assertThat(index.getRemoteBookmarkFolderId(new BookmarkId("bookmark112")))
+				.isEqualTo(new BookmarkId("folder1"));
+	}
+
+	@Test
+	public void testApplyRandomModifications() {
+		// Given
+		IncrementalIDGenerator idGenerator = new IncrementalIDGenerator();
+		bookmarksTree = new BookmarksTreeGenerator(idGenerator, 4, 3, 2).build();
+		Set<BookmarkId> remoteBookmarkFolderIds = Set.of(getFolder(bookmarksTree, 0).getId(),
+				getFolder(bookmarksTree, 1).getId());
+		index = RemoteBookmarkFoldersIndex.build(bookmarksTree, remoteBookmarkFolderIds);
+		RandomModificationApplier randomModificationApplier = new RandomModificationApplier(idGenerator);
+
+		// When
+		for (int i = 0; i < 200; i++) {
+			BookmarksTreeModifier bookmarksTreeModifier = new BookmarksTreeModifier(index.getBookmarksTree());
+			randomModificationApplier.applyRandomModification(bookmarksTreeModifier,
+					new PrintWriter(new StringWriter()));
+			for (BookmarksModification modification : bookmarksTreeModifier.getModifications()) {
+				index = index.apply(modification);
+			}
+		}
+
+		// Then
+		RemoteBookmarkFoldersIndex expectedIndex = RemoteBookmarkFoldersIndex.build(index.getBookmarksTree(),
+				remoteBookmarkFolderIds);
+		for (Bookmark bookmark : index.getBookmarksTree()) {
+			assertThat(index.getRemoteBookmarkFolderId(bookmark.getId()))
+					.isEqualTo(expectedIndex.getRemoteBookmarkFolderId(bookmark.getId()));
+		}
+	}
+
+	private BookmarkFolder getFolder(BookmarksTree bookmarksTree, int index) {
+		return bookmarksTree.getChildren(bookmarksTree.getRootFolder().getId()).stream()
+				.filter(BookmarkFolder.class::isInstance).map(BookmarkFolder.class::cast).toList().get(index);
+	}
+
+}
@@ -0,0 +1,78 @@
+package mesfavoris.texteditor.internal;
+
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WorkspaceFileCacheTest extends BasePlatformTestCase {
+    private WorkspaceFileCache workspaceFileCache;
+    private VirtualFile file;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        workspaceFileCache = WorkspaceFileCache.getInstance(getProject());
+        workspaceFileCache.clear();
+        file = myFixture.addFileToProject("module/pom.xml", "<project/>").getVirtualFile();
+        workspaceFileCache.put("module/pom.xml", file);
+    }
+
+    public void testGetCachedFile() {
+        // When
+        VirtualFile cachedFile = workspaceFileCache.get("module/pom.xml").orElse(null);
+
+        // Then
+        assertThat(cachedFile).isEqualTo(file);
+    }
+
+    public void testEntryRemovedWhenFileIsRenamed() throws Exception {
+        // When
+        WriteAction.runAndWait(() -> file.rename(this, "pom2.xml"));
+
+        // Then
+        assertThat(workspaceFileCache.get("module/pom.xml")).isEmpty();
+    }
+
+    public void testEntryRemovedWhenFileIsDeleted() throws Exception {
+        // When
+        WriteAction.runAndWait(() -> file.delete(this));
+
+        // Then
+        assertThat(workspaceFileCache.get("module/pom.xml")).isEmpty();
+    }
+
+    public void testEntryRemovedWhenFileWithSameNameIsCreated() {
+        // When
+        myFixture.addFileToProject("other/pom.xml", "<project/>");
+
+        // Then
+        assertThat(workspaceFileCache.get("module/pom.xml")).isEmpty();
+    }
+
+    public void testEntryRemovedWhenDirectoryIsCreatedAboveWorkspacePath() throws Exception {
+        // Given
+        VirtualFile contentRoot = file.getParent().getParent();
+        workspaceFileCache.put("lib/util/pom.xml", file);
+
+        // When
+        WriteAction.runAndWait(() -> contentRoot.createChildDirectory(this, "lib"));
+
+        // Then
+        assertThat(workspaceFileCache.get("lib/util/pom.xml")).isEmpty();
+        assertThat(workspaceFileCache.get("module/pom.xml")).contains(file);
+    }
+
+    public void testStateIsPersisted() {
+        // Given
+        WorkspaceFileCache.State state = workspaceFileCache.getState();
+        workspaceFileCache.clear();
+
+        // When
+        workspaceFileCache.loadState(state);
+
+        // Then
+        assertThat(workspaceFileCache.get("module/pom.xml")).contains(file);
+    }
+}
@@ -79,5 +79,20 @@ public class FilteredCharSequenceTest {
 			assertEquals(target.charAt(i), source.charAt(target.getParentIndex(i)));
 		}
 	}
-	
+
+	@Test
+	public void testLowerCaseFilteredCharSequence() {
+		// Given
+		String source = "    This    IS  a String   ";
+
+		// When
+		FilteredCharSequence target = new FilteredCharSequence(source, removeWhiteCharsFilter, true);
+
+		// Then
+		assertEquals("thisisastring", target.toString());
+		for (int i = 0; i < target.length(); i++) {
+			assertEquals(target.charAt(i), Character.toLowerCase(source.charAt(target.getParentIndex(i))));
+		}
+	}
+
 }
@@ -0,0 +1,51 @@
+package mesfavoris.texteditor.text.matching;
+
+import com.google.common.io.CharStreams;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BitapMultiWordStringMatcherTest extends BasePlatformTestCase {
+	private BitapMultiWordStringMatcher matcher;
+	private String text;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		text = CharStreams.toString(
+				new InputStreamReader(this.getClass().getResourceAsStream("AbstractDocument.java.txt"), StandardCharsets.UTF_8));
+
+		matcher = new BitapMultiWordStringMatcher(new DistanceMatchScoreComputer(10000));
+	}
+
+	public void testFind() {
+		// Given
+		String searchPattern = "RegisteredReplace(IDocumentListener docListener, IDocumentExtension.IReplace replace) {";
+
+		// When
+		int match = matcher.find(text, searchPattern, 30, new EmptyProgressIndicator());
+
+		// Then
+		assertThat(text.substring(match))
+				.startsWith("RegisteredReplace(IDocumentListener owner, IDocumentExtension.IReplace replace) {");
+	}
+
+	public void testFindPatternLongerThan128Characters() {
+		// Given
+		String searchPattern = "public void replace(int pos, int length, String text, long modificationStamp) throws BadLocationException {\n"
+				+ "\t\tif ((0 > pos) || (0 > lenght) || (pos + lenght > getLength()))";
+		int expectedLocation = text.indexOf("public void replace(int pos") - 500;
+
+		// When
+		int match = matcher.find(text, searchPattern, expectedLocation, new EmptyProgressIndicator());
+
+		// Then
+		assertThat(text.substring(match)).startsWith(
+				"public void replace(int pos, int length, String text, long modificationStamp) throws BadLocationException {");
+	}
+}
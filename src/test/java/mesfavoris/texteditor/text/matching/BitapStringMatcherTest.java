@@ -35,4 +35,15 @@ public class BitapStringMatcherTest extends BasePlatformTestCase {
 				.startsWith("RegisteredReplace(IDocumentListener owner, IDocumentExtension.IReplace replace) {");
 	}
 
+	public void testFindNonAsciiPattern() {
+		// Given
+		String text = "l'été est très chaud, l'hiver très froid";
+
+		// When
+		int match = matcher.find(text, "trés froid", 0, new EmptyProgressIndicator());
+
+		// Then
+		assertThat(match).isEqualTo(30);
+	}
+
 }
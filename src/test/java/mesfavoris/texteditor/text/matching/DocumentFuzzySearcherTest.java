@@ -1,20 +1,25 @@
 package mesfavoris.texteditor.text.matching;
 
 import com.google.common.io.CharStreams;
+import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.impl.DocumentImpl;
 import com.intellij.openapi.progress.EmptyProgressIndicator;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import mesfavoris.texteditor.text.matching.DocumentFuzzySearcher.LineSearch;
+import mesfavoris.texteditor.text.matching.LineSearchMetrics.Resolution;
 
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class DocumentFuzzySearcherTest extends BasePlatformTestCase {
 	private DocumentFuzzySearcher searcher;
 	private Document document;
+	private LineSearchMetrics metrics;
 
 	@Override
 	protected void setUp() throws Exception {
@@ -23,7 +28,8 @@ public class DocumentFuzzySearcherTest extends BasePlatformTestCase {
 		String text = CharStreams.toString(
 				new InputStreamReader(this.getClass().getResourceAsStream("AbstractDocument.java.txt"), StandardCharsets.UTF_8));
 		document = new DocumentImpl(text);
-		searcher = new DocumentFuzzySearcher(document);
+		metrics = new LineSearchMetrics();
+		searcher = new DocumentFuzzySearcher(document, 0.5f, metrics);
 	}
 
 	public void testFindLine() {
@@ -72,6 +78,114 @@ public class DocumentFuzzySearcherTest extends BasePlatformTestCase {
 		assertThat(lineNumber).isEqualTo(468);
 	}
 
+	public void testFindLineAtExpectedLineNumber() {
+		// Given
+		String searchPattern = "protected  int computeIndexInPositionList(List positions, int offset, boolean orderedByOffset) {";
+
+		// When
+		int lineNumber = searcher.findLineNumber(468, searchPattern, new EmptyProgressIndicator());
+
+		// Then
+		assertThat(lineNumber).isEqualTo(468);
+		assertThat(metrics.getCount(Resolution.EXPECTED_LINE)).isEqualTo(1);
+	}
+
+	public void testFindLineNearExpectedLineNumber() {
+		// Given
+		String searchPattern = "protected int computeIndexInPositionList(List positions, int offset, boolean orderedByOffset) {";
+
+		// When
+		int lineNumber = searcher.findLineNumber(450, searchPattern, new EmptyProgressIndicator());
+
+		// Then
+		assertThat(lineNumber).isEqualTo(468);
+		assertThat(metrics.getCount(Resolution.NEARBY_LINE)).isEqualTo(1);
+		assertThat(metrics.getCount(Resolution.FUZZY_SEARCH)).isEqualTo(0);
+	}
+
+	public void testFindModifiedLineUsingFuzzySearch() {
+		// Given
+		String searchPattern = "private int computeIndexInPosition(List positions, int offset, boolean orderedByOffset) {";
+
+		// When
+		int lineNumber = searcher.findLineNumber(450, searchPattern, new EmptyProgressIndicator());
+
+		// Then
+		assertThat(lineNumber).isEqualTo(468);
+		assertThat(metrics.getCount(Resolution.FUZZY_SEARCH)).isEqualTo(1);
+	}
+
+	public void testFindLineAfterDocumentModification() {
+		// Given
+		String searchPattern = "private int computeIndexInPosition(List positions, int offset, boolean orderedByOffset) {";
+		searcher.findLineNumber(450, searchPattern, new EmptyProgressIndicator());
+		WriteCommandAction.runWriteCommandAction(getProject(), () -> document.insertString(0, "\n\n"));
+
+		// When
+		int lineNumber = searcher.findLineNumber(450, searchPattern, new EmptyProgressIndicator());
+
+		// Then
+		assertThat(lineNumber).isEqualTo(470);
+	}
+
+	public void testFindLineNumbers() {
+		// Given
+		TextRange wholeDocument = new TextRange(0, document.getTextLength());
+		List<LineSearch> lineSearches = List.of(
+				new LineSearch(wholeDocument, 450,
+						"private int computeIndexInPosition(List positions, int offset, boolean orderedByOffset) {"),
+				new LineSearch(wholeDocument, 450,
+						"private   int computeIndexInPosition(List positions, int offset,boolean orderedByOffsets) {"),
+				new LineSearch(getRegion(document, 458, 483), 470, "This won't be found"));
+
+		// When
+		int[] lineNumbers = searcher.findLineNumbers(lineSearches, new EmptyProgressIndicator());
+
+		// Then
+		assertThat(lineNumbers).containsExactly(468, 468, -1);
+	}
+
+	public void testFarIdenticalLineIsLeftToFuzzySearch() {
+		// Given
+		Document document = new DocumentImpl(getTextWithModifiedLineFarFromIdenticalLine());
+		DocumentFuzzySearcher searcher = new DocumentFuzzySearcher(document, 0.5f, metrics);
+
+		// When
+		int lineNumber = searcher.findLineNumber(250, "return null;", new EmptyProgressIndicator());
+
+		// Then
+		assertThat(lineNumber).isEqualTo(250);
+		assertThat(metrics.getCount(Resolution.FUZZY_SEARCH)).isEqualTo(1);
+	}
+
+	public void testFindLineNumbersGivesSameLinesAsFindLineNumber() {
+		// Given
+		Document document = new DocumentImpl(getTextWithModifiedLineFarFromIdenticalLine());
+		DocumentFuzzySearcher searcher = new DocumentFuzzySearcher(document, 0.5f, metrics);
+		TextRange wholeDocument = new TextRange(0, document.getTextLength());
+		List<LineSearch> lineSearches = List.of(
+				new LineSearch(wholeDocument, 250, "return null;"),
+				new LineSearch(wholeDocument, 5, "return null;"),
+				new LineSearch(wholeDocument, -1, "int value100 = 100;"),
+				new LineSearch(wholeDocument, 120, "int value100 = 100;"));
+
+		// When
+		int[] lineNumbers = searcher.findLineNumbers(lineSearches, new EmptyProgressIndicator());
+
+		// Then
+		assertThat(lineNumbers).containsExactly(250, 0, 100, 100);
+		assertThat(metrics.getCount(Resolution.NEARBY_LINE)).isEqualTo(3);
+		assertThat(metrics.getCount(Resolution.FUZZY_SEARCH)).isEqualTo(1);
+	}
+
+	private String getTextWithModifiedLineFarFromIdenticalLine() {
+		StringBuilder sb = new StringBuilder("return null;\n");
+		for (int i = 1; i < 300; i++) {
+			sb.append(i == 250 ? "return nul;\n" : "int value" + i + " = " + i + ";\n");
+		}
+		return sb.toString();
+	}
+
 	private TextRange getRegion(Document document, int line1, int line2) {
 		int startOffset = document.getLineStartOffset(line1);
 		int endOffset = document.getLineEndOffset(line2);
@@ -0,0 +1,64 @@
+package mesfavoris.texteditor.text.matching;
+
+import com.google.common.io.CharStreams;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ParallelFuzzyStringMatcherTest extends BasePlatformTestCase {
+	private ParallelFuzzyStringMatcher matcher;
+	private String text;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		text = CharStreams.toString(
+				new InputStreamReader(this.getClass().getResourceAsStream("AbstractDocument.java.txt"), StandardCharsets.UTF_8));
+
+		matcher = new ParallelFuzzyStringMatcher(0.5f, new ErrorCountMatchScoreComputer(), 1000,
+				ForkJoinPool.commonPool());
+	}
+
+	public void testFind() {
+		// Given
+		String searchPattern = "while (position != null && position.offset == offset) {";
+
+		// When
+		int match = matcher.find(text, searchPattern, -1, new EmptyProgressIndicator());
+
+		// Then
+		assertThat(text.substring(match)).startsWith("while (p != null && p.offset == offset) {");
+	}
+
+	public void testSameMatchAsSequentialSearch() {
+		// Given
+		FuzzyStringMatcher sequentialMatcher = new FuzzyStringMatcher(0.5f, new ErrorCountMatchScoreComputer());
+		String searchPattern = "public void replace(int pos, int length, String text, long modificationStamp) throws BadLocationException {\n"
+				+ "\t\tif ((0 > pos) || (0 > lenght) || (pos + lenght > getLength()))";
+
+		// When
+		int match = matcher.find(text, searchPattern, -1, new EmptyProgressIndicator());
+
+		// Then
+		assertThat(match).isEqualTo(sequentialMatcher.find(text, searchPattern, -1, new EmptyProgressIndicator()));
+	}
+
+	public void testSearchIsCancelled() {
+		// Given
+		ProgressIndicator progress = new EmptyProgressIndicator();
+		progress.cancel();
+
+		// When / Then
+		assertThatThrownBy(() -> matcher.find(text, "if (fDocumentPartitioners == null) retrun;", -1, progress))
+				.isInstanceOf(ProcessCanceledException.class);
+	}
+}